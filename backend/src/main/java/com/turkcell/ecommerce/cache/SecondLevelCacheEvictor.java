@@ -0,0 +1,78 @@
+package com.turkcell.ecommerce.cache;
+
+import com.turkcell.ecommerce.entity.CategoryEntity;
+import com.turkcell.ecommerce.entity.ProductEntity;
+import com.turkcell.ecommerce.event.CacheFlushEvent;
+import com.turkcell.ecommerce.event.CategoryChangedEvent;
+import com.turkcell.ecommerce.event.FxRateChangedEvent;
+import com.turkcell.ecommerce.event.ProductChangedEvent;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.Cache;
+import org.hibernate.SessionFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+/**
+ * Keeps Hibernate's second-level and query cache coherent with the writes that bypass Hibernate
+ * (JDBC patches, stock flushes, category moves, price re-normalization, startup backfills) and with
+ * changes replayed from other instances.
+ * <p>
+ * The changed entities and all cached query results are evicted once the write has committed, so the
+ * next read loads the committed row. Query results are dropped wholesale: any product change can move
+ * a product into or out of a cached page.
+ */
+@Component
+public class SecondLevelCacheEvictor {
+
+    private final EntityManagerFactory entityManagerFactory;
+
+    public SecondLevelCacheEvictor(EntityManagerFactory entityManagerFactory) {
+        this.entityManagerFactory = entityManagerFactory;
+    }
+
+    @TransactionalEventListener
+    public void onProductChanged(ProductChangedEvent event) {
+        Cache cache = cache();
+        cache.evictEntityData(ProductEntity.class, event.productId());
+        cache.evictDefaultQueryRegion();
+    }
+
+    @TransactionalEventListener
+    public void onCategoryChanged(CategoryChangedEvent event) {
+        Cache cache = cache();
+        cache.evictEntityData(CategoryEntity.class, event.categoryId());
+        cache.evictDefaultQueryRegion();
+    }
+
+    /**
+     * Normalized prices of the currency are rewritten next (by this instance or the one that set the
+     * rate); this drops what was cached at the old rate
+     */
+    @TransactionalEventListener
+    public void onRateChanged(FxRateChangedEvent event) {
+        evictProducts();
+    }
+
+    /**
+     * Drop everything once startup (snapshot restore, backfills) is done, and on a cache flush
+     */
+    @EventListener({ApplicationReadyEvent.class, CacheFlushEvent.class})
+    public void evictAll() {
+        cache().evictAllRegions();
+    }
+
+    /**
+     * Drop all cached products and query results, after a bulk write to the products table
+     */
+    public void evictProducts() {
+        Cache cache = cache();
+        cache.evictEntityData(ProductEntity.class);
+        cache.evictDefaultQueryRegion();
+    }
+
+    private Cache cache() {
+        return entityManagerFactory.unwrap(SessionFactory.class).getCache();
+    }
+}
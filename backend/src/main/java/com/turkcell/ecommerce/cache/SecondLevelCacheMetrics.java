@@ -0,0 +1,56 @@
+package com.turkcell.ecommerce.cache;
+
+import com.turkcell.ecommerce.entity.CategoryEntity;
+import com.turkcell.ecommerce.entity.ProductEntity;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.function.ToLongFunction;
+
+/**
+ * Hit and miss counts and hit ratios of the second-level cache regions and the query cache, from
+ * Hibernate's statistics: {@code hibernate.cache.requests} and {@code hibernate.cache.hit-ratio},
+ * tagged by region ({@code categories}, {@code products}, {@code query-results}).
+ */
+@Component
+@ConditionalOnProperty(name = "ecommerce.second-level-cache.enabled", havingValue = "true", matchIfMissing = true)
+public class SecondLevelCacheMetrics {
+
+    public SecondLevelCacheMetrics(EntityManagerFactory entityManagerFactory, MeterRegistry meterRegistry) {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        register(meterRegistry, CategoryEntity.CACHE_REGION, statistics,
+                stats -> stats.getDomainDataRegionStatistics(CategoryEntity.CACHE_REGION).getHitCount(),
+                stats -> stats.getDomainDataRegionStatistics(CategoryEntity.CACHE_REGION).getMissCount());
+        register(meterRegistry, ProductEntity.CACHE_REGION, statistics,
+                stats -> stats.getDomainDataRegionStatistics(ProductEntity.CACHE_REGION).getHitCount(),
+                stats -> stats.getDomainDataRegionStatistics(ProductEntity.CACHE_REGION).getMissCount());
+        register(meterRegistry, "query-results", statistics,
+                Statistics::getQueryCacheHitCount, Statistics::getQueryCacheMissCount);
+    }
+
+    private static void register(MeterRegistry meterRegistry, String region, Statistics statistics,
+                                 ToLongFunction<Statistics> hits, ToLongFunction<Statistics> misses) {
+        FunctionCounter.builder("hibernate.cache.requests", statistics, stats -> hits.applyAsLong(stats))
+                .description("Second-level and query cache lookups")
+                .tags("region", region, "result", "hit")
+                .register(meterRegistry);
+        FunctionCounter.builder("hibernate.cache.requests", statistics, stats -> misses.applyAsLong(stats))
+                .description("Second-level and query cache lookups")
+                .tags("region", region, "result", "miss")
+                .register(meterRegistry);
+        Gauge.builder("hibernate.cache.hit-ratio", statistics, stats -> {
+                    long hitCount = hits.applyAsLong(stats);
+                    long total = hitCount + misses.applyAsLong(stats);
+                    return total == 0 ? 0 : (double) hitCount / total;
+                })
+                .description("Share of lookups served from the cache")
+                .tag("region", region)
+                .register(meterRegistry);
+    }
+}
@@ -0,0 +1,222 @@
+package com.turkcell.ecommerce.cluster;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.turkcell.ecommerce.event.CategoryChangedEvent;
+import com.turkcell.ecommerce.event.ChangeOrigin;
+import com.turkcell.ecommerce.event.FxRateChangedEvent;
+import com.turkcell.ecommerce.event.ProductChangedEvent;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Keeps the in-process caches of several instances sharing one database coherent.
+ * <p>
+ * Committed product, category and FX rate changes are collected as keys (deduplicated) and sent to
+ * the other instances every {@code flush-interval-ms}, at most {@code max-batch-keys} keys per message.
+ * Messages are numbered per node; an idle node sends heartbeats with its last number. A receiver
+ * applies a node's messages in order (see {@link RemoteChangeApplier}) and rebuilds all its caches
+ * when it sees a gap (lost message, or the first message of a node that has already sent others),
+ * since it cannot know what it missed. Each start of a node is a new incarnation whose numbering
+ * starts over; a receiver that sees a node's incarnation change rebuilds too, since the previous
+ * incarnation may have stopped before sending its last changes.
+ * <p>
+ * Rebuilds run on a thread of their own, so the transport keeps receiving meanwhile; rebuilds asked
+ * for while one is waiting to start are merged into it.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "ecommerce.invalidation.enabled", havingValue = "true")
+public class InvalidationBus {
+
+    private final InvalidationTransport transport;
+    private final RemoteChangeApplier applier;
+    private final ObjectMapper objectMapper;
+    private final String nodeId;
+    private final String incarnation = UUID.randomUUID().toString();
+    private final int maxBatchKeys;
+    private final long heartbeatIntervalMs;
+
+    private final Set<Long> pendingProducts = ConcurrentHashMap.newKeySet();
+    private final Set<Long> pendingCategories = ConcurrentHashMap.newKeySet();
+    private final Set<String> pendingCurrencies = ConcurrentHashMap.newKeySet();
+
+    // Sender state (guarded by this)
+    private long sequence;
+    private long lastSentAt;
+
+    // Receiver state (transport thread)
+    private final Map<String, NodeState> nodes = new HashMap<>();
+
+    private final ExecutorService flushExecutor =
+            Executors.newSingleThreadExecutor(Thread.ofPlatform().name("invalidation-flush").daemon().factory());
+    private final AtomicBoolean flushPending = new AtomicBoolean();
+
+    public InvalidationBus(InvalidationTransport transport, RemoteChangeApplier applier, ObjectMapper objectMapper,
+                           @Value("${ecommerce.invalidation.node-id:}") String nodeId,
+                           @Value("${ecommerce.invalidation.max-batch-keys:500}") int maxBatchKeys,
+                           @Value("${ecommerce.invalidation.heartbeat-interval-ms:1000}") long heartbeatIntervalMs) {
+        this.transport = transport;
+        this.applier = applier;
+        this.objectMapper = objectMapper;
+        this.nodeId = nodeId.isBlank() ? UUID.randomUUID().toString() : nodeId;
+        this.maxBatchKeys = maxBatchKeys;
+        this.heartbeatIntervalMs = heartbeatIntervalMs;
+    }
+
+    /**
+     * Receive once the caches are loaded; changes made elsewhere before that are in what they loaded
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        transport.listen(this::receive);
+        log.info("Invalidation bus started as node {} (incarnation {})", nodeId, incarnation);
+    }
+
+    // ---------- Sending ----------
+
+    @TransactionalEventListener
+    public void onProductChanged(ProductChangedEvent event) {
+        if (!ChangeOrigin.isRemote()) {
+            pendingProducts.add(event.productId());
+        }
+    }
+
+    @TransactionalEventListener
+    public void onCategoryChanged(CategoryChangedEvent event) {
+        if (!ChangeOrigin.isRemote()) {
+            pendingCategories.add(event.categoryId());
+        }
+    }
+
+    @TransactionalEventListener
+    public void onRateChanged(FxRateChangedEvent event) {
+        if (!ChangeOrigin.isRemote()) {
+            pendingCurrencies.add(event.currency());
+        }
+    }
+
+    /**
+     * Send the keys collected since the last run
+     */
+    @Scheduled(fixedDelayString = "${ecommerce.invalidation.flush-interval-ms:50}")
+    public synchronized void flush() {
+        while (!pendingProducts.isEmpty() || !pendingCategories.isEmpty() || !pendingCurrencies.isEmpty()) {
+            int[] room = {maxBatchKeys};
+            Set<Long> categoryIds = drain(pendingCategories, room);
+            Set<Long> productIds = drain(pendingProducts, room);
+            Set<String> currencies = drain(pendingCurrencies, room);
+            send(new InvalidationMessage(nodeId, incarnation, ++sequence, productIds, categoryIds, currencies));
+        }
+    }
+
+    /**
+     * Let receivers notice a lost last message of an otherwise idle node
+     */
+    @Scheduled(fixedDelayString = "${ecommerce.invalidation.heartbeat-interval-ms:1000}")
+    public synchronized void heartbeat() {
+        if (System.currentTimeMillis() - lastSentAt >= heartbeatIntervalMs) {
+            send(InvalidationMessage.heartbeat(nodeId, incarnation, sequence));
+        }
+    }
+
+    private void send(InvalidationMessage message) {
+        lastSentAt = System.currentTimeMillis();
+        try {
+            transport.send(objectMapper.writeValueAsBytes(message));
+        } catch (IOException | RuntimeException ex) {
+            // Not retried: receivers see the gap and rebuild
+            log.warn("Sending invalidation message {} failed: {}", message.sequence(), ex.getMessage());
+        }
+    }
+
+    private static <K> Set<K> drain(Set<K> pending, int[] room) {
+        Set<K> drained = new HashSet<>();
+        for (Iterator<K> it = pending.iterator(); it.hasNext() && room[0] > 0; room[0]--) {
+            drained.add(it.next());
+            it.remove();
+        }
+        return drained;
+    }
+
+    // ---------- Receiving ----------
+
+    private void receive(byte[] payload) {
+        InvalidationMessage message;
+        try {
+            message = objectMapper.readValue(payload, InvalidationMessage.class);
+        } catch (IOException ex) {
+            log.warn("Ignoring malformed invalidation message: {}", ex.getMessage());
+            return;
+        }
+        if (nodeId.equals(message.nodeId())) {
+            return;
+        }
+        NodeState node = nodes.get(message.nodeId());
+        if (node != null && !node.incarnation().equals(message.incarnation())) {
+            // Restarted: its numbering starts over, and changes its previous run had not sent are lost
+            log.warn("Node {} restarted; rebuilding caches", message.nodeId());
+            requestFlush("restart of node " + message.nodeId());
+            nodes.put(message.nodeId(), new NodeState(message.incarnation(), message.sequence()));
+            return;
+        }
+        long last = node != null ? node.sequence() : 0;
+        if (message.sequence() <= last) {
+            // Heartbeat of an up-to-date node, or a duplicate
+            return;
+        }
+        if (message.sequence() == last + 1 && !message.isEmpty()) {
+            applier.apply(message);
+        } else {
+            // A heartbeat ahead of us names the last message sent, which we have not seen either
+            long lastMissed = message.isEmpty() ? message.sequence() : message.sequence() - 1;
+            log.warn("Invalidation messages {}..{} of node {} were missed; rebuilding caches",
+                    last + 1, lastMissed, message.nodeId());
+            requestFlush("missed invalidation messages of node " + message.nodeId());
+        }
+        // Only once handled: if that failed, the node's next message shows a gap
+        nodes.put(message.nodeId(), new NodeState(message.incarnation(), message.sequence()));
+    }
+
+    private void requestFlush(String reason) {
+        if (!flushPending.compareAndSet(false, true)) {
+            log.debug("Rebuild for {} merged into the pending one", reason);
+            return;
+        }
+        flushExecutor.execute(() -> {
+            // Cleared first: a gap seen during the rebuild may concern data it has already read
+            flushPending.set(false);
+            try {
+                applier.flushAll(reason);
+            } catch (RuntimeException ex) {
+                log.warn("Rebuilding caches for {} failed", reason, ex);
+            }
+        });
+    }
+
+    @PreDestroy
+    public void close() {
+        flushExecutor.shutdownNow();
+    }
+
+    private record NodeState(String incarnation, long sequence) {
+    }
+}
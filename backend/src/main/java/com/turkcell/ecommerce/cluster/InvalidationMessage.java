@@ -0,0 +1,21 @@
+package com.turkcell.ecommerce.cluster;
+
+import java.util.Set;
+
+/**
+ * Keys changed on one instance since its previous message.
+ *
+ * @param incarnation random per start of the node, so numbering restarting from 1 is told apart from duplicates
+ * @param sequence    per-node message number, from 1; heartbeats repeat the last one and carry no keys
+ */
+public record InvalidationMessage(String nodeId, String incarnation, long sequence, Set<Long> productIds,
+                                  Set<Long> categoryIds, Set<String> currencies) {
+
+    public static InvalidationMessage heartbeat(String nodeId, String incarnation, long sequence) {
+        return new InvalidationMessage(nodeId, incarnation, sequence, Set.of(), Set.of(), Set.of());
+    }
+
+    public boolean isEmpty() {
+        return productIds.isEmpty() && categoryIds.isEmpty() && currencies.isEmpty();
+    }
+}
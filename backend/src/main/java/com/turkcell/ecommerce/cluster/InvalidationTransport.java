@@ -0,0 +1,21 @@
+package com.turkcell.ecommerce.cluster;
+
+import java.io.IOException;
+import java.util.function.Consumer;
+
+/**
+ * Carries invalidation messages between instances. Delivery may be lossy, duplicated or reordered:
+ * the bus detects this from the per-node sequence numbers.
+ */
+public interface InvalidationTransport {
+
+    /**
+     * Send a message to every other instance
+     */
+    void send(byte[] message) throws IOException;
+
+    /**
+     * Start delivering messages from other instances to the receiver (on a transport thread)
+     */
+    void listen(Consumer<byte[]> receiver);
+}
@@ -0,0 +1,95 @@
+package com.turkcell.ecommerce.cluster;
+
+import com.turkcell.ecommerce.entity.CategoryEntity;
+import com.turkcell.ecommerce.entity.FxRateEntity;
+import com.turkcell.ecommerce.entity.ProductEntity;
+import com.turkcell.ecommerce.event.CacheFlushEvent;
+import com.turkcell.ecommerce.event.CategoryChangedEvent;
+import com.turkcell.ecommerce.event.ChangeOrigin;
+import com.turkcell.ecommerce.event.ChangeType;
+import com.turkcell.ecommerce.event.FxRateChangedEvent;
+import com.turkcell.ecommerce.event.ProductChangedEvent;
+import com.turkcell.ecommerce.repository.CategoryRepository;
+import com.turkcell.ecommerce.repository.FxRateRepository;
+import com.turkcell.ecommerce.repository.ProductRepository;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Applies another instance's changes to the in-process caches: the changed rows are re-read from the
+ * (shared) database and published as local change events marked remote ({@link ChangeOrigin}), so
+ * every cache refreshes through its usual listener. Products re-read are published as updates of
+ * every field, rows no longer present as deletions.
+ */
+@Component
+@ConditionalOnProperty(name = "ecommerce.invalidation.enabled", havingValue = "true")
+public class RemoteChangeApplier {
+
+    private final ProductRepository productRepository;
+    private final CategoryRepository categoryRepository;
+    private final FxRateRepository fxRateRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionTemplate transactionTemplate;
+
+    public RemoteChangeApplier(ProductRepository productRepository, CategoryRepository categoryRepository,
+                               FxRateRepository fxRateRepository, ApplicationEventPublisher eventPublisher,
+                               TransactionTemplate transactionTemplate) {
+        this.productRepository = productRepository;
+        this.categoryRepository = categoryRepository;
+        this.fxRateRepository = fxRateRepository;
+        this.eventPublisher = eventPublisher;
+        this.transactionTemplate = transactionTemplate;
+    }
+
+    /**
+     * Refresh the caches for the keys of one message
+     */
+    public void apply(InvalidationMessage message) {
+        // A read-write transaction, so the rows come from the primary and the after-commit listeners run
+        ChangeOrigin.runRemote(() -> transactionTemplate.executeWithoutResult(status -> {
+            publishCategories(message.categoryIds());
+            publishProducts(message.productIds());
+            publishRates(message.currencies());
+        }));
+    }
+
+    /**
+     * Rebuild all caches from the database
+     */
+    public void flushAll(String reason) {
+        eventPublisher.publishEvent(new CacheFlushEvent(reason));
+    }
+
+    private void publishCategories(Set<Long> categoryIds) {
+        Set<Long> missing = new HashSet<>(categoryIds);
+        for (CategoryEntity category : categoryRepository.findAllById(categoryIds)) {
+            missing.remove(category.getId());
+            eventPublisher.publishEvent(new CategoryChangedEvent(
+                    ChangeType.UPDATED, category.getId(), category.getName(), category.getUpdatedAt()));
+        }
+        missing.forEach(id -> eventPublisher.publishEvent(new CategoryChangedEvent(ChangeType.DELETED, id, null, null)));
+    }
+
+    private void publishProducts(Set<Long> productIds) {
+        if (productIds.isEmpty()) {
+            return;
+        }
+        Set<Long> missing = new HashSet<>(productIds);
+        for (ProductEntity product : productRepository.findAllWithCategoryByIdIn(productIds)) {
+            missing.remove(product.getId());
+            eventPublisher.publishEvent(ProductChangedEvent.updated(product, ProductChangedEvent.EDITABLE_FIELDS));
+        }
+        missing.forEach(id -> eventPublisher.publishEvent(ProductChangedEvent.deleted(id, null)));
+    }
+
+    private void publishRates(Set<String> currencies) {
+        for (FxRateEntity rate : fxRateRepository.findAllById(currencies)) {
+            eventPublisher.publishEvent(new FxRateChangedEvent(rate.getCurrency(), rate.getRateToBase()));
+        }
+    }
+}
@@ -0,0 +1,106 @@
+package com.turkcell.ecommerce.cluster;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.net.DatagramPacket;
+import java.net.DatagramSocket;
+import java.net.InetSocketAddress;
+import java.net.SocketException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Consumer;
+
+/**
+ * Sends each message as one UDP datagram to every configured peer and receives on a local port.
+ * Needs no broker, so a few local processes can form a cluster; losses show up as sequence gaps.
+ * <p>
+ * Messages are not authenticated, so the socket binds to {@code bind-address} only (loopback by
+ * default) and datagrams from any address and port other than a configured peer's are dropped.
+ * Peers send from the port they listen on, so the peer list also names their source addresses.
+ */
+@Slf4j
+@Component
+@ConditionalOnExpression("${ecommerce.invalidation.enabled:false} and '${ecommerce.invalidation.transport:udp}' == 'udp'")
+public class UdpInvalidationTransport implements InvalidationTransport {
+
+    /** Largest UDP payload over IPv4 */
+    static final int MAX_DATAGRAM = 65_507;
+
+    private final DatagramSocket socket;
+    private final List<InetSocketAddress> peers;
+    private final Set<InetSocketAddress> acceptedSenders;
+
+    public UdpInvalidationTransport(@Value("${ecommerce.invalidation.udp.bind-address:127.0.0.1}") String bindAddress,
+                                    @Value("${ecommerce.invalidation.udp.port:9100}") int port,
+                                    @Value("${ecommerce.invalidation.udp.peers:}") List<String> peers)
+            throws SocketException {
+        this.socket = new DatagramSocket(new InetSocketAddress(bindAddress, port));
+        this.peers = peers.stream()
+                .filter(peer -> !peer.isBlank())
+                .map(UdpInvalidationTransport::parse)
+                .toList();
+        this.acceptedSenders = Set.copyOf(this.peers);
+        log.info("Invalidation transport listening on UDP {} with {} peers", socket.getLocalSocketAddress(),
+                this.peers.size());
+    }
+
+    @Override
+    public void send(byte[] message) throws IOException {
+        if (message.length > MAX_DATAGRAM) {
+            throw new IllegalArgumentException("Invalidation message exceeds a datagram: " + message.length + " bytes");
+        }
+        for (InetSocketAddress peer : peers) {
+            socket.send(new DatagramPacket(message, message.length, peer));
+        }
+    }
+
+    @Override
+    public void listen(Consumer<byte[]> receiver) {
+        Thread thread = new Thread(() -> receive(receiver), "invalidation-udp");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    private void receive(Consumer<byte[]> receiver) {
+        byte[] buffer = new byte[MAX_DATAGRAM];
+        while (!socket.isClosed()) {
+            DatagramPacket packet = new DatagramPacket(buffer, buffer.length);
+            try {
+                socket.receive(packet);
+            } catch (IOException ex) {
+                if (!socket.isClosed()) {
+                    log.warn("Receiving invalidation message failed: {}", ex.getMessage());
+                }
+                continue;
+            }
+            if (!acceptedSenders.contains(packet.getSocketAddress())) {
+                log.debug("Dropping invalidation datagram from {}, not a configured peer", packet.getSocketAddress());
+                continue;
+            }
+            try {
+                receiver.accept(Arrays.copyOf(packet.getData(), packet.getLength()));
+            } catch (RuntimeException ex) {
+                log.warn("Handling invalidation message failed", ex);
+            }
+        }
+    }
+
+    @PreDestroy
+    public void close() {
+        socket.close();
+    }
+
+    private static InetSocketAddress parse(String peer) {
+        int colon = peer.lastIndexOf(':');
+        if (colon < 0) {
+            throw new IllegalArgumentException("Invalidation peer must be host:port: " + peer);
+        }
+        return new InetSocketAddress(peer.substring(0, colon).trim(), Integer.parseInt(peer.substring(colon + 1).trim()));
+    }
+}
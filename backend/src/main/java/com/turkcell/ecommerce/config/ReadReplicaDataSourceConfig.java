@@ -0,0 +1,74 @@
+package com.turkcell.ecommerce.config;
+
+import com.turkcell.ecommerce.datasource.H2ReplicationStandIn;
+import com.turkcell.ecommerce.datasource.ReadWriteRoutingDataSource;
+import com.turkcell.ecommerce.datasource.ReadYourWritesTracker;
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.util.List;
+
+/**
+ * Read/write splitting: read-only transactions go to the read replicas, writes to the primary.
+ * Enabled with {@code ecommerce.datasource.read-replicas.enabled=true}.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "ecommerce.datasource.read-replicas", name = "enabled", havingValue = "true")
+public class ReadReplicaDataSourceConfig {
+
+    @Bean
+    public ReadYourWritesTracker readYourWritesTracker(
+            @Value("${ecommerce.datasource.read-replicas.sticky-window-ms:5000}") long stickyWindowMillis) {
+        return new ReadYourWritesTracker(stickyWindowMillis);
+    }
+
+    /**
+     * The primary pool, configured from {@code spring.datasource.*} and {@code spring.datasource.hikari.*}
+     * like Boot's own data source
+     */
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        return properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+    }
+
+    @Bean
+    public ReadWriteRoutingDataSource readWriteRoutingDataSource(
+            DataSourceProperties properties,
+            HikariDataSource primaryDataSource,
+            ReadYourWritesTracker tracker,
+            @Value("${ecommerce.datasource.read-replicas.urls}") List<String> replicaUrls,
+            @Value("${ecommerce.datasource.read-replicas.stand-in-replication:false}") boolean standInReplication) {
+        List<DataSource> replicas = replicaUrls.stream()
+                .map(url -> (DataSource) DataSourceBuilder.create()
+                        .driverClassName(properties.determineDriverClassName())
+                        .url(url)
+                        .username(properties.determineUsername())
+                        .password(properties.determinePassword())
+                        .build())
+                .toList();
+        // Replicas fed by the stand-in start empty, so they only take reads after the first copy
+        return new ReadWriteRoutingDataSource(primaryDataSource, replicas, tracker, !standInReplication);
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(ReadWriteRoutingDataSource routingDataSource) {
+        return new LazyConnectionDataSourceProxy(routingDataSource);
+    }
+
+    @Bean
+    @ConditionalOnProperty(prefix = "ecommerce.datasource.read-replicas", name = "stand-in-replication", havingValue = "true")
+    public H2ReplicationStandIn h2ReplicationStandIn(ReadWriteRoutingDataSource routingDataSource) {
+        return new H2ReplicationStandIn(routingDataSource);
+    }
+}
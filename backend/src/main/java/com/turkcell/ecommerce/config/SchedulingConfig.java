@@ -0,0 +1,12 @@
+package com.turkcell.ecommerce.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Enables @Scheduled background jobs (catalog snapshots, buffer flushes, etc.).
+ */
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
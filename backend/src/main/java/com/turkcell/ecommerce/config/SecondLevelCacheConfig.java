@@ -0,0 +1,82 @@
+package com.turkcell.ecommerce.config;
+
+import com.turkcell.ecommerce.entity.CategoryEntity;
+import com.turkcell.ecommerce.entity.ProductEntity;
+import org.ehcache.config.builders.CacheConfigurationBuilder;
+import org.ehcache.config.builders.ExpiryPolicyBuilder;
+import org.ehcache.config.builders.ResourcePoolsBuilder;
+import org.ehcache.core.config.DefaultConfiguration;
+import org.ehcache.jsr107.Eh107Configuration;
+import org.ehcache.jsr107.EhcacheCachingProvider;
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.hibernate.cache.spi.RegionFactory;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+import java.net.URI;
+import java.time.Duration;
+import java.util.UUID;
+
+/**
+ * Hibernate second-level and query cache, in heap caches of this instance (JCache over Ehcache).
+ * <p>
+ * Regions: categories (unbounded, they are few), products (at most {@code products.max-entries},
+ * least recently used dropped first) and the query results of the listing query (bounded likewise).
+ * Writes that bypass Hibernate evict through {@code SecondLevelCacheEvictor}. Products and query results
+ * also expire after {@code time-to-live-ms}, which bounds staleness from changes this instance is
+ * not told about row by row (another instance's price re-normalization, read replica lag).
+ */
+@Configuration
+@ConditionalOnProperty(name = "ecommerce.second-level-cache.enabled", havingValue = "true", matchIfMissing = true)
+public class SecondLevelCacheConfig {
+
+    @Bean(destroyMethod = "close")
+    public CacheManager secondLevelCacheManager(
+            @Value("${ecommerce.second-level-cache.products.max-entries:10000}") long productEntries,
+            @Value("${ecommerce.second-level-cache.query-results.max-entries:1000}") long queryResultEntries,
+            @Value("${ecommerce.second-level-cache.time-to-live-ms:60000}") long timeToLiveMs) {
+        EhcacheCachingProvider provider =
+                (EhcacheCachingProvider) Caching.getCachingProvider(EhcacheCachingProvider.class.getName());
+        // A manager of this context's own: the provider's default one is shared by every context in the JVM
+        CacheManager cacheManager = provider.getCacheManager(
+                URI.create("urn:ecommerce:second-level-cache:" + UUID.randomUUID()),
+                new DefaultConfiguration(getClass().getClassLoader()));
+        Duration timeToLive = Duration.ofMillis(timeToLiveMs);
+        createRegion(cacheManager, CategoryEntity.CACHE_REGION, Long.MAX_VALUE, null);
+        createRegion(cacheManager, ProductEntity.CACHE_REGION, productEntries, timeToLive);
+        createRegion(cacheManager, RegionFactory.DEFAULT_QUERY_RESULTS_REGION_UNQUALIFIED_NAME, queryResultEntries,
+                timeToLive);
+        // One entry per table; dropping entries would let stale query results pass as valid
+        createRegion(cacheManager, RegionFactory.DEFAULT_UPDATE_TIMESTAMPS_REGION_UNQUALIFIED_NAME, Long.MAX_VALUE, null);
+        return cacheManager;
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer secondLevelCacheProperties(CacheManager secondLevelCacheManager) {
+        return properties -> {
+            properties.put(AvailableSettings.USE_SECOND_LEVEL_CACHE, true);
+            properties.put(AvailableSettings.USE_QUERY_CACHE, true);
+            properties.put(AvailableSettings.CACHE_REGION_FACTORY, "jcache");
+            properties.put(ConfigSettings.CACHE_MANAGER, secondLevelCacheManager);
+            // Every region is created above; a misnamed one should fail startup, not be created unbounded
+            properties.put(ConfigSettings.MISSING_CACHE_STRATEGY, "fail");
+            // Hit and miss counts for the cache metrics
+            properties.put(AvailableSettings.GENERATE_STATISTICS, true);
+        };
+    }
+
+    private static void createRegion(CacheManager cacheManager, String name, long maxEntries, Duration timeToLive) {
+        CacheConfigurationBuilder<Object, Object> configuration = CacheConfigurationBuilder
+                .newCacheConfigurationBuilder(Object.class, Object.class, ResourcePoolsBuilder.heap(maxEntries));
+        if (timeToLive != null) {
+            configuration = configuration.withExpiry(ExpiryPolicyBuilder.timeToLiveExpiration(timeToLive));
+        }
+        cacheManager.createCache(name, Eh107Configuration.fromEhcacheCacheConfiguration(configuration));
+    }
+}
@@ -0,0 +1,46 @@
+package com.turkcell.ecommerce.config;
+
+import com.turkcell.ecommerce.datasource.H2ShardingStandIn;
+import com.turkcell.ecommerce.datasource.ProductShards;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+import java.util.List;
+
+/**
+ * Copies of products and categories in category-sharded databases, which serve product listings and
+ * lookups by id (see {@code ShardedProductQueries} and {@code ShardedProductWriter}).
+ * Enabled with {@code ecommerce.datasource.shards.enabled=true}.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "ecommerce.datasource.shards", name = "enabled", havingValue = "true")
+public class ShardingDataSourceConfig {
+
+    @Bean
+    public ProductShards productShards(
+            DataSourceProperties properties,
+            @Value("${ecommerce.datasource.shards.urls}") List<String> shardUrls,
+            @Value("${ecommerce.datasource.shards.stand-in-seeding:false}") boolean standInSeeding) {
+        List<DataSource> shards = shardUrls.stream()
+                .map(url -> (DataSource) DataSourceBuilder.create()
+                        .driverClassName(properties.determineDriverClassName())
+                        .url(url)
+                        .username(properties.determineUsername())
+                        .password(properties.determinePassword())
+                        .build())
+                .toList();
+        // Shards seeded by the stand-in start empty, so they are only used after the copy
+        return new ProductShards(shards, !standInSeeding);
+    }
+
+    @Bean
+    @ConditionalOnProperty(prefix = "ecommerce.datasource.shards", name = "stand-in-seeding", havingValue = "true")
+    public H2ShardingStandIn h2ShardingStandIn(DataSource dataSource, ProductShards productShards) {
+        return new H2ShardingStandIn(dataSource, productShards);
+    }
+}
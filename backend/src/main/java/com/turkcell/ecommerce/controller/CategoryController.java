@@ -1,9 +1,12 @@
 package com.turkcell.ecommerce.controller;
 
+import com.turkcell.ecommerce.dto.CategoryMoveResponse;
 import com.turkcell.ecommerce.dto.CategoryResponse;
 import com.turkcell.ecommerce.dto.CreateCategoryRequest;
+import com.turkcell.ecommerce.dto.MoveProductsRequest;
 import com.turkcell.ecommerce.dto.UpdateCategoryRequest;
 import com.turkcell.ecommerce.service.CategoryService;
+import com.turkcell.ecommerce.service.RequestCoalescer;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
@@ -24,11 +27,13 @@ import java.util.List;
 public class CategoryController {
 
     private final CategoryService categoryService;
+    private final RequestCoalescer requestCoalescer;
 
     @GetMapping
     @Operation(summary = "List all categories")
     public ResponseEntity<List<CategoryResponse>> listCategories() {
-        List<CategoryResponse> categories = categoryService.getAllCategories();
+        List<CategoryResponse> categories = requestCoalescer.execute("categories.list", "",
+                categoryService::getAllCategories);
         return ResponseEntity.ok(categories);
     }
 
@@ -61,4 +66,18 @@ public class CategoryController {
         categoryService.deleteCategory(id);
         return ResponseEntity.noContent().build();
     }
+
+    @PostMapping("/{id}/products/move")
+    @Operation(summary = "Move products to another category")
+    public ResponseEntity<CategoryMoveResponse> moveProducts(
+            @PathVariable Long id,
+            @Valid @RequestBody MoveProductsRequest request) {
+        return ResponseEntity.ok(categoryService.moveProducts(id, request));
+    }
+
+    @PostMapping("/{id}/merge-into/{targetId}")
+    @Operation(summary = "Move all products to another category and delete this one")
+    public ResponseEntity<CategoryMoveResponse> mergeCategory(@PathVariable Long id, @PathVariable Long targetId) {
+        return ResponseEntity.ok(categoryService.mergeCategory(id, targetId));
+    }
 }
@@ -2,6 +2,7 @@ package com.turkcell.ecommerce.controller;
 
 import com.turkcell.ecommerce.dto.*;
 import com.turkcell.ecommerce.service.ProductService;
+import com.turkcell.ecommerce.web.IdempotencyStore;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.media.Content;
@@ -23,6 +24,7 @@ import java.net.URI;
 public class ProductController {
 
     private final ProductService productService;
+    private final IdempotencyStore idempotencyStore;
 
     @GetMapping
     @Operation(
@@ -49,9 +51,11 @@ public class ProductController {
             @Parameter(description = "Sort format `field,asc|desc` (e.g. `createdAt,desc`)")
             @RequestParam(required = false) String sort,
             @Parameter(description = "Optional text search query (name/description)")
-            @RequestParam(required = false) String q
+            @RequestParam(required = false) String q,
+            @Parameter(description = "Allow an approximate totalElements (see `exact`) instead of a full count")
+            @RequestParam(defaultValue = "false") boolean approximateTotal
     ) {
-        ProductPageResponse response = productService.listProducts(page, size, sort, q);
+        ProductPageResponse response = productService.listProducts(page, size, sort, q, approximateTotal);
         return ResponseEntity.ok(response);
     }
 
@@ -73,17 +77,25 @@ public class ProductController {
             ),
             @ApiResponse(
                     responseCode = "409",
-                    description = "Conflict (e.g., duplicate SKU if enforced)",
+                    description = "Conflict (e.g., duplicate SKU if enforced, or the same Idempotency-Key still in progress)",
+                    content = @Content(schema = @Schema(implementation = ErrorResponse.class))
+            ),
+            @ApiResponse(
+                    responseCode = "422",
+                    description = "Idempotency-Key reused with a different request",
                     content = @Content(schema = @Schema(implementation = ErrorResponse.class))
             )
     })
     public ResponseEntity<ProductResponse> createProduct(
+            @RequestHeader(value = IdempotencyStore.IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey,
             @Valid @RequestBody CreateProductRequest request
     ) {
-        ProductResponse response = productService.createProduct(request);
-        return ResponseEntity
-                .created(URI.create("/api/v1/products/" + response.getProduct().getId()))
-                .body(response);
+        return idempotencyStore.execute("POST /api/v1/products", idempotencyKey, request, () -> {
+            ProductResponse response = productService.createProduct(request);
+            return ResponseEntity
+                    .created(URI.create("/api/v1/products/" + response.getProduct().getId()))
+                    .body(response);
+        });
     }
 
     @GetMapping("/{id}")
@@ -2,7 +2,9 @@ package com.turkcell.ecommerce.controller.v2;
 
 import com.turkcell.ecommerce.dto.ErrorResponse;
 import com.turkcell.ecommerce.dto.v2.*;
+import com.turkcell.ecommerce.search.ProductFilter;
 import com.turkcell.ecommerce.service.ProductService;
+import com.turkcell.ecommerce.web.IdempotencyStore;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.media.Content;
@@ -11,6 +13,7 @@ import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
+import jakarta.validation.constraints.PositiveOrZero;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
@@ -24,6 +27,7 @@ import java.net.URI;
 public class ProductControllerV2 {
 
     private final ProductService productService;
+    private final IdempotencyStore idempotencyStore;
 
     @GetMapping
     @Operation(summary = "List products (paginated)")
@@ -41,9 +45,21 @@ public class ProductControllerV2 {
             @Parameter(description = "Sort format `field,asc|desc` (e.g. `createdAt,desc`)")
             @RequestParam(required = false) String sort,
             @Parameter(description = "Optional text search query (name/description)")
-            @RequestParam(required = false) String q
+            @RequestParam(required = false) String q,
+            @Parameter(description = "Lowest effective (discounted) price, inclusive")
+            @RequestParam(required = false) @PositiveOrZero Double minEffectivePrice,
+            @Parameter(description = "Highest effective (discounted) price, inclusive")
+            @RequestParam(required = false) @PositiveOrZero Double maxEffectivePrice,
+            @Parameter(description = "Lowest price in the base currency (see /api/v3/fx-rates), inclusive")
+            @RequestParam(required = false) @PositiveOrZero Double minNormalizedPrice,
+            @Parameter(description = "Highest price in the base currency (see /api/v3/fx-rates), inclusive")
+            @RequestParam(required = false) @PositiveOrZero Double maxNormalizedPrice,
+            @Parameter(description = "Allow an approximate totalElements (see `exact`) instead of a full count")
+            @RequestParam(defaultValue = "false") boolean approximateTotal
     ) {
-        ProductPageResponseV2 response = productService.listProductsV2(page, size, sort, q);
+        ProductFilter filter = ProductFilter.of(q, null, minEffectivePrice, maxEffectivePrice,
+                minNormalizedPrice, maxNormalizedPrice);
+        ProductPageResponseV2 response = productService.listProductsV2(page, size, sort, filter, approximateTotal);
         return ResponseEntity.ok(response);
     }
 
@@ -54,16 +70,21 @@ public class ProductControllerV2 {
                     content = @Content(schema = @Schema(implementation = ProductResponseV2.class))),
             @ApiResponse(responseCode = "400", description = "Validation failed",
                     content = @Content(schema = @Schema(implementation = ErrorResponse.class))),
-            @ApiResponse(responseCode = "409", description = "Conflict (e.g., duplicate SKU if enforced)",
+            @ApiResponse(responseCode = "409", description = "Conflict (e.g., duplicate SKU if enforced, or the same Idempotency-Key still in progress)",
+                    content = @Content(schema = @Schema(implementation = ErrorResponse.class))),
+            @ApiResponse(responseCode = "422", description = "Idempotency-Key reused with a different request",
                     content = @Content(schema = @Schema(implementation = ErrorResponse.class)))
     })
     public ResponseEntity<ProductResponseV2> createProductV2(
+            @RequestHeader(value = IdempotencyStore.IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey,
             @Valid @RequestBody CreateProductV2Request request
     ) {
-        ProductResponseV2 response = productService.createProductV2(request);
-        return ResponseEntity
-                .created(URI.create("/api/v2/products/" + response.getProduct().getId()))
-                .body(response);
+        return idempotencyStore.execute("POST /api/v2/products", idempotencyKey, request, () -> {
+            ProductResponseV2 response = productService.createProductV2(request);
+            return ResponseEntity
+                    .created(URI.create("/api/v2/products/" + response.getProduct().getId()))
+                    .body(response);
+        });
     }
 
     @GetMapping("/{id}")
@@ -0,0 +1,31 @@
+package com.turkcell.ecommerce.controller.v3;
+
+import com.turkcell.ecommerce.dto.v3.TopRatedResponseV3;
+import com.turkcell.ecommerce.service.ProductServiceV3;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+/**
+ * REST Controller for category views (v3)
+ */
+@RestController
+@RequestMapping("/api/v3/categories")
+@RequiredArgsConstructor
+@Tag(name = "Categories V3", description = "Category views (v3)")
+public class CategoryControllerV3 {
+
+    private final ProductServiceV3 productService;
+
+    @GetMapping("/{id}/top")
+    @Operation(summary = "Best rated in-stock products of a category (served from memory)")
+    public ResponseEntity<TopRatedResponseV3> topRated(
+            @PathVariable Long id,
+            @RequestParam(defaultValue = "10") @Min(1) @Max(TopRatedResponseV3.MAX_LIMIT) Integer limit) {
+        return ResponseEntity.ok(productService.getTopRated(id, limit));
+    }
+}
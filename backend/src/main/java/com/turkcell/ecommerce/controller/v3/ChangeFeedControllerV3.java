@@ -0,0 +1,27 @@
+package com.turkcell.ecommerce.controller.v3;
+
+import com.turkcell.ecommerce.service.ChangeFeedService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+/**
+ * REST Controller for the product and category change feed (v3)
+ */
+@RestController
+@RequestMapping("/api/v3/changes")
+@RequiredArgsConstructor
+@Tag(name = "Changes V3", description = "Server-Sent Events feed of committed product and category changes")
+public class ChangeFeedControllerV3 {
+
+    private final ChangeFeedService changeFeedService;
+
+    @GetMapping(produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @Operation(summary = "Subscribe to product and category changes")
+    public SseEmitter streamChanges(@RequestHeader(value = "Last-Event-ID", required = false) Long lastEventId) {
+        return changeFeedService.subscribe(lastEventId);
+    }
+}
@@ -0,0 +1,39 @@
+package com.turkcell.ecommerce.controller.v3;
+
+import com.turkcell.ecommerce.dto.v3.FxRateV3;
+import com.turkcell.ecommerce.dto.v3.UpdateFxRateV3Request;
+import com.turkcell.ecommerce.service.FxRateService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.Pattern;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+/**
+ * REST Controller for exchange rates used to normalize product prices (v3)
+ */
+@RestController
+@RequestMapping("/api/v3/fx-rates")
+@RequiredArgsConstructor
+@Tag(name = "FX Rates V3", description = "Exchange rates into the base currency, for sorting mixed-currency catalogs")
+public class FxRateControllerV3 {
+
+    private final FxRateService fxRateService;
+
+    @GetMapping
+    @Operation(summary = "List exchange rates")
+    public ResponseEntity<List<FxRateV3>> listRates() {
+        return ResponseEntity.ok(fxRateService.listRates());
+    }
+
+    @PutMapping("/{currency}")
+    @Operation(summary = "Set a currency's exchange rate (product prices are re-normalized in the background)")
+    public ResponseEntity<FxRateV3> setRate(@PathVariable @Pattern(regexp = "[A-Z]{3}") String currency,
+                                            @Valid @RequestBody UpdateFxRateV3Request request) {
+        return ResponseEntity.ok(fxRateService.setRate(currency, request));
+    }
+}
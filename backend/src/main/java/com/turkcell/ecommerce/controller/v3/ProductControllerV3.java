@@ -1,15 +1,26 @@
 package com.turkcell.ecommerce.controller.v3;
 
 import com.turkcell.ecommerce.dto.v3.*;
+import com.turkcell.ecommerce.search.ProductFilter;
 import com.turkcell.ecommerce.service.ProductServiceV3;
+import com.turkcell.ecommerce.service.RequestCoalescer;
+import com.turkcell.ecommerce.web.IdempotencyStore;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.PositiveOrZero;
+import jakarta.validation.constraints.Size;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.List;
+
 /**
  * REST Controller for Product operations (v3) - with category support
  */
@@ -20,6 +31,8 @@ import org.springframework.web.bind.annotation.*;
 public class ProductControllerV3 {
 
     private final ProductServiceV3 productService;
+    private final IdempotencyStore idempotencyStore;
+    private final RequestCoalescer requestCoalescer;
 
     @GetMapping
     @Operation(summary = "List products (paginated, with category filter)")
@@ -28,23 +41,60 @@ public class ProductControllerV3 {
             @RequestParam(defaultValue = "10") Integer size,
             @RequestParam(required = false) String sort,
             @RequestParam(required = false) String q,
-            @RequestParam(required = false) Long categoryId) {
-        ProductPageResponseV3 response = productService.getAllProducts(page, size, sort, q, categoryId);
+            @RequestParam(required = false) Long categoryId,
+            @RequestParam(required = false) @PositiveOrZero Double minEffectivePrice,
+            @RequestParam(required = false) @PositiveOrZero Double maxEffectivePrice,
+            @RequestParam(required = false) @PositiveOrZero Double minNormalizedPrice,
+            @RequestParam(required = false) @PositiveOrZero Double maxNormalizedPrice,
+            @RequestParam(defaultValue = "false") boolean approximateTotal) {
+        ProductFilter filter = ProductFilter.of(q, categoryId, minEffectivePrice, maxEffectivePrice,
+                minNormalizedPrice, maxNormalizedPrice);
+        String key = page + "|" + size + "|" + normalizeSort(sort) + "|" + filter.key() + "|" + approximateTotal;
+        ProductPageResponseV3 response = requestCoalescer.execute("products.list", key,
+                () -> productService.getAllProducts(page, size, sort, filter, approximateTotal));
+        return ResponseEntity.ok(response);
+    }
+
+    @GetMapping(params = "ids")
+    @Operation(summary = "Get many products by ID (request order, missing ids reported)")
+    public ResponseEntity<ProductBatchResponseV3> getProductsByIds(
+            @RequestParam @NotEmpty @Size(max = ProductLookupV3Request.MAX_IDS) List<Long> ids) {
+        ProductBatchResponseV3 response = productService.getProductsByIds(ids);
+        return ResponseEntity.ok(response);
+    }
+
+    @PostMapping("/lookup")
+    @Operation(summary = "Get many products by ID (request body variant for large id sets)")
+    public ResponseEntity<ProductBatchResponseV3> lookupProducts(@Valid @RequestBody ProductLookupV3Request request) {
+        ProductBatchResponseV3 response = productService.getProductsByIds(request.getIds());
         return ResponseEntity.ok(response);
     }
 
+    @GetMapping("/suggest")
+    @Operation(summary = "Typeahead suggestions for a name prefix (served from memory)")
+    public ResponseEntity<SuggestResponseV3> suggest(
+            @RequestParam @NotBlank @Size(max = 100) String prefix,
+            @RequestParam(defaultValue = "10") @Min(1) @Max(SuggestResponseV3.MAX_LIMIT) Integer limit) {
+        return ResponseEntity.ok(productService.suggest(prefix, limit));
+    }
+
     @GetMapping("/{id}")
     @Operation(summary = "Get product by ID")
     public ResponseEntity<ProductResponseV3> getProductById(@PathVariable Long id) {
-        ProductResponseV3 response = productService.getProductById(id);
+        ProductResponseV3 response = requestCoalescer.execute("products.get", String.valueOf(id),
+                () -> productService.getProductById(id));
         return ResponseEntity.ok(response);
     }
 
     @PostMapping
     @Operation(summary = "Create a new product")
-    public ResponseEntity<ProductResponseV3> createProduct(@Valid @RequestBody CreateProductV3Request request) {
-        ProductResponseV3 response = productService.createProduct(request);
-        return ResponseEntity.status(HttpStatus.CREATED).body(response);
+    public ResponseEntity<ProductResponseV3> createProduct(
+            @RequestHeader(value = IdempotencyStore.IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey,
+            @Valid @RequestBody CreateProductV3Request request) {
+        return idempotencyStore.execute("POST /api/v3/products", idempotencyKey, request, () -> {
+            ProductResponseV3 response = productService.createProduct(request);
+            return ResponseEntity.status(HttpStatus.CREATED).body(response);
+        });
     }
 
     @PutMapping("/{id}")
@@ -65,10 +115,31 @@ public class ProductControllerV3 {
         return ResponseEntity.ok(response);
     }
 
+    @PutMapping("/{id}/stock")
+    @Operation(summary = "Update stock status (coalesced, applied asynchronously)")
+    public ResponseEntity<Void> updateStock(
+            @PathVariable Long id,
+            @Valid @RequestBody StockUpdateV3Request request) {
+        productService.updateStock(id, request.getInStock());
+        // The staged value is visible to reads right away, before any change event is published
+        requestCoalescer.advanceEpoch();
+        return ResponseEntity.accepted().build();
+    }
+
     @DeleteMapping("/{id}")
     @Operation(summary = "Delete product")
     public ResponseEntity<Void> deleteProduct(@PathVariable Long id) {
         productService.deleteProduct(id);
         return ResponseEntity.noContent().build();
     }
+
+    /** "price" and "price,ASC" are the same sort */
+    private static String normalizeSort(String sort) {
+        if (sort == null || sort.isEmpty()) {
+            return "";
+        }
+        String[] parts = sort.split(",");
+        boolean desc = parts.length > 1 && parts[1].equalsIgnoreCase("desc");
+        return parts[0] + (desc ? ",desc" : ",asc");
+    }
 }
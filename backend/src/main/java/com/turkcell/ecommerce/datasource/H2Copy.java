@@ -0,0 +1,81 @@
+package com.turkcell.ecommerce.datasource;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.StringJoiner;
+
+/**
+ * Copying between H2 databases, for the local stand-ins of replication and sharding
+ */
+final class H2Copy {
+
+    static final String LIST_TABLES =
+            "SELECT TABLE_NAME FROM INFORMATION_SCHEMA.TABLES " +
+            "WHERE TABLE_SCHEMA = 'PUBLIC' AND TABLE_TYPE = 'BASE TABLE'";
+
+    private H2Copy() {
+    }
+
+    /**
+     * Insert the source table's rows matching {@code condition} (SQL, or null for all) into the target
+     */
+    static void copyTable(Connection source, Connection target, String table, String condition) throws SQLException {
+        String select = "SELECT * FROM \"" + table + "\"" + (condition != null ? " WHERE " + condition : "");
+        try (Statement statement = source.createStatement();
+             ResultSet rs = statement.executeQuery(select)) {
+            ResultSetMetaData meta = rs.getMetaData();
+            int columns = meta.getColumnCount();
+            StringJoiner names = new StringJoiner(", ");
+            StringJoiner params = new StringJoiner(", ");
+            for (int i = 1; i <= columns; i++) {
+                names.add("\"" + meta.getColumnName(i) + "\"");
+                params.add("?");
+            }
+
+            String insert = "INSERT INTO \"" + table + "\" (" + names + ") VALUES (" + params + ")";
+            try (PreparedStatement ps = target.prepareStatement(insert)) {
+                int pending = 0;
+                while (rs.next()) {
+                    for (int i = 1; i <= columns; i++) {
+                        ps.setObject(i, rs.getObject(i));
+                    }
+                    ps.addBatch();
+                    if (++pending == 1000) {
+                        ps.executeBatch();
+                        pending = 0;
+                    }
+                }
+                if (pending > 0) {
+                    ps.executeBatch();
+                }
+            }
+        }
+    }
+
+    static List<String> queryStrings(Connection connection, String sql) throws SQLException {
+        List<String> values = new ArrayList<>();
+        try (Statement statement = connection.createStatement();
+             ResultSet rs = statement.executeQuery(sql)) {
+            while (rs.next()) {
+                values.add(rs.getString(1));
+            }
+        }
+        return values;
+    }
+
+    static void executeAll(DataSource dataSource, List<String> statements) throws SQLException {
+        try (Connection connection = dataSource.getConnection();
+             Statement statement = connection.createStatement()) {
+            for (String sql : statements) {
+                statement.execute(sql);
+            }
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package com.turkcell.ecommerce.datasource;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+
+/**
+ * Local stand-in for database replication between H2 instances.
+ * <p>
+ * On the first run it copies the primary's schema to every replica; afterwards it periodically
+ * replaces each replica's rows with the primary's in a single replica transaction, so readers on
+ * the replica always see a complete (if slightly stale) copy. Only meant for local development.
+ */
+@Slf4j
+public class H2ReplicationStandIn {
+
+    private final ReadWriteRoutingDataSource routingDataSource;
+    private boolean schemaCopied;
+
+    public H2ReplicationStandIn(ReadWriteRoutingDataSource routingDataSource) {
+        this.routingDataSource = routingDataSource;
+    }
+
+    @Scheduled(fixedDelayString = "${ecommerce.datasource.read-replicas.replication-interval-ms:1000}")
+    public void replicate() {
+        try (Connection source = routingDataSource.getPrimary().getConnection()) {
+            List<String> tables = H2Copy.queryStrings(source, H2Copy.LIST_TABLES);
+            if (tables.isEmpty()) {
+                return; // schema not created yet
+            }
+            if (!schemaCopied) {
+                List<String> ddl = H2Copy.queryStrings(source, "SCRIPT NODATA");
+                for (DataSource replica : routingDataSource.getReplicas()) {
+                    H2Copy.executeAll(replica, ddl);
+                }
+                schemaCopied = true;
+            }
+            for (DataSource replica : routingDataSource.getReplicas()) {
+                copyRows(source, replica, tables);
+            }
+            routingDataSource.markReplicasReady();
+        } catch (SQLException e) {
+            log.warn("Replication stand-in failed: {}", e.getMessage());
+        }
+    }
+
+    private void copyRows(Connection source, DataSource replica, List<String> tables) throws SQLException {
+        try (Connection target = replica.getConnection();
+             Statement statement = target.createStatement()) {
+            statement.execute("SET REFERENTIAL_INTEGRITY FALSE");
+            target.setAutoCommit(false);
+            try {
+                for (String table : tables) {
+                    statement.executeUpdate("DELETE FROM \"" + table + "\"");
+                    H2Copy.copyTable(source, target, table, null);
+                }
+                target.commit();
+            } catch (SQLException e) {
+                target.rollback();
+                throw e;
+            } finally {
+                target.setAutoCommit(true);
+                statement.execute("SET REFERENTIAL_INTEGRITY TRUE");
+            }
+        }
+    }
+}
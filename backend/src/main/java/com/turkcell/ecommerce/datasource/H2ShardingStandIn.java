@@ -0,0 +1,72 @@
+package com.turkcell.ecommerce.datasource;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+import java.util.concurrent.locks.Lock;
+
+/**
+ * Local stand-in for seeding H2 product shards from the primary.
+ * <p>
+ * Once the seed data is loaded and backfilled, it copies the primary's schema to every shard, then
+ * each shard's categories and their products, and marks the shards ready. From then on the shards
+ * are kept current by the writes routed to them. Product writes wait while the copy runs, so none is
+ * missed or overwritten by it. Only meant for local development.
+ */
+@Slf4j
+public class H2ShardingStandIn {
+
+    private final DataSource primary;
+    private final ProductShards shards;
+
+    public H2ShardingStandIn(DataSource primary, ProductShards shards) {
+        this.primary = primary;
+        this.shards = shards;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void seed() {
+        long start = System.nanoTime();
+        Lock lock = shards.getSeedLock().writeLock();
+        lock.lock();
+        try (Connection source = primary.getConnection()) {
+            List<String> ddl = H2Copy.queryStrings(source, "SCRIPT NODATA");
+            for (int shard = 0; shard < shards.count(); shard++) {
+                H2Copy.executeAll(shards.get(shard), ddl);
+                copyShard(source, shard);
+            }
+            shards.markReady();
+            log.info("Seeded {} product shards in {} ms", shards.count(), (System.nanoTime() - start) / 1_000_000);
+        } catch (SQLException e) {
+            log.warn("Seeding the product shards failed; listings stay on the primary: {}", e.getMessage());
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void copyShard(Connection source, int shard) throws SQLException {
+        String owned = "MOD(\"%s\", " + shards.count() + ") = " + shard;
+        try (Connection target = shards.get(shard).getConnection();
+             Statement statement = target.createStatement()) {
+            target.setAutoCommit(false);
+            try {
+                statement.executeUpdate("DELETE FROM \"PRODUCTS\"");
+                statement.executeUpdate("DELETE FROM \"CATEGORIES\"");
+                H2Copy.copyTable(source, target, "CATEGORIES", owned.formatted("ID"));
+                H2Copy.copyTable(source, target, "PRODUCTS", owned.formatted("CATEGORY_ID"));
+                target.commit();
+            } catch (SQLException e) {
+                target.rollback();
+                throw e;
+            } finally {
+                target.setAutoCommit(true);
+            }
+        }
+    }
+}
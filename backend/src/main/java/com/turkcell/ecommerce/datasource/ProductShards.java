@@ -0,0 +1,67 @@
+package com.turkcell.ecommerce.datasource;
+
+import javax.sql.DataSource;
+import java.util.List;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Product shard databases. Categories and their products are placed by category id ({@code id}
+ * modulo the shard count), so a shard holds only its own categories, with all of their products.
+ * The primary remains the system of record: product and category writes are copied to the owning
+ * shard before they commit on the primary, and copies that may have diverged are repaired from it
+ * (see {@code ShardedProductWriter}).
+ */
+public class ProductShards {
+
+    private final List<DataSource> shards;
+    private final ReadWriteLock seedLock = new ReentrantReadWriteLock();
+    private volatile boolean ready;
+
+    /**
+     * @param ready whether the shards already hold the products; otherwise they are only read and
+     *              written after {@link #markReady()}
+     */
+    public ProductShards(List<DataSource> shards, boolean ready) {
+        if (shards.isEmpty()) {
+            throw new IllegalArgumentException("At least one product shard is required");
+        }
+        this.shards = List.copyOf(shards);
+        this.ready = ready;
+    }
+
+    public int count() {
+        return shards.size();
+    }
+
+    /**
+     * Index of the shard holding a category and its products
+     */
+    public int shardOf(long categoryId) {
+        return (int) Math.floorMod(categoryId, (long) shards.size());
+    }
+
+    public DataSource get(int shard) {
+        return shards.get(shard);
+    }
+
+    public List<DataSource> getShards() {
+        return shards;
+    }
+
+    /**
+     * Held shared by transactions writing to the shards, and exclusively while the shards are seeded,
+     * so a seed copy never misses or overwrites a write
+     */
+    public ReadWriteLock getSeedLock() {
+        return seedLock;
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    public void markReady() {
+        ready = true;
+    }
+}
@@ -0,0 +1,98 @@
+package com.turkcell.ecommerce.datasource;
+
+import com.turkcell.ecommerce.web.ClientContext;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Routes read-only transactions round-robin to the read replicas and everything else to the primary.
+ * <p>
+ * Must be wrapped in a {@link org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy} so the
+ * lookup happens on the first statement, after the transaction's read-only flag has been bound.
+ * Clients that committed a write within the sticky window keep reading from the primary.
+ * The primary is a bean of its own and closed by the container; {@link #close()} closes the replicas.
+ */
+public final class ReadWriteRoutingDataSource extends AbstractRoutingDataSource implements Closeable {
+
+    private static final String PRIMARY = "primary";
+
+    private final DataSource primary;
+    private final List<DataSource> replicas;
+    private final ReadYourWritesTracker tracker;
+    private final AtomicInteger nextReplica = new AtomicInteger();
+    private volatile boolean replicasReady;
+
+    public ReadWriteRoutingDataSource(DataSource primary, List<DataSource> replicas,
+                                      ReadYourWritesTracker tracker, boolean replicasReady) {
+        this.primary = primary;
+        this.replicas = List.copyOf(replicas);
+        this.tracker = tracker;
+        this.replicasReady = replicasReady;
+
+        Map<Object, Object> targets = new HashMap<>();
+        targets.put(PRIMARY, primary);
+        for (int i = 0; i < this.replicas.size(); i++) {
+            targets.put(i, this.replicas.get(i));
+        }
+        setTargetDataSources(targets);
+        setDefaultTargetDataSource(primary);
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (!TransactionSynchronizationManager.isActualTransactionActive()) {
+            return PRIMARY;
+        }
+
+        String clientKey = ClientContext.current();
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            if (clientKey != null && TransactionSynchronizationManager.isSynchronizationActive()) {
+                TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                    @Override
+                    public void afterCommit() {
+                        tracker.recordWrite(clientKey);
+                    }
+                });
+            }
+            return PRIMARY;
+        }
+
+        if (!replicasReady || replicas.isEmpty() || tracker.isSticky(clientKey)) {
+            return PRIMARY;
+        }
+        return Math.floorMod(nextReplica.getAndIncrement(), replicas.size());
+    }
+
+    /**
+     * Allow read-only traffic on the replicas (used once they have been seeded)
+     */
+    public void markReplicasReady() {
+        replicasReady = true;
+    }
+
+    public DataSource getPrimary() {
+        return primary;
+    }
+
+    public List<DataSource> getReplicas() {
+        return replicas;
+    }
+
+    @Override
+    public void close() throws IOException {
+        for (DataSource replica : replicas) {
+            if (replica instanceof Closeable closeable) {
+                closeable.close();
+            }
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package com.turkcell.ecommerce.datasource;
+
+import org.springframework.scheduling.annotation.Scheduled;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Remembers when each client last committed a write, so its reads can stay on the
+ * primary until the replicas have had time to catch up.
+ */
+public class ReadYourWritesTracker {
+
+    private final Map<String, Long> lastWriteNanos = new ConcurrentHashMap<>();
+    private final long stickyWindowNanos;
+
+    public ReadYourWritesTracker(long stickyWindowMillis) {
+        this.stickyWindowNanos = stickyWindowMillis * 1_000_000L;
+    }
+
+    /**
+     * Record a committed write by the given client
+     */
+    public void recordWrite(String clientKey) {
+        if (clientKey != null) {
+            lastWriteNanos.put(clientKey, System.nanoTime());
+        }
+    }
+
+    /**
+     * Whether the client wrote recently enough that its reads must go to the primary
+     */
+    public boolean isSticky(String clientKey) {
+        if (clientKey == null) {
+            return false;
+        }
+        Long lastWrite = lastWriteNanos.get(clientKey);
+        return lastWrite != null && System.nanoTime() - lastWrite < stickyWindowNanos;
+    }
+
+    /**
+     * Drop clients whose stickiness window has expired
+     */
+    @Scheduled(fixedDelay = 60_000)
+    public void evictExpired() {
+        long now = System.nanoTime();
+        lastWriteNanos.values().removeIf(lastWrite -> now - lastWrite >= stickyWindowNanos);
+    }
+}
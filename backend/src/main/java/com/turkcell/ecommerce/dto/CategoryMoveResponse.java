@@ -0,0 +1,21 @@
+package com.turkcell.ecommerce.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Response DTO for bulk category move and merge operations
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class CategoryMoveResponse {
+
+    private String sourceCategoryId;
+    private String targetCategoryId;
+    private long movedProducts;
+    private boolean sourceDeleted;
+}
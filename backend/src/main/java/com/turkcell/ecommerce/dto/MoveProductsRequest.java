@@ -0,0 +1,31 @@
+package com.turkcell.ecommerce.dto;
+
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Request DTO for moving products from one category to another
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class MoveProductsRequest {
+
+    public static final int MAX_PRODUCT_IDS = 10_000;
+
+    @NotNull(message = "Target category ID is required")
+    private Long targetCategoryId;
+
+    /**
+     * Products to move; when omitted every product of the source category is moved
+     */
+    @Size(min = 1, max = MAX_PRODUCT_IDS, message = "productIds must contain between 1 and " + MAX_PRODUCT_IDS + " ids")
+    private List<@NotNull Long> productIds;
+}
@@ -28,4 +28,8 @@ public class ProductPageResponseV2 {
 
     @NotNull
     private Integer totalPages;
+
+    /** False when {@code totalElements} is an estimate (approximate totals were requested) */
+    @NotNull
+    private Boolean exact;
 }
\ No newline at end of file
@@ -0,0 +1,19 @@
+package com.turkcell.ecommerce.dto.v3;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Category suggestion for typeahead (v3)
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class CategorySuggestionV3 {
+    private String id;
+    private String name;
+    private long productCount;
+}
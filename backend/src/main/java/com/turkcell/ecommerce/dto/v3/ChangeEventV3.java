@@ -0,0 +1,24 @@
+package com.turkcell.ecommerce.dto.v3;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Change notification pushed on the change feed (v3)
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ChangeEventV3 {
+    private Long sequence;
+    private String entity;
+    private Long id;
+    private String type;
+    private List<String> changedFields;
+    private Long version;
+}
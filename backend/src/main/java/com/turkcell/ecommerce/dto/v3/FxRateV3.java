@@ -0,0 +1,22 @@
+package com.turkcell.ecommerce.dto.v3;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.OffsetDateTime;
+
+/**
+ * Exchange rate of a currency into the base currency (v3)
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class FxRateV3 {
+    private String currency;
+    private String baseCurrency;
+    private Double rateToBase;
+    private OffsetDateTime updatedAt;
+}
@@ -0,0 +1,21 @@
+package com.turkcell.ecommerce.dto.v3;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Response for a multi-get of products (v3): found products in request order, plus the ids that
+ * do not exist
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ProductBatchResponseV3 {
+    private List<ProductV3> items;
+    private List<Long> missingIds;
+}
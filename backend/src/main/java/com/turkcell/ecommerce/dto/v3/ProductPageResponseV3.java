@@ -20,4 +20,6 @@ public class ProductPageResponseV3 {
     private Integer size;
     private Long totalElements;
     private Integer totalPages;
+    /** False when {@code totalElements} is an estimate (approximate totals were requested) */
+    private Boolean exact;
 }
@@ -0,0 +1,20 @@
+package com.turkcell.ecommerce.dto.v3;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Product suggestion for typeahead (v3)
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ProductSuggestionV3 {
+    private String id;
+    private String name;
+    private Double rating;
+    private CategoryRefV3 category;
+}
@@ -0,0 +1,20 @@
+package com.turkcell.ecommerce.dto.v3;
+
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Request DTO for a stock status update (v3)
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class StockUpdateV3Request {
+
+    @NotNull(message = "InStock status is required")
+    private Boolean inStock;
+}
@@ -0,0 +1,25 @@
+package com.turkcell.ecommerce.dto.v3;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Typeahead response (v3): categories ranked by product count and products ranked by rating whose
+ * names have a word starting with the prefix
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class SuggestResponseV3 {
+
+    public static final int MAX_LIMIT = 20;
+
+    private String prefix;
+    private List<CategorySuggestionV3> categories;
+    private List<ProductSuggestionV3> products;
+}
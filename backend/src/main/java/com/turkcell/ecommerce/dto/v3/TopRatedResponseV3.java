@@ -0,0 +1,23 @@
+package com.turkcell.ecommerce.dto.v3;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Best rated in-stock products of a category (v3), highest rating first
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class TopRatedResponseV3 {
+
+    public static final int MAX_LIMIT = 50;
+
+    private String categoryId;
+    private List<ProductV3> items;
+}
@@ -0,0 +1,22 @@
+package com.turkcell.ecommerce.dto.v3;
+
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Request DTO for setting a currency's exchange rate (v3)
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class UpdateFxRateV3Request {
+
+    @NotNull(message = "Rate is required")
+    @Positive(message = "Rate must be positive")
+    private Double rateToBase;
+}
@@ -1,6 +1,9 @@
 package com.turkcell.ecommerce.entity;
 
 import jakarta.persistence.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+
 import java.time.OffsetDateTime;
 import java.util.ArrayList;
 import java.util.List;
@@ -10,8 +13,15 @@ import java.util.List;
  */
 @Entity
 @Table(name = "categories")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.NONSTRICT_READ_WRITE, region = CategoryEntity.CACHE_REGION)
 public class CategoryEntity {
 
+    /**
+     * Second-level cache region; categories are read far more often than they change
+     */
+    public static final String CACHE_REGION = "categories";
+
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
@@ -19,7 +29,7 @@ public class CategoryEntity {
     @Column(nullable = false, unique = true, length = 50)
     private String name;
 
-    @OneToMany(mappedBy = "category", cascade = CascadeType.ALL)
+    @OneToMany(mappedBy = "category")
     private List<ProductEntity> products = new ArrayList<>();
 
     @Column(nullable = false, updatable = false)
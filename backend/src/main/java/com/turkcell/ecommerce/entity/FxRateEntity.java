@@ -0,0 +1,30 @@
+package com.turkcell.ecommerce.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.OffsetDateTime;
+
+/**
+ * Exchange rate of a currency into the catalog's base currency ({@code ecommerce.fx.base-currency}).
+ */
+@Entity
+@Table(name = "fx_rates")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class FxRateEntity {
+
+    @Id
+    @Column(length = 3)
+    private String currency;
+
+    /** Base currency units per unit of {@code currency} */
+    @Column(nullable = false)
+    private Double rateToBase;
+
+    @Column(nullable = false)
+    private OffsetDateTime updatedAt;
+}
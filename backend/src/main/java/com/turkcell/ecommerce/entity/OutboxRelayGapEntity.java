@@ -0,0 +1,35 @@
+package com.turkcell.ecommerce.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.OffsetDateTime;
+
+/**
+ * Outbox event id a relay moved its high-water mark past without seeing the event. The relay keeps
+ * checking for it for a while, since the transaction that took the id may commit late.
+ */
+@Entity
+@Table(name = "outbox_relay_gaps", indexes = {
+        @Index(name = "idx_outbox_relay_gaps_relay_event", columnList = "relay_name, event_id", unique = true)
+})
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class OutboxRelayGapEntity {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false, length = 64)
+    private String relayName;
+
+    @Column(nullable = false)
+    private Long eventId;
+
+    @Column(nullable = false)
+    private OffsetDateTime skippedAt;
+}
@@ -0,0 +1,29 @@
+package com.turkcell.ecommerce.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.OffsetDateTime;
+
+/**
+ * High-water mark of an outbox relay: every outbox event up to {@code lastEventId} was delivered.
+ */
+@Entity
+@Table(name = "outbox_relay_state")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class OutboxRelayStateEntity {
+
+    @Id
+    @Column(length = 64)
+    private String relayName;
+
+    @Column(nullable = false)
+    private Long lastEventId;
+
+    @Column(nullable = false)
+    private OffsetDateTime updatedAt;
+}
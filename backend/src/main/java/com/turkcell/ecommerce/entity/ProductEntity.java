@@ -1,12 +1,28 @@
 package com.turkcell.ecommerce.entity;
 
+import com.turkcell.ecommerce.fx.NormalizedPriceListener;
+import com.turkcell.ecommerce.search.TurkishTextNormalizer;
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 import java.time.OffsetDateTime;
 
 @Entity
-@Table(name = "products")
+@Table(name = "products", indexes = {
+        @Index(name = "idx_products_name_search", columnList = "name_search"),
+        @Index(name = "idx_products_description_search", columnList = "description_search"),
+        @Index(name = "idx_products_name_sort_key", columnList = "name_sort_key"),
+        @Index(name = "idx_products_category_effective_price", columnList = "category_id, effective_price"),
+        @Index(name = "idx_products_effective_price", columnList = "effective_price"),
+        @Index(name = "idx_products_category_normalized_price", columnList = "category_id, normalized_price"),
+        @Index(name = "idx_products_normalized_price", columnList = "normalized_price"),
+        @Index(name = "idx_products_currency", columnList = "currency, id")
+})
+@EntityListeners(NormalizedPriceListener.class)
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = ProductEntity.CACHE_REGION)
 @Getter
 @Setter
 @NoArgsConstructor
@@ -14,6 +30,11 @@ import java.time.OffsetDateTime;
 @Builder
 public class ProductEntity {
 
+    /**
+     * Second-level cache region (bounded, see {@code SecondLevelCacheConfig})
+     */
+    public static final String CACHE_REGION = "products";
+
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
@@ -27,9 +48,27 @@ public class ProductEntity {
     @Column(length = 2000)
     private String description;
 
+    // Derived search/sort columns (see TurkishTextNormalizer), maintained by the lifecycle callbacks
+    @Column(name = "name_search", length = 120)
+    private String nameSearch;
+
+    @Column(name = "description_search", length = 2000)
+    private String descriptionSearch;
+
+    @Column(name = "name_sort_key", length = TurkishTextNormalizer.MAX_SORT_KEY_BYTES)
+    private byte[] nameSortKey;
+
     @Column(nullable = false)
     private Double price;
 
+    // Price after discount, maintained by the lifecycle callbacks
+    @Column(name = "effective_price")
+    private Double effectivePrice;
+
+    // Price in the base currency (see FxRates), maintained by NormalizedPriceListener; null without a rate
+    @Column(name = "normalized_price")
+    private Double normalizedPrice;
+
     @Column(nullable = false, length = 3)
     private String currency;
 
@@ -58,10 +97,37 @@ public class ProductEntity {
     protected void onCreate() {
         createdAt = OffsetDateTime.now();
         updatedAt = OffsetDateTime.now();
+        updateDerivedColumns();
     }
 
     @PreUpdate
     protected void onUpdate() {
         updatedAt = OffsetDateTime.now();
+        updateDerivedColumns();
+    }
+
+    private void updateDerivedColumns() {
+        nameSearch = TurkishTextNormalizer.normalize(name);
+        descriptionSearch = TurkishTextNormalizer.normalize(description);
+        nameSortKey = TurkishTextNormalizer.sortKey(name);
+        effectivePrice = effectivePrice(price, discountPercent);
+    }
+
+    /**
+     * What the customer pays: the price less the discount percent (none if absent)
+     */
+    public static double effectivePrice(double price, Double discountPercent) {
+        return price * (100 - (discountPercent != null ? discountPercent : 0)) / 100;
+    }
+
+    /**
+     * {@link #effectivePrice(double, Double)} as an SQL expression (evaluating to the same double),
+     * for writes that bypass the lifecycle callbacks
+     *
+     * @param price           column or parameter expression for the price
+     * @param discountPercent column or parameter expression for the discount percent
+     */
+    public static String effectivePriceSql(String price, String discountPercent) {
+        return price + " * (100 - COALESCE(" + discountPercent + ", 0)) / 100";
     }
 }
@@ -0,0 +1,42 @@
+package com.turkcell.ecommerce.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.OffsetDateTime;
+
+/**
+ * Product or category row whose copy on the product shards may differ from the primary. Recorded,
+ * in a transaction of its own, before the row is written to the shards, and removed once the write
+ * is known to match what the primary committed; whatever is left is re-copied from the primary by {@code ShardedProductWriter#repair}.
+ */
+@Entity
+@Table(name = "product_shard_repairs", indexes = {
+        @Index(name = "idx_product_shard_repairs_recorded_at", columnList = "recorded_at"),
+        @Index(name = "idx_product_shard_repairs_write_id", columnList = "write_id")
+})
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ShardRepairEntity {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    /** Transaction (or single write) that recorded it */
+    @Column(nullable = false, length = 36)
+    private String writeId;
+
+    /** {@code products} or {@code categories} */
+    @Column(name = "table_name", nullable = false, length = 16)
+    private String tableName;
+
+    @Column(nullable = false)
+    private Long rowId;
+
+    @Column(nullable = false)
+    private OffsetDateTime recordedAt;
+}
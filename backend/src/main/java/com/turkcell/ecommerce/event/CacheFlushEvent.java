@@ -0,0 +1,8 @@
+package com.turkcell.ecommerce.event;
+
+/**
+ * Published when changes made elsewhere may have been missed, e.g. after a gap in the invalidation
+ * stream of another instance: in-process caches rebuild from the database.
+ */
+public record CacheFlushEvent(String reason) {
+}
@@ -0,0 +1,10 @@
+package com.turkcell.ecommerce.event;
+
+import java.time.OffsetDateTime;
+
+/**
+ * Published by the category write paths inside the writing transaction
+ * ({@code name} and {@code updatedAt} are null for DELETED events).
+ */
+public record CategoryChangedEvent(ChangeType type, Long categoryId, String name, OffsetDateTime updatedAt) {
+}
@@ -0,0 +1,36 @@
+package com.turkcell.ecommerce.event;
+
+/**
+ * Marks change events that replay, on this instance, a change made by another one (see
+ * {@code cluster.InvalidationBus}). Such events refresh in-process caches and reach this instance's
+ * change feed subscribers; listeners that record or forward changes (outbox, the bus itself) skip them.
+ * <p>
+ * Bound to the publishing thread, which also runs the after-commit listeners of its transaction.
+ */
+public final class ChangeOrigin {
+
+    private static final ThreadLocal<Boolean> REMOTE = ThreadLocal.withInitial(() -> false);
+
+    private ChangeOrigin() {
+    }
+
+    /**
+     * Whether the events being handled on this thread replay another instance's change
+     */
+    public static boolean isRemote() {
+        return REMOTE.get();
+    }
+
+    /**
+     * Run a task whose events replay another instance's change
+     */
+    public static void runRemote(Runnable task) {
+        boolean previous = REMOTE.get();
+        REMOTE.set(true);
+        try {
+            task.run();
+        } finally {
+            REMOTE.set(previous);
+        }
+    }
+}
@@ -0,0 +1,7 @@
+package com.turkcell.ecommerce.event;
+
+/**
+ * Published inside the transaction that sets a currency's exchange rate.
+ */
+public record FxRateChangedEvent(String currency, double rateToBase) {
+}
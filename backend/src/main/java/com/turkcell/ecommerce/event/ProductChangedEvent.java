@@ -0,0 +1,107 @@
+package com.turkcell.ecommerce.event;
+
+import com.turkcell.ecommerce.entity.ProductEntity;
+
+import java.time.OffsetDateTime;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Published by the product write paths inside the writing transaction.
+ * <p>
+ * {@code changes} maps each changed field (named like the product DTO fields, with the category
+ * as {@code categoryId}) to its new value. CREATED events carry every field, UPDATED events only
+ * the changed ones plus {@code updatedAt}, DELETED events none.
+ * {@code previousCategoryId} is the product's category before the change, on DELETED events and on
+ * UPDATED events that carry {@code categoryId}, when the write path knows it; it is null otherwise,
+ * e.g. for changes replayed from another instance.
+ */
+public record ProductChangedEvent(ChangeType type, Long productId, Map<String, Object> changes,
+                                  Long previousCategoryId) {
+
+    public static final String SKU = "sku";
+    public static final String NAME = "name";
+    public static final String DESCRIPTION = "description";
+    public static final String PRICE = "price";
+    public static final String CURRENCY = "currency";
+    public static final String IN_STOCK = "inStock";
+    public static final String IMAGE_URL = "imageUrl";
+    public static final String DISCOUNT_PERCENT = "discountPercent";
+    public static final String RATING = "rating";
+    public static final String CATEGORY_ID = "categoryId";
+    public static final String CREATED_AT = "createdAt";
+    public static final String UPDATED_AT = "updatedAt";
+
+    /** Fields a full (PUT) update replaces */
+    public static final List<String> EDITABLE_FIELDS = List.of(SKU, NAME, DESCRIPTION, PRICE, CURRENCY, IN_STOCK,
+            IMAGE_URL, DISCOUNT_PERCENT, RATING, CATEGORY_ID);
+
+    public static final List<String> ALL_FIELDS = List.of(SKU, NAME, DESCRIPTION, PRICE, CURRENCY, IN_STOCK,
+            IMAGE_URL, DISCOUNT_PERCENT, RATING, CATEGORY_ID, CREATED_AT, UPDATED_AT);
+
+    public static ProductChangedEvent created(ProductEntity product) {
+        return new ProductChangedEvent(ChangeType.CREATED, product.getId(),
+                Collections.unmodifiableMap(snapshot(product, ALL_FIELDS)), null);
+    }
+
+    public static ProductChangedEvent updated(ProductEntity product, Collection<String> fields) {
+        return updated(product, fields, null);
+    }
+
+    public static ProductChangedEvent updated(ProductEntity product, Collection<String> fields,
+                                              Long previousCategoryId) {
+        Map<String, Object> changes = snapshot(product, fields);
+        changes.put(UPDATED_AT, product.getUpdatedAt());
+        return new ProductChangedEvent(ChangeType.UPDATED, product.getId(), Collections.unmodifiableMap(changes),
+                previousCategoryId);
+    }
+
+    public static ProductChangedEvent stockChanged(Long productId, boolean inStock, OffsetDateTime updatedAt) {
+        Map<String, Object> changes = new LinkedHashMap<>();
+        changes.put(IN_STOCK, inStock);
+        changes.put(UPDATED_AT, updatedAt);
+        return new ProductChangedEvent(ChangeType.UPDATED, productId, Collections.unmodifiableMap(changes), null);
+    }
+
+    public static ProductChangedEvent categoryChanged(Long productId, Long previousCategoryId, Long categoryId,
+                                                      OffsetDateTime updatedAt) {
+        Map<String, Object> changes = new LinkedHashMap<>();
+        changes.put(CATEGORY_ID, categoryId);
+        changes.put(UPDATED_AT, updatedAt);
+        return new ProductChangedEvent(ChangeType.UPDATED, productId, Collections.unmodifiableMap(changes),
+                previousCategoryId);
+    }
+
+    public static ProductChangedEvent deleted(Long productId, Long previousCategoryId) {
+        return new ProductChangedEvent(ChangeType.DELETED, productId, Map.of(), previousCategoryId);
+    }
+
+    private static Map<String, Object> snapshot(ProductEntity product, Collection<String> fields) {
+        Map<String, Object> values = new LinkedHashMap<>();
+        for (String field : fields) {
+            values.put(field, valueOf(product, field));
+        }
+        return values;
+    }
+
+    private static Object valueOf(ProductEntity product, String field) {
+        return switch (field) {
+            case SKU -> product.getSku();
+            case NAME -> product.getName();
+            case DESCRIPTION -> product.getDescription();
+            case PRICE -> product.getPrice();
+            case CURRENCY -> product.getCurrency();
+            case IN_STOCK -> product.getInStock();
+            case IMAGE_URL -> product.getImageUrl();
+            case DISCOUNT_PERCENT -> product.getDiscountPercent();
+            case RATING -> product.getRating();
+            case CATEGORY_ID -> product.getCategory() != null ? product.getCategory().getId() : null;
+            case CREATED_AT -> product.getCreatedAt();
+            case UPDATED_AT -> product.getUpdatedAt();
+            default -> throw new IllegalArgumentException("Unknown product field: " + field);
+        };
+    }
+}
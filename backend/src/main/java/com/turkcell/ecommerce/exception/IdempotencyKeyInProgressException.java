@@ -0,0 +1,11 @@
+package com.turkcell.ecommerce.exception;
+
+/**
+ * Exception thrown when the original request for an Idempotency-Key is still running after the
+ * duplicate has waited for it as long as allowed
+ */
+public class IdempotencyKeyInProgressException extends RuntimeException {
+    public IdempotencyKeyInProgressException(String message) {
+        super(message);
+    }
+}
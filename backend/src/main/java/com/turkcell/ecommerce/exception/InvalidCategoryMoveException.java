@@ -0,0 +1,10 @@
+package com.turkcell.ecommerce.exception;
+
+/**
+ * Exception thrown when products are moved or a category is merged into itself
+ */
+public class InvalidCategoryMoveException extends RuntimeException {
+    public InvalidCategoryMoveException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,10 @@
+package com.turkcell.ecommerce.exception;
+
+/**
+ * Exception thrown when the rate of the base currency is changed
+ */
+public class InvalidFxRateException extends RuntimeException {
+    public InvalidFxRateException(String message) {
+        super(message);
+    }
+}
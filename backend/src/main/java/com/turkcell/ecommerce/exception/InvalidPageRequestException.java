@@ -0,0 +1,11 @@
+package com.turkcell.ecommerce.exception;
+
+/**
+ * Exception thrown when a listing page cannot be served as requested (unknown sort field, or a
+ * page beyond what a sharded listing scatters for)
+ */
+public class InvalidPageRequestException extends RuntimeException {
+    public InvalidPageRequestException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,101 @@
+package com.turkcell.ecommerce.fx;
+
+import com.turkcell.ecommerce.event.CacheFlushEvent;
+import com.turkcell.ecommerce.event.FxRateChangedEvent;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * In-memory snapshot of the {@code fx_rates} table, used to normalize prices into the base currency.
+ * <p>
+ * Loaded on first use and replaced (copy on write) after each committed rate change, so lookups are
+ * plain map reads. A currency without a rate has no normalized price.
+ */
+@Component
+public class FxRates {
+
+    private static final String SELECT_RATES = "SELECT currency, rate_to_base FROM fx_rates";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final String baseCurrency;
+    private volatile Map<String, Double> rates;
+
+    public FxRates(JdbcTemplate jdbcTemplate,
+                   @Value("${ecommerce.fx.base-currency:USD}") String baseCurrency) {
+        if (!baseCurrency.matches("[A-Z]{3}")) {
+            throw new IllegalArgumentException("ecommerce.fx.base-currency must be an ISO 4217 code: " + baseCurrency);
+        }
+        this.jdbcTemplate = jdbcTemplate;
+        this.baseCurrency = baseCurrency;
+    }
+
+    public String baseCurrency() {
+        return baseCurrency;
+    }
+
+    /**
+     * Base currency units per unit of {@code currency}; null if the currency has no rate
+     */
+    public Double rate(String currency) {
+        return baseCurrency.equals(currency) ? Double.valueOf(1.0) : current().get(currency);
+    }
+
+    /**
+     * {@code price} in the base currency; null if the currency has no rate
+     */
+    public Double normalize(Double price, String currency) {
+        Double rate = rate(currency);
+        return price == null || rate == null ? null : price * rate;
+    }
+
+    /**
+     * {@link #normalize} as an SQL expression reading the rate from {@code fx_rates}, for writes that
+     * bypass the entity listener
+     *
+     * @param price    column or parameter expression for the price
+     * @param currency column or parameter expression for the currency
+     */
+    public String normalizedPriceSql(String price, String currency) {
+        return price + " * CASE WHEN " + currency + " = '" + baseCurrency + "' THEN 1 " +
+                "ELSE (SELECT f.rate_to_base FROM fx_rates f WHERE f.currency = " + currency + ") END";
+    }
+
+    // Ahead of other listeners (PriceRenormalizer), which read the new rate from here
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    @TransactionalEventListener
+    public synchronized void onRateChanged(FxRateChangedEvent event) {
+        Map<String, Double> updated = new HashMap<>(current());
+        updated.put(event.currency(), event.rateToBase());
+        rates = Map.copyOf(updated);
+    }
+
+    // Reloaded on next use
+    @EventListener(CacheFlushEvent.class)
+    public synchronized void onCacheFlush() {
+        rates = null;
+    }
+
+    private Map<String, Double> current() {
+        Map<String, Double> snapshot = rates;
+        return snapshot != null ? snapshot : load();
+    }
+
+    private synchronized Map<String, Double> load() {
+        if (rates == null) {
+            Map<String, Double> loaded = new HashMap<>();
+            jdbcTemplate.query(SELECT_RATES, rs -> {
+                loaded.put(rs.getString("currency"), rs.getDouble("rate_to_base"));
+            });
+            rates = Map.copyOf(loaded);
+        }
+        return rates;
+    }
+}
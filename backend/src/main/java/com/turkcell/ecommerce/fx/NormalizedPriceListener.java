@@ -0,0 +1,28 @@
+package com.turkcell.ecommerce.fx;
+
+import com.turkcell.ecommerce.entity.ProductEntity;
+import jakarta.persistence.PrePersist;
+import jakarta.persistence.PreUpdate;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+
+/**
+ * Entity listener keeping {@code ProductEntity.normalizedPrice} in step with price and currency on
+ * every JPA write. Hibernate obtains it from the Spring context, so it can use the rate snapshot;
+ * the snapshot is looked up on use, as the entity manager factory is still being built when this is.
+ */
+@Component
+public class NormalizedPriceListener {
+
+    private final ObjectProvider<FxRates> fxRates;
+
+    public NormalizedPriceListener(ObjectProvider<FxRates> fxRates) {
+        this.fxRates = fxRates;
+    }
+
+    @PrePersist
+    @PreUpdate
+    void normalize(ProductEntity product) {
+        product.setNormalizedPrice(fxRates.getObject().normalize(product.getPrice(), product.getCurrency()));
+    }
+}
@@ -0,0 +1,121 @@
+package com.turkcell.ecommerce.fx;
+
+import com.turkcell.ecommerce.cache.SecondLevelCacheEvictor;
+import com.turkcell.ecommerce.event.ChangeOrigin;
+import com.turkcell.ecommerce.event.FxRateChangedEvent;
+import com.turkcell.ecommerce.repository.ShardedProductWriter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Re-normalizes the prices of a currency's products after its rate changes.
+ * <p>
+ * Runs in the background, in chunks of {@code chunk-size} products (by id), each chunk its own
+ * transaction, so a rate change never holds locks on the whole catalog. Only rows whose normalized
+ * price differs from the current rate are written. A pass is repeated until it finds nothing stale,
+ * which also catches products written with the old rate while the pass was running. Several changes
+ * to one currency before its sweep starts are coalesced into one sweep at the latest rate. Cached
+ * products are evicted after each chunk that rewrote rows. With sharding enabled, each chunk is
+ * re-normalized on the shards too.
+ */
+@Slf4j
+@Component
+public class PriceRenormalizer {
+
+    private static final String CHUNK_END =
+            "SELECT MAX(id) FROM (SELECT id FROM products WHERE currency = ? AND id > ? ORDER BY id FETCH FIRST ? ROWS ONLY)";
+    private static final String UPDATE_CHUNK =
+            "UPDATE products SET normalized_price = price * ? " +
+            "WHERE currency = ? AND id > ? AND id <= ? AND normalized_price IS DISTINCT FROM price * ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final FxRates fxRates;
+    private final SecondLevelCacheEvictor cacheEvictor;
+    private final ObjectProvider<ShardedProductWriter> shardedWriter;
+    private final int chunkSize;
+    private final Set<String> pending = ConcurrentHashMap.newKeySet();
+
+    public PriceRenormalizer(JdbcTemplate jdbcTemplate, TransactionTemplate transactionTemplate, FxRates fxRates,
+                             SecondLevelCacheEvictor cacheEvictor, ObjectProvider<ShardedProductWriter> shardedWriter,
+                             @Value("${ecommerce.fx.renormalize-chunk-size:1000}") int chunkSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.fxRates = fxRates;
+        this.cacheEvictor = cacheEvictor;
+        this.shardedWriter = shardedWriter;
+        this.chunkSize = chunkSize;
+    }
+
+    // After FxRates has taken the new rate
+    @Order(Ordered.LOWEST_PRECEDENCE)
+    @TransactionalEventListener
+    public void onRateChanged(FxRateChangedEvent event) {
+        // The instance that set the rate sweeps the shared table
+        if (!ChangeOrigin.isRemote()) {
+            pending.add(event.currency());
+        }
+    }
+
+    /**
+     * Sweep the currencies whose rate changed since the last run
+     */
+    @Scheduled(fixedDelayString = "${ecommerce.fx.renormalize-interval-ms:1000}")
+    public void renormalizePending() {
+        for (String currency : pending) {
+            pending.remove(currency);
+            try {
+                renormalize(currency);
+            } catch (RuntimeException ex) {
+                // Retried on the next run
+                pending.add(currency);
+                log.warn("Re-normalizing {} prices failed: {}", currency, ex.getMessage());
+            }
+        }
+    }
+
+    private void renormalize(String currency) {
+        long start = System.nanoTime();
+        long total = 0;
+        int updated;
+        do {
+            // Read per pass: a newer rate may have arrived
+            Double rate = fxRates.rate(currency);
+            if (rate == null) {
+                return;
+            }
+            updated = 0;
+            long lastId = 0;
+            while (true) {
+                Long chunkEnd = jdbcTemplate.queryForObject(CHUNK_END, Long.class, currency, lastId, chunkSize);
+                if (chunkEnd == null) {
+                    break;
+                }
+                long from = lastId;
+                int chunkUpdated = transactionTemplate.execute(status -> {
+                    shardedWriter.ifAvailable(writer ->
+                            writer.updateAll(UPDATE_CHUNK, rate, currency, from, chunkEnd, rate));
+                    return jdbcTemplate.update(UPDATE_CHUNK, rate, currency, from, chunkEnd, rate);
+                });
+                if (chunkUpdated > 0) {
+                    cacheEvictor.evictProducts();
+                }
+                updated += chunkUpdated;
+                lastId = chunkEnd;
+            }
+            total += updated;
+        } while (updated > 0);
+        log.info("Re-normalized {} {} prices in {} ms", total, currency, (System.nanoTime() - start) / 1_000_000);
+    }
+}
@@ -0,0 +1,219 @@
+package com.turkcell.ecommerce.mapper;
+
+import com.turkcell.ecommerce.dto.CreateProductRequest;
+import com.turkcell.ecommerce.dto.PatchProductRequest;
+import com.turkcell.ecommerce.dto.Product;
+import com.turkcell.ecommerce.dto.UpdateProductRequest;
+import com.turkcell.ecommerce.dto.v2.CreateProductV2Request;
+import com.turkcell.ecommerce.dto.v2.PatchProductV2Request;
+import com.turkcell.ecommerce.dto.v2.ProductV2;
+import com.turkcell.ecommerce.dto.v2.UpdateProductV2Request;
+import com.turkcell.ecommerce.dto.v3.CategoryRefV3;
+import com.turkcell.ecommerce.dto.v3.CreateProductV3Request;
+import com.turkcell.ecommerce.dto.v3.PatchProductV3Request;
+import com.turkcell.ecommerce.dto.v3.ProductV3;
+import com.turkcell.ecommerce.dto.v3.UpdateProductV3Request;
+import com.turkcell.ecommerce.entity.CategoryEntity;
+import com.turkcell.ecommerce.entity.ProductEntity;
+import com.turkcell.ecommerce.event.ProductChangedEvent;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Entity to DTO conversion and request application for products, shared by the v1, v2 and v3
+ * services. DTOs are created through their all-args constructors (arguments in field order)
+ * rather than builders, so a conversion allocates only the DTO itself.
+ */
+public final class ProductMapper {
+
+    private static final String V1_ID_PREFIX = "prd_";
+
+    private ProductMapper() {
+    }
+
+    // ---------- Entity -> DTO ----------
+
+    public static Product toProduct(ProductEntity entity) {
+        return new Product(
+                V1_ID_PREFIX + entity.getId(),
+                entity.getSku(),
+                entity.getName(),
+                entity.getDescription(),
+                entity.getPrice(),
+                entity.getCurrency(),
+                entity.getInStock(),
+                entity.getCreatedAt(),
+                entity.getUpdatedAt());
+    }
+
+    public static ProductV2 toProductV2(ProductEntity entity) {
+        return new ProductV2(
+                V1_ID_PREFIX + entity.getId(),
+                entity.getSku(),
+                entity.getName(),
+                entity.getDescription(),
+                entity.getPrice(),
+                entity.getCurrency(),
+                entity.getInStock(),
+                entity.getImageUrl(),
+                entity.getDiscountPercent(),
+                entity.getRating(),
+                entity.getCreatedAt(),
+                entity.getUpdatedAt());
+    }
+
+    /**
+     * @param stagedInStock stock status to report instead of the stored one, or null
+     */
+    public static ProductV3 toProductV3(ProductEntity entity, Boolean stagedInStock) {
+        return new ProductV3(
+                String.valueOf(entity.getId()),
+                entity.getSku(),
+                entity.getName(),
+                entity.getDescription(),
+                entity.getPrice(),
+                entity.getCurrency(),
+                stagedInStock != null ? stagedInStock : entity.getInStock(),
+                entity.getImageUrl(),
+                entity.getDiscountPercent(),
+                entity.getRating(),
+                toCategoryRef(entity.getCategory()),
+                entity.getCreatedAt(),
+                entity.getUpdatedAt());
+    }
+
+    public static CategoryRefV3 toCategoryRef(CategoryEntity category) {
+        return new CategoryRefV3(String.valueOf(category.getId()), category.getName());
+    }
+
+    // ---------- Create ----------
+
+    public static ProductEntity toEntity(CreateProductRequest request) {
+        ProductEntity entity = new ProductEntity();
+        entity.setSku(request.getSku());
+        entity.setName(request.getName());
+        entity.setDescription(request.getDescription());
+        entity.setPrice(request.getPrice());
+        entity.setCurrency(request.getCurrency());
+        entity.setInStock(request.getInStock());
+        return entity;
+    }
+
+    public static ProductEntity toEntity(CreateProductV2Request request) {
+        ProductEntity entity = new ProductEntity();
+        entity.setSku(request.getSku());
+        entity.setName(request.getName());
+        entity.setDescription(request.getDescription());
+        entity.setPrice(request.getPrice());
+        entity.setCurrency(request.getCurrency());
+        entity.setInStock(request.getInStock());
+        entity.setImageUrl(request.getImageUrl());
+        entity.setDiscountPercent(request.getDiscountPercent());
+        entity.setRating(request.getRating());
+        return entity;
+    }
+
+    public static ProductEntity toEntity(CreateProductV3Request request, CategoryEntity category) {
+        ProductEntity entity = new ProductEntity();
+        entity.setSku(request.getSku());
+        entity.setName(request.getName());
+        entity.setDescription(request.getDescription());
+        entity.setPrice(request.getPrice());
+        entity.setCurrency(request.getCurrency());
+        entity.setInStock(request.getInStock());
+        entity.setImageUrl(request.getImageUrl());
+        entity.setDiscountPercent(request.getDiscountPercent());
+        entity.setRating(request.getRating());
+        entity.setCategory(category);
+        return entity;
+    }
+
+    // ---------- Replace (PUT) ----------
+
+    public static void applyReplace(ProductEntity entity, UpdateProductRequest request) {
+        entity.setSku(request.getSku());
+        entity.setName(request.getName());
+        entity.setDescription(request.getDescription());
+        entity.setPrice(request.getPrice());
+        entity.setCurrency(request.getCurrency());
+        entity.setInStock(request.getInStock());
+    }
+
+    public static void applyReplace(ProductEntity entity, UpdateProductV2Request request) {
+        entity.setSku(request.getSku());
+        entity.setName(request.getName());
+        entity.setDescription(request.getDescription());
+        entity.setPrice(request.getPrice());
+        entity.setCurrency(request.getCurrency());
+        entity.setInStock(request.getInStock());
+        entity.setImageUrl(request.getImageUrl());
+        entity.setDiscountPercent(request.getDiscountPercent());
+        entity.setRating(request.getRating());
+    }
+
+    public static void applyReplace(ProductEntity entity, UpdateProductV3Request request, CategoryEntity category) {
+        entity.setSku(request.getSku());
+        entity.setName(request.getName());
+        entity.setDescription(request.getDescription());
+        entity.setPrice(request.getPrice());
+        entity.setCurrency(request.getCurrency());
+        entity.setInStock(request.getInStock());
+        entity.setImageUrl(request.getImageUrl());
+        entity.setDiscountPercent(request.getDiscountPercent());
+        entity.setRating(request.getRating());
+        entity.setCategory(category);
+    }
+
+    // ---------- Patch ----------
+
+    /**
+     * Non-null fields of the request, keyed by field name (see {@link ProductChangedEvent})
+     */
+    public static Map<String, Object> patchChanges(PatchProductRequest request) {
+        Map<String, Object> changes = new LinkedHashMap<>();
+        putCommonChanges(changes, request.getSku(), request.getName(), request.getDescription(),
+                request.getPrice(), request.getCurrency(), request.getInStock());
+        return changes;
+    }
+
+    public static Map<String, Object> patchChanges(PatchProductV2Request request) {
+        Map<String, Object> changes = new LinkedHashMap<>();
+        putCommonChanges(changes, request.getSku(), request.getName(), request.getDescription(),
+                request.getPrice(), request.getCurrency(), request.getInStock());
+        putV2Changes(changes, request.getImageUrl(), request.getDiscountPercent(), request.getRating());
+        return changes;
+    }
+
+    public static Map<String, Object> patchChanges(PatchProductV3Request request) {
+        Map<String, Object> changes = new LinkedHashMap<>();
+        putCommonChanges(changes, request.getSku(), request.getName(), request.getDescription(),
+                request.getPrice(), request.getCurrency(), request.getInStock());
+        putV2Changes(changes, request.getImageUrl(), request.getDiscountPercent(), request.getRating());
+        putIfPresent(changes, ProductChangedEvent.CATEGORY_ID, request.getCategoryId());
+        return changes;
+    }
+
+    private static void putCommonChanges(Map<String, Object> changes, String sku, String name, String description,
+                                         Double price, String currency, Boolean inStock) {
+        putIfPresent(changes, ProductChangedEvent.SKU, sku);
+        putIfPresent(changes, ProductChangedEvent.NAME, name);
+        putIfPresent(changes, ProductChangedEvent.DESCRIPTION, description);
+        putIfPresent(changes, ProductChangedEvent.PRICE, price);
+        putIfPresent(changes, ProductChangedEvent.CURRENCY, currency);
+        putIfPresent(changes, ProductChangedEvent.IN_STOCK, inStock);
+    }
+
+    private static void putV2Changes(Map<String, Object> changes, String imageUrl, Double discountPercent,
+                                     Double rating) {
+        putIfPresent(changes, ProductChangedEvent.IMAGE_URL, imageUrl);
+        putIfPresent(changes, ProductChangedEvent.DISCOUNT_PERCENT, discountPercent);
+        putIfPresent(changes, ProductChangedEvent.RATING, rating);
+    }
+
+    private static void putIfPresent(Map<String, Object> changes, String field, Object value) {
+        if (value != null) {
+            changes.put(field, value);
+        }
+    }
+}
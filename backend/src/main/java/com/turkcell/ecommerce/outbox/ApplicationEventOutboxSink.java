@@ -0,0 +1,29 @@
+package com.turkcell.ecommerce.outbox;
+
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Delivers outbox messages to in-process {@code @EventListener(OutboxMessage.class)} listeners
+ */
+@Component
+public class ApplicationEventOutboxSink implements OutboxSink {
+
+    private final ApplicationEventPublisher eventPublisher;
+
+    public ApplicationEventOutboxSink(ApplicationEventPublisher eventPublisher) {
+        this.eventPublisher = eventPublisher;
+    }
+
+    @Override
+    public String name() {
+        return "in-process";
+    }
+
+    @Override
+    public void deliver(List<OutboxMessage> batch) {
+        batch.forEach(eventPublisher::publishEvent);
+    }
+}
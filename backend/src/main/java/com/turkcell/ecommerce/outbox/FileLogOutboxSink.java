@@ -0,0 +1,76 @@
+package com.turkcell.ecommerce.outbox;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+/**
+ * Appends outbox messages to a local JSON-lines file, one write and (optionally) one fsync per batch
+ */
+@Component
+@ConditionalOnProperty(name = "ecommerce.outbox.file-log.enabled", havingValue = "true")
+public class FileLogOutboxSink implements OutboxSink {
+
+    private final ObjectMapper objectMapper;
+    private final FileChannel channel;
+    private final boolean fsync;
+
+    public FileLogOutboxSink(ObjectMapper objectMapper,
+                             @Value("${ecommerce.outbox.file-log.path:./data/outbox.log}") Path path,
+                             @Value("${ecommerce.outbox.file-log.fsync:true}") boolean fsync) throws IOException {
+        this.objectMapper = objectMapper;
+        this.fsync = fsync;
+        Path parent = path.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        this.channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.APPEND);
+    }
+
+    @Override
+    public String name() {
+        return "file-log";
+    }
+
+    @Override
+    public void deliver(List<OutboxMessage> batch) throws IOException {
+        StringBuilder lines = new StringBuilder(batch.size() * 256);
+        for (OutboxMessage message : batch) {
+            ObjectNode line = objectMapper.createObjectNode()
+                    .put("id", message.id())
+                    .put("aggregateType", message.aggregateType())
+                    .put("aggregateId", message.aggregateId())
+                    .put("eventType", message.eventType())
+                    .put("createdAt", message.createdAt().toString());
+            line.set("payload", objectMapper.readTree(message.payload()));
+            lines.append(objectMapper.writeValueAsString(line)).append('\n');
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(lines.toString().getBytes(StandardCharsets.UTF_8));
+        synchronized (channel) {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            if (fsync) {
+                channel.force(false);
+            }
+        }
+    }
+
+    @PreDestroy
+    public void close() throws IOException {
+        channel.close();
+    }
+}
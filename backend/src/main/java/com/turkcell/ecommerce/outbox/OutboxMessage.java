@@ -0,0 +1,11 @@
+package com.turkcell.ecommerce.outbox;
+
+import java.time.OffsetDateTime;
+
+/**
+ * Outbox event as handed to sinks. {@code id} increases with commit order (within the relay's
+ * settle delay) and is the idempotency key for consumers, since delivery is at-least-once.
+ */
+public record OutboxMessage(long id, String aggregateType, long aggregateId, String eventType, String payload,
+                            OffsetDateTime createdAt) {
+}
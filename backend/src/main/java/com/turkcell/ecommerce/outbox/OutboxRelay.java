@@ -0,0 +1,279 @@
+package com.turkcell.ecommerce.outbox;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.ContextClosedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Drains the outbox in id order and delivers batches to every {@link OutboxSink}.
+ * <p>
+ * Progress is a high-water mark row, locked and advanced in the same transaction that reads the
+ * batch, so concurrent relays never deliver the same batch twice. Identity values are assigned at
+ * insert time, not commit time, so a lower id can become visible after a higher one; a batch
+ * therefore stops at the first gap unless the row after it is older than the settle delay. The
+ * mark then moves past the gap, but its ids are recorded and re-checked on every run for
+ * {@code gap-timeout-ms}, so an event whose transaction commits late is still delivered (after
+ * events with higher ids). Ids still missing after that are taken to be rolled-back inserts.
+ */
+@Slf4j
+@Service
+@ConditionalOnProperty(name = "ecommerce.outbox.enabled", havingValue = "true", matchIfMissing = true)
+public class OutboxRelay {
+
+    private static final String SELECT_STATE =
+            "SELECT last_event_id FROM outbox_relay_state WHERE relay_name = ? FOR UPDATE";
+    private static final String INSERT_STATE =
+            "INSERT INTO outbox_relay_state (relay_name, last_event_id, updated_at) VALUES (?, 0, ?)";
+    private static final String UPDATE_STATE =
+            "UPDATE outbox_relay_state SET last_event_id = ?, updated_at = ? WHERE relay_name = ?";
+    private static final String SELECT_BATCH = "SELECT id, aggregate_type, aggregate_id, event_type, payload, created_at "
+            + "FROM outbox_events WHERE id > ? ORDER BY id LIMIT ?";
+    private static final String COUNT_BACKLOG = "SELECT COUNT(*) FROM outbox_events WHERE id > ?";
+    private static final String DELETE_DELIVERED = "DELETE FROM outbox_events WHERE id <= ? AND created_at < ? "
+            + "AND id NOT IN (SELECT event_id FROM outbox_relay_gaps)";
+    private static final String SELECT_LATE = "SELECT o.id, o.aggregate_type, o.aggregate_id, o.event_type, o.payload, "
+            + "o.created_at FROM outbox_events o JOIN outbox_relay_gaps g ON g.event_id = o.id "
+            + "WHERE g.relay_name = ? ORDER BY o.id LIMIT ?";
+    private static final String INSERT_GAP =
+            "INSERT INTO outbox_relay_gaps (relay_name, event_id, skipped_at) VALUES (?, ?, ?)";
+    private static final String DELETE_GAP = "DELETE FROM outbox_relay_gaps WHERE relay_name = ? AND event_id = ?";
+    private static final String DELETE_EXPIRED_GAPS =
+            "DELETE FROM outbox_relay_gaps WHERE relay_name = ? AND skipped_at < ?";
+
+    private static final RowMapper<OutboxMessage> MESSAGE_MAPPER = (rs, rowNum) -> new OutboxMessage(
+            rs.getLong("id"),
+            rs.getString("aggregate_type"),
+            rs.getLong("aggregate_id"),
+            rs.getString("event_type"),
+            rs.getString("payload"),
+            rs.getObject("created_at", OffsetDateTime.class));
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final List<OutboxSink> sinks;
+    private final String relayName;
+    private final int batchSize;
+    private final int maxBatchesPerRun;
+    private final Duration settleDelay;
+    private final Duration gapTimeout;
+    private final int maxGapIds;
+    private final Duration retention;
+    private final ReentrantLock relayLock = new ReentrantLock();
+    private final AtomicLong highWaterMark = new AtomicLong();
+    private final AtomicLong backlog = new AtomicLong();
+    private final Counter deliveredCounter;
+    private final Counter failureCounter;
+    private final Timer lagTimer;
+    private final Timer batchTimer;
+    private volatile boolean ready;
+
+    public OutboxRelay(JdbcTemplate jdbcTemplate,
+                       TransactionTemplate transactionTemplate,
+                       List<OutboxSink> sinks,
+                       MeterRegistry meterRegistry,
+                       @Value("${ecommerce.outbox.relay-name:default}") String relayName,
+                       @Value("${ecommerce.outbox.batch-size:500}") int batchSize,
+                       @Value("${ecommerce.outbox.max-batches-per-run:20}") int maxBatchesPerRun,
+                       @Value("${ecommerce.outbox.settle-delay-ms:5000}") long settleDelayMs,
+                       @Value("${ecommerce.outbox.gap-timeout-ms:600000}") long gapTimeoutMs,
+                       @Value("${ecommerce.outbox.max-gap-ids:10000}") int maxGapIds,
+                       @Value("${ecommerce.outbox.retention-ms:3600000}") long retentionMs) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.sinks = sinks;
+        this.relayName = relayName;
+        this.batchSize = batchSize;
+        this.maxBatchesPerRun = maxBatchesPerRun;
+        this.settleDelay = Duration.ofMillis(settleDelayMs);
+        this.gapTimeout = Duration.ofMillis(gapTimeoutMs);
+        this.maxGapIds = maxGapIds;
+        this.retention = Duration.ofMillis(retentionMs);
+
+        this.deliveredCounter = Counter.builder("outbox.relay.delivered")
+                .description("Outbox events delivered to all sinks")
+                .register(meterRegistry);
+        this.failureCounter = Counter.builder("outbox.relay.failures")
+                .description("Outbox batches that failed and will be retried")
+                .register(meterRegistry);
+        this.lagTimer = Timer.builder("outbox.relay.lag")
+                .description("Time from an outbox write to its delivery")
+                .publishPercentiles(0.5, 0.99)
+                .register(meterRegistry);
+        this.batchTimer = Timer.builder("outbox.relay.batch")
+                .description("Time to read, deliver and acknowledge one outbox batch")
+                .register(meterRegistry);
+        Gauge.builder("outbox.relay.backlog", backlog, AtomicLong::get)
+                .description("Outbox events written but not yet delivered")
+                .register(meterRegistry);
+        Gauge.builder("outbox.relay.high-water-mark", highWaterMark, AtomicLong::get)
+                .description("Id of the last delivered outbox event")
+                .register(meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void init() {
+        transactionTemplate.executeWithoutResult(status -> {
+            List<Long> state = jdbcTemplate.queryForList(SELECT_STATE, Long.class, relayName);
+            if (state.isEmpty()) {
+                jdbcTemplate.update(INSERT_STATE, relayName, OffsetDateTime.now());
+            } else {
+                highWaterMark.set(state.get(0));
+            }
+        });
+        ready = true;
+        log.info("Outbox relay '{}' started at event {} with sinks {}", relayName, highWaterMark.get(),
+                sinks.stream().map(OutboxSink::name).toList());
+    }
+
+    /**
+     * Deliver pending events, a bounded number of batches per run
+     */
+    @Scheduled(fixedDelayString = "${ecommerce.outbox.poll-interval-ms:500}")
+    public void relay() {
+        if (!ready || !relayLock.tryLock()) {
+            return;
+        }
+        try {
+            for (int i = 0; i < maxBatchesPerRun; i++) {
+                if (relayBatch() < batchSize) {
+                    break;
+                }
+            }
+        } catch (RuntimeException e) {
+            failureCounter.increment();
+            log.warn("Outbox relay '{}' failed after event {}; retrying next run", relayName, highWaterMark.get(), e);
+        } finally {
+            backlog.set(jdbcTemplate.queryForObject(COUNT_BACKLOG, Long.class, highWaterMark.get()));
+            relayLock.unlock();
+        }
+    }
+
+    /**
+     * Give up on gaps past the gap timeout, and remove delivered events once they are past the
+     * retention period
+     */
+    @Scheduled(fixedDelayString = "${ecommerce.outbox.cleanup-interval-ms:60000}")
+    public void purgeDelivered() {
+        if (!ready) {
+            return;
+        }
+        int expired = jdbcTemplate.update(DELETE_EXPIRED_GAPS, relayName, OffsetDateTime.now().minus(gapTimeout));
+        if (expired > 0) {
+            log.warn("Outbox relay '{}' gave up on {} event ids that never committed; taken as rolled back",
+                    relayName, expired);
+        }
+        int deleted = jdbcTemplate.update(DELETE_DELIVERED, highWaterMark.get(), OffsetDateTime.now().minus(retention));
+        if (deleted > 0) {
+            log.debug("Purged {} delivered outbox events", deleted);
+        }
+    }
+
+    /**
+     * Deliver what has committed before the application shuts down
+     */
+    @EventListener(ContextClosedEvent.class)
+    public void onShutdown() {
+        relay();
+    }
+
+    private int relayBatch() {
+        Integer delivered = transactionTemplate.execute(status -> {
+            long startNanos = System.nanoTime();
+            long mark = jdbcTemplate.queryForObject(SELECT_STATE, Long.class, relayName);
+            // Events that committed after the mark moved past them go first
+            List<OutboxMessage> batch = new ArrayList<>(
+                    jdbcTemplate.query(SELECT_LATE, MESSAGE_MAPPER, relayName, batchSize));
+            int late = batch.size();
+            List<Long> skipped = new ArrayList<>();
+            batch.addAll(settledPrefix(jdbcTemplate.query(SELECT_BATCH, MESSAGE_MAPPER, mark, batchSize), mark, skipped));
+            if (batch.isEmpty()) {
+                return 0;
+            }
+            for (OutboxSink sink : sinks) {
+                try {
+                    sink.deliver(batch);
+                } catch (Exception e) {
+                    throw new IllegalStateException("Outbox sink '" + sink.name() + "' failed", e);
+                }
+            }
+            OffsetDateTime now = OffsetDateTime.now();
+            for (OutboxMessage message : batch.subList(0, late)) {
+                jdbcTemplate.update(DELETE_GAP, relayName, message.id());
+            }
+            recordGaps(skipped, now);
+            long last = batch.size() > late ? batch.get(batch.size() - 1).id() : mark;
+            jdbcTemplate.update(UPDATE_STATE, last, now, relayName);
+
+            highWaterMark.set(last);
+            deliveredCounter.increment(batch.size());
+            for (OutboxMessage message : batch) {
+                lagTimer.record(Duration.between(message.createdAt(), now));
+            }
+            batchTimer.record(Duration.ofNanos(System.nanoTime() - startNanos));
+            return batch.size() - late;
+        });
+        return delivered != null ? delivered : 0;
+    }
+
+    /**
+     * The rows that can be delivered in id order: up to the first gap that may still fill
+     *
+     * @param skipped receives the ids of the gaps passed
+     */
+    private List<OutboxMessage> settledPrefix(List<OutboxMessage> rows, long mark, List<Long> skipped) {
+        OffsetDateTime settledBefore = OffsetDateTime.now().minus(settleDelay);
+        List<OutboxMessage> batch = new ArrayList<>(rows.size());
+        long expected = mark + 1;
+        for (OutboxMessage row : rows) {
+            if (row.id() != expected) {
+                if (row.createdAt().isAfter(settledBefore)) {
+                    // An earlier id may still be in flight; wait for it rather than skip past it
+                    break;
+                }
+                for (long id = expected; id < row.id(); id++) {
+                    skipped.add(id);
+                }
+            }
+            batch.add(row);
+            expected = row.id() + 1;
+        }
+        return batch;
+    }
+
+    /**
+     * Remember ids the mark moved past, so they are delivered if they commit later. A range too
+     * large to track (an identity jump rather than in-flight inserts) is given up at once.
+     */
+    private void recordGaps(List<Long> skipped, OffsetDateTime now) {
+        if (skipped.isEmpty()) {
+            return;
+        }
+        if (skipped.size() > maxGapIds) {
+            log.warn("Outbox relay '{}' skipped {} event ids from {}; too many to re-check, taken as rolled back",
+                    relayName, skipped.size(), skipped.get(0));
+            return;
+        }
+        jdbcTemplate.batchUpdate(INSERT_GAP, skipped.stream()
+                .map(id -> new Object[]{relayName, id, now})
+                .toList());
+    }
+}
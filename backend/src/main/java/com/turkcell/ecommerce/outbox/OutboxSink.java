@@ -0,0 +1,15 @@
+package com.turkcell.ecommerce.outbox;
+
+import java.util.List;
+
+/**
+ * Destination the outbox relay delivers to. A batch counts as delivered only when every sink
+ * accepted it; if one throws, the whole batch is retried on the next run, so sinks must tolerate
+ * seeing a message again.
+ */
+public interface OutboxSink {
+
+    String name();
+
+    void deliver(List<OutboxMessage> batch) throws Exception;
+}
@@ -0,0 +1,70 @@
+package com.turkcell.ecommerce.outbox;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.turkcell.ecommerce.event.CategoryChangedEvent;
+import com.turkcell.ecommerce.event.ChangeOrigin;
+import com.turkcell.ecommerce.event.ProductChangedEvent;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.time.OffsetDateTime;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Records product and category changes in the outbox table. The listeners are synchronous, so the
+ * insert joins the transaction of the write that published the event and commits or rolls back
+ * with it. Changes replayed from another instance ({@link ChangeOrigin}) were recorded there.
+ */
+@Component
+@ConditionalOnProperty(name = "ecommerce.outbox.enabled", havingValue = "true", matchIfMissing = true)
+public class OutboxWriter {
+
+    public static final String PRODUCT = "product";
+    public static final String CATEGORY = "category";
+
+    private static final String INSERT_EVENT = "INSERT INTO outbox_events "
+            + "(aggregate_type, aggregate_id, event_type, payload, created_at) VALUES (?, ?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+
+    public OutboxWriter(JdbcTemplate jdbcTemplate, ObjectMapper objectMapper) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.objectMapper = objectMapper;
+    }
+
+    @EventListener
+    public void onProductChanged(ProductChangedEvent event) {
+        if (ChangeOrigin.isRemote()) {
+            return;
+        }
+        insert(PRODUCT, event.productId(), event.type().name(), event.changes());
+    }
+
+    @EventListener
+    public void onCategoryChanged(CategoryChangedEvent event) {
+        if (ChangeOrigin.isRemote()) {
+            return;
+        }
+        Map<String, Object> changes = new LinkedHashMap<>();
+        if (event.name() != null) {
+            changes.put("name", event.name());
+            changes.put("updatedAt", event.updatedAt());
+        }
+        insert(CATEGORY, event.categoryId(), event.type().name(), changes);
+    }
+
+    private void insert(String aggregateType, Long aggregateId, String eventType, Map<String, Object> changes) {
+        String payload;
+        try {
+            payload = objectMapper.writeValueAsString(changes);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Cannot serialize outbox payload for " + aggregateType + " " + aggregateId, e);
+        }
+        jdbcTemplate.update(INSERT_EVENT, aggregateType, aggregateId, eventType, payload, OffsetDateTime.now());
+    }
+}
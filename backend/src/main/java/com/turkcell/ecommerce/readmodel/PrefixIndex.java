@@ -0,0 +1,218 @@
+package com.turkcell.ecommerce.readmodel;
+
+import com.turkcell.ecommerce.search.TurkishTextNormalizer;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.IntPredicate;
+
+/**
+ * Immutable word-prefix index over a fixed set of texts, each with a score.
+ * <p>
+ * Every word start of every normalized text is one key, stored as a (text, offset) pair and sorted
+ * by the suffix it points at, so all keys beginning with a prefix form one contiguous range found by
+ * two binary searches. Only the pairs are kept, not the suffix strings. Results are ranked by score
+ * (ties by text order); the ranked results of every prefix up to {@value #PRECOMPUTED_PREFIX_LENGTH}
+ * characters, whose ranges are the widest, are computed at build time.
+ */
+final class PrefixIndex {
+
+    static final int PRECOMPUTED_PREFIX_LENGTH = 2;
+    private static final IntPredicate NONE = text -> false;
+
+    private final String[] texts;
+    private final int[] rank;
+    private final int[] keyTexts;
+    private final int[] keyOffsets;
+    private final int maxResults;
+    private final Map<String, int[]> precomputed = new HashMap<>();
+
+    /**
+     * @param texts      raw texts; normalized here with {@link TurkishTextNormalizer}
+     * @param scores     score per text, higher ranks first
+     * @param maxResults largest {@code limit} a lookup may ask for
+     */
+    PrefixIndex(String[] texts, double[] scores, int maxResults) {
+        this.texts = new String[texts.length];
+        this.maxResults = maxResults;
+        int keyCount = 0;
+        for (int i = 0; i < texts.length; i++) {
+            this.texts[i] = TurkishTextNormalizer.normalize(texts[i]);
+            keyCount += wordCount(this.texts[i]);
+        }
+
+        // Rank by score descending, then index: sort (inverted float-ordered score bits, index) pairs
+        long[] byScore = new long[texts.length];
+        for (int i = 0; i < texts.length; i++) {
+            int bits = Float.floatToIntBits((float) scores[i]);
+            int ordered = bits >= 0 ? bits : bits ^ Integer.MAX_VALUE;
+            byScore[i] = ((long) ~ordered << 32) | i;
+        }
+        Arrays.sort(byScore);
+        rank = new int[texts.length];
+        for (int r = 0; r < byScore.length; r++) {
+            rank[(int) byScore[r]] = r;
+        }
+
+        // Sort on temporary suffix strings (String.compareTo is an intrinsic); only the
+        // (text, offset) pairs are kept
+        Key[] keys = new Key[keyCount];
+        int k = 0;
+        for (int i = 0; i < this.texts.length; i++) {
+            String text = this.texts[i];
+            for (int offset = 0; offset < text.length(); offset = text.indexOf(' ', offset) + 1) {
+                keys[k++] = new Key(text.substring(offset), i, offset);
+                if (text.indexOf(' ', offset) < 0) {
+                    break;
+                }
+            }
+        }
+        Arrays.sort(keys, Comparator.comparing(Key::suffix));
+        keyTexts = new int[keyCount];
+        keyOffsets = new int[keyCount];
+        for (int i = 0; i < keyCount; i++) {
+            keyTexts[i] = keys[i].text();
+            keyOffsets[i] = keys[i].offset();
+        }
+
+        precompute();
+    }
+
+    /**
+     * Indexes of the best-ranked texts with a word starting with {@code prefix}, best first
+     *
+     * @param prefix already normalized, non-empty
+     */
+    int[] lookup(String prefix, int limit) {
+        return lookup(prefix, limit, NONE);
+    }
+
+    /**
+     * Like {@link #lookup(String, int)}, leaving out the texts {@code excluded} accepts. The
+     * precomputed results are used when enough of them are left; otherwise the range is ranked again.
+     */
+    int[] lookup(String prefix, int limit, IntPredicate excluded) {
+        int[] ranked;
+        if (prefix.length() <= PRECOMPUTED_PREFIX_LENGTH) {
+            int[] precomputedRanked = precomputed.getOrDefault(prefix, new int[0]);
+            ranked = Arrays.stream(precomputedRanked).filter(excluded.negate()).toArray();
+            if (ranked.length < Math.min(limit, maxResults) && precomputedRanked.length == maxResults) {
+                ranked = rankRange(lowerBound(prefix), upperBound(prefix), excluded);
+            }
+        } else {
+            ranked = rankRange(lowerBound(prefix), upperBound(prefix), excluded);
+        }
+        return ranked.length > limit ? Arrays.copyOf(ranked, limit) : ranked;
+    }
+
+    private void precompute() {
+        int from = 0;
+        while (from < keyTexts.length) {
+            String text = texts[keyTexts[from]];
+            int offset = keyOffsets[from];
+            int length = Math.min(PRECOMPUTED_PREFIX_LENGTH, text.length() - offset);
+            for (int l = 1; l <= length; l++) {
+                String prefix = text.substring(offset, offset + l);
+                precomputed.computeIfAbsent(prefix, p -> rankRange(lowerBound(p), upperBound(p), NONE));
+            }
+            // Skip the rest of the range sharing this key's precomputed prefixes
+            from = upperBound(text.substring(offset, offset + length));
+        }
+    }
+
+    /**
+     * Distinct texts of keys [from, to) not {@code excluded}, best {@code maxResults} by rank. Each
+     * text has a unique rank, so a rank already kept marks a duplicate.
+     */
+    private int[] rankRange(int from, int to, IntPredicate excluded) {
+        int[] best = new int[maxResults];
+        int count = 0;
+        for (int key = from; key < to; key++) {
+            int text = keyTexts[key];
+            if (excluded.test(text)) {
+                continue;
+            }
+            int r = rank[text];
+            if (count == maxResults && r >= rank[best[count - 1]]) {
+                continue;
+            }
+            int pos = count;
+            while (pos > 0 && rank[best[pos - 1]] > r) {
+                pos--;
+            }
+            if (pos > 0 && best[pos - 1] == text) {
+                continue;
+            }
+            int moved = Math.min(count, maxResults - 1) - pos;
+            System.arraycopy(best, pos, best, pos + 1, moved);
+            best[pos] = text;
+            count = Math.min(count + 1, maxResults);
+        }
+        return Arrays.copyOf(best, count);
+    }
+
+    /**
+     * First key whose suffix, cut to the prefix length, is not less than the prefix
+     */
+    private int lowerBound(String prefix) {
+        int low = 0;
+        int high = keyTexts.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (comparePrefix(mid, prefix) < 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * First key whose suffix, cut to the prefix length, is greater than the prefix
+     */
+    private int upperBound(String prefix) {
+        int low = 0;
+        int high = keyTexts.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (comparePrefix(mid, prefix) <= 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private int comparePrefix(int key, String prefix) {
+        String text = texts[keyTexts[key]];
+        int offset = keyOffsets[key];
+        int length = Math.min(text.length() - offset, prefix.length());
+        for (int i = 0; i < length; i++) {
+            int diff = text.charAt(offset + i) - prefix.charAt(i);
+            if (diff != 0) {
+                return diff;
+            }
+        }
+        return length < prefix.length() ? -1 : 0;
+    }
+
+    private static int wordCount(String text) {
+        if (text.isEmpty()) {
+            return 0;
+        }
+        int words = 1;
+        for (int i = 0; i < text.length(); i++) {
+            if (text.charAt(i) == ' ') {
+                words++;
+            }
+        }
+        return words;
+    }
+
+    private record Key(String suffix, int text, int offset) {
+    }
+}
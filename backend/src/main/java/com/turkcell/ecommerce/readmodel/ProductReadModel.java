@@ -0,0 +1,654 @@
+package com.turkcell.ecommerce.readmodel;
+
+import com.turkcell.ecommerce.dto.v3.CategoryRefV3;
+import com.turkcell.ecommerce.dto.v3.ProductV3;
+import com.turkcell.ecommerce.entity.ProductEntity;
+import com.turkcell.ecommerce.event.CacheFlushEvent;
+import com.turkcell.ecommerce.event.CategoryChangedEvent;
+import com.turkcell.ecommerce.event.ChangeType;
+import com.turkcell.ecommerce.event.ProductChangedEvent;
+import com.turkcell.ecommerce.fx.FxRates;
+import com.turkcell.ecommerce.search.ProductFilter;
+import com.turkcell.ecommerce.search.TurkishTextNormalizer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.IntPredicate;
+import java.util.stream.IntStream;
+
+/**
+ * In-memory columnar read model of the product catalog (CQRS read side).
+ * <p>
+ * Every attribute lives in its own primitive array indexed by row; rows are kept sorted by id so
+ * lookups are binary searches and no boxed per-product objects exist. Nullable doubles are NaN,
+ * timestamps are epoch microseconds and repeated strings are canonicalized through a
+ * {@link StringPool}. Like the database, the model keeps the Turkish search form of name and
+ * description and the name's collation key, so text search and name sorting match the database
+ * fallback exactly. A row costs roughly 90 bytes of columns plus its strings: sku, name,
+ * description and image URL, the search text (name and description again, normalized, so up to
+ * ~2 KB for a long description) and a collation key of a few bytes per name character. A managed
+ * {@code ProductEntity} with its boxed numbers and two {@code OffsetDateTime}s costs ~350 bytes
+ * plus the same strings.
+ * <p>
+ * The model is loaded once the application is ready and then kept current by the change events
+ * the write paths publish, applied after their transaction commits. Those are applied in the order
+ * their listeners get the write lock, which need not be commit order, so an update older than the
+ * row it would change is replaced by a re-read of the row. Deleted rows are tombstoned and
+ * squeezed out when they exceed a quarter of the model; the string pool is rebuilt from the live
+ * rows once it holds twice as many values as there are rows, dropping replaced names.
+ */
+@Slf4j
+@Component
+public class ProductReadModel {
+
+    private static final String SELECT_PRODUCTS =
+            "SELECT id, sku, name, description, price, currency, in_stock, image_url, discount_percent, " +
+            "rating, category_id, created_at, updated_at FROM products";
+    private static final String SELECT_CATEGORIES = "SELECT id, name FROM categories";
+
+    private static final byte IN_STOCK = 1;
+    private static final byte DELETED = 2;
+    private static final int INITIAL_CAPACITY = 1024;
+    private static final int MIN_TOMBSTONES_TO_COMPACT = 1024;
+    private static final int MIN_POOL_SIZE_TO_REBUILD = 1024;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final FxRates fxRates;
+    private final boolean enabled;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private volatile boolean ready;
+
+    // ---------- Columns (guarded by lock) ----------
+    private int size;
+    private int tombstones;
+    private long[] ids = new long[INITIAL_CAPACITY];
+    private byte[] flags = new byte[INITIAL_CAPACITY];
+    private double[] prices = new double[INITIAL_CAPACITY];
+    private double[] discounts = new double[INITIAL_CAPACITY];
+    private double[] ratings = new double[INITIAL_CAPACITY];
+    private long[] categoryIds = new long[INITIAL_CAPACITY];
+    private long[] createdAtMicros = new long[INITIAL_CAPACITY];
+    private long[] updatedAtMicros = new long[INITIAL_CAPACITY];
+    private String[] skus = new String[INITIAL_CAPACITY];
+    private String[] names = new String[INITIAL_CAPACITY];
+    private String[] descriptions = new String[INITIAL_CAPACITY];
+    private String[] currencies = new String[INITIAL_CAPACITY];
+    private String[] imageUrls = new String[INITIAL_CAPACITY];
+    private String[] searchTexts = new String[INITIAL_CAPACITY];
+    private byte[][] nameSortKeys = new byte[INITIAL_CAPACITY][];
+    private final StringPool pool = new StringPool();
+    private final Map<Long, String> categoryNames = new HashMap<>();
+
+    public ProductReadModel(JdbcTemplate jdbcTemplate, FxRates fxRates,
+                            @Value("${ecommerce.read-model.enabled:true}") boolean enabled) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.fxRates = fxRates;
+        this.enabled = enabled;
+    }
+
+    /**
+     * Build the model from the database once startup (including any snapshot restore) is done, and
+     * again on a cache flush
+     */
+    @EventListener({ApplicationReadyEvent.class, CacheFlushEvent.class})
+    public void load() {
+        if (!enabled) {
+            return;
+        }
+        long start = System.nanoTime();
+        lock.writeLock().lock();
+        try {
+            // Start over: events applied before the load are superseded by it
+            size = 0;
+            tombstones = 0;
+            pool.clear();
+            categoryNames.clear();
+            jdbcTemplate.query(SELECT_CATEGORIES, rs -> {
+                categoryNames.put(rs.getLong("id"), rs.getString("name"));
+            });
+            jdbcTemplate.query(SELECT_PRODUCTS + " ORDER BY id", rs -> {
+                int row = insertRow(rs.getLong("id"));
+                readRow(row, rs);
+            });
+            ready = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.info("Product read model loaded {} products in {} ms", size, (System.nanoTime() - start) / 1_000_000);
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    // ---------- Queries ----------
+
+    /**
+     * Filter, sort and page the catalog like {@code ProductListingRepository.findContentMatching}
+     * (the query, if any, in search form).
+     * Empty when the model is not loaded or the requested sort is not supported, in which case the
+     * caller falls back to the database.
+     */
+    public Optional<Page<ProductV3>> findPage(ProductFilter filter, Pageable pageable) {
+        if (!ready) {
+            return Optional.empty();
+        }
+        lock.readLock().lock();
+        try {
+            RowComparator comparator = comparatorFor(pageable.getSort());
+            if (comparator == null) {
+                return Optional.empty();
+            }
+
+            int[] matches = IntStream.range(0, size)
+                    .filter(row -> matches(row, filter))
+                    .toArray();
+            int total = matches.length;
+            // Rows are stored in id order, so the default ordering needs no sort; otherwise only the
+            // rows up to the end of the page are selected and ordered
+            if (pageable.getSort().isSorted()) {
+                long pageEnd = pageable.getOffset() + pageable.getPageSize();
+                matches = comparator.first(matches, (int) Math.min(pageEnd, total));
+            }
+
+            int from = (int) Math.min(pageable.getOffset(), matches.length);
+            int to = Math.min(from + pageable.getPageSize(), matches.length);
+            List<ProductV3> items = new ArrayList<>(to - from);
+            for (int i = from; i < to; i++) {
+                items.add(toProductV3(matches[i]));
+            }
+            return Optional.of(new PageImpl<>(items, pageable, total));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Look up products by id. Ids the model does not hold are left out of the result (the caller
+     * should check the database for them, since a just-committed create may not be applied yet);
+     * empty when the model is not loaded.
+     */
+    public Optional<Map<Long, ProductV3>> findByIds(Collection<Long> productIds) {
+        if (!ready) {
+            return Optional.empty();
+        }
+        lock.readLock().lock();
+        try {
+            Map<Long, ProductV3> found = new HashMap<>(productIds.size() * 2);
+            for (Long id : productIds) {
+                int row = findRow(id);
+                if (row >= 0 && (flags[row] & DELETED) == 0) {
+                    found.put(id, toProductV3(row));
+                }
+            }
+            return Optional.of(found);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Walk the categories and live products under the read lock, for indexes derived from the
+     * model. False (and nothing visited) when the model is not loaded.
+     */
+    boolean visit(CatalogVisitor visitor) {
+        if (!ready) {
+            return false;
+        }
+        lock.readLock().lock();
+        try {
+            categoryNames.forEach(visitor::category);
+            for (int row = 0; row < size; row++) {
+                if ((flags[row] & DELETED) == 0) {
+                    visitor.product(ids[row], names[row], ratings[row], categoryIds[row]);
+                }
+            }
+            return true;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Visit the given live products under the read lock, for incremental updates of derived indexes;
+     * ids the model does not hold are skipped. False (and nothing visited) when the model is not loaded.
+     */
+    boolean visitProducts(Collection<Long> productIds, CatalogVisitor visitor) {
+        if (!ready) {
+            return false;
+        }
+        lock.readLock().lock();
+        try {
+            for (Long id : productIds) {
+                int row = findRow(id);
+                if (row >= 0 && (flags[row] & DELETED) == 0) {
+                    visitor.product(ids[row], names[row], ratings[row], categoryIds[row]);
+                }
+            }
+            return true;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Receives the catalog from {@link #visit} and {@link #visitProducts}; a missing rating is NaN
+     */
+    interface CatalogVisitor {
+        void category(long id, String name);
+
+        void product(long id, String name, double rating, long categoryId);
+    }
+
+    private boolean matches(int row, ProductFilter filter) {
+        if ((flags[row] & DELETED) != 0) {
+            return false;
+        }
+        if (filter.categoryId() != null && categoryIds[row] != filter.categoryId()) {
+            return false;
+        }
+        if (filter.hasPriceBounds() && !filter.matchesPrices(effectivePrice(row), normalizedPrice(row))) {
+            return false;
+        }
+        return filter.query() == null || searchTexts[row].contains(filter.query());
+    }
+
+    /**
+     * Comparator over row indexes for the given sort, or null if a property is not supported.
+     * Nulls sort first ascending (last descending) like H2 unless the order asks for nulls first or
+     * last; ties are broken by id.
+     */
+    private RowComparator comparatorFor(Sort sort) {
+        RowComparator comparator = null;
+        for (Sort.Order order : sort) {
+            RowComparator next = switch (order.getProperty()) {
+                case "id" -> (a, b) -> Long.compare(ids[a], ids[b]);
+                case "sku" -> (a, b) -> compareNullable(skus[a], skus[b]);
+                case "name", "nameSortKey" -> (a, b) -> Arrays.compareUnsigned(nameSortKeys[a], nameSortKeys[b]);
+                case "description" -> (a, b) -> compareNullable(descriptions[a], descriptions[b]);
+                case "price" -> (a, b) -> Double.compare(prices[a], prices[b]);
+                case "effectivePrice" -> (a, b) -> Double.compare(effectivePrice(a), effectivePrice(b));
+                case "normalizedPrice" -> (a, b) -> compareNullable(normalizedPrice(a), normalizedPrice(b));
+                case "currency" -> (a, b) -> currencies[a].compareTo(currencies[b]);
+                case "inStock" -> (a, b) -> Integer.compare(flags[a] & IN_STOCK, flags[b] & IN_STOCK);
+                case "imageUrl" -> (a, b) -> compareNullable(imageUrls[a], imageUrls[b]);
+                case "discountPercent" -> (a, b) -> compareNullable(discounts[a], discounts[b]);
+                case "rating" -> (a, b) -> compareNullable(ratings[a], ratings[b]);
+                case "createdAt" -> (a, b) -> Long.compare(createdAtMicros[a], createdAtMicros[b]);
+                case "updatedAt" -> (a, b) -> Long.compare(updatedAtMicros[a], updatedAtMicros[b]);
+                default -> null;
+            };
+            if (next == null) {
+                return null;
+            }
+            if (order.isDescending()) {
+                next = next.reversed();
+            }
+            if (order.getNullHandling() != Sort.NullHandling.NATIVE) {
+                next = next.withNulls(nullTest(order.getProperty()),
+                        order.getNullHandling() == Sort.NullHandling.NULLS_LAST);
+            }
+            comparator = comparator == null ? next : comparator.thenComparing(next);
+        }
+        RowComparator byId = (a, b) -> Long.compare(ids[a], ids[b]);
+        return comparator == null ? byId : comparator.thenComparing(byId);
+    }
+
+    /**
+     * Rows whose value of a sort property is null; no row for properties that are never null
+     */
+    private IntPredicate nullTest(String property) {
+        return switch (property) {
+            case "sku" -> row -> skus[row] == null;
+            case "description" -> row -> descriptions[row] == null;
+            case "normalizedPrice" -> row -> normalizedPrice(row) == null;
+            case "imageUrl" -> row -> imageUrls[row] == null;
+            case "discountPercent" -> row -> Double.isNaN(discounts[row]);
+            case "rating" -> row -> Double.isNaN(ratings[row]);
+            default -> row -> false;
+        };
+    }
+
+    private double effectivePrice(int row) {
+        return ProductEntity.effectivePrice(prices[row], Double.isNaN(discounts[row]) ? null : discounts[row]);
+    }
+
+    /**
+     * Price in the base currency at the current rates; null without a rate
+     */
+    private Double normalizedPrice(int row) {
+        return fxRates.normalize(prices[row], currencies[row]);
+    }
+
+    private static int compareNullable(Double a, Double b) {
+        return compareNullable(a != null ? a : Double.NaN, b != null ? b : Double.NaN);
+    }
+
+    private static int compareNullable(String a, String b) {
+        if (a == null || b == null) {
+            return a == null ? (b == null ? 0 : -1) : 1;
+        }
+        return a.compareTo(b);
+    }
+
+    private static int compareNullable(double a, double b) {
+        if (Double.isNaN(a) || Double.isNaN(b)) {
+            return Double.isNaN(a) ? (Double.isNaN(b) ? 0 : -1) : 1;
+        }
+        return Double.compare(a, b);
+    }
+
+    private ProductV3 toProductV3(int row) {
+        // All-args constructors take the fields in declaration order
+        return new ProductV3(
+                String.valueOf(ids[row]),
+                skus[row],
+                names[row],
+                descriptions[row],
+                prices[row],
+                currencies[row],
+                (flags[row] & IN_STOCK) != 0,
+                imageUrls[row],
+                Double.isNaN(discounts[row]) ? null : discounts[row],
+                Double.isNaN(ratings[row]) ? null : ratings[row],
+                new CategoryRefV3(String.valueOf(categoryIds[row]), categoryNames.get(categoryIds[row])),
+                fromMicros(createdAtMicros[row]),
+                fromMicros(updatedAtMicros[row]));
+    }
+
+    // ---------- Change events ----------
+
+    @TransactionalEventListener
+    public void onProductChanged(ProductChangedEvent event) {
+        if (!enabled) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            int row = findRow(event.productId());
+            if (event.type() == ChangeType.DELETED) {
+                if (row >= 0 && (flags[row] & DELETED) == 0) {
+                    tombstone(row);
+                }
+                return;
+            }
+            boolean present = row >= 0 && (flags[row] & DELETED) == 0;
+            if (!present && event.type() == ChangeType.CREATED && row < 0) {
+                row = insertRow(event.productId());
+            } else if (!present || isOlderThanRow(event, row)) {
+                // A partial update of a row we never saw, a create of a row deleted meanwhile or a
+                // change overtaken by a later commit: take the committed row from the database
+                reloadRow(event.productId());
+                return;
+            }
+            for (Map.Entry<String, Object> change : event.changes().entrySet()) {
+                applyChange(row, change.getKey(), change.getValue());
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @TransactionalEventListener
+    public void onCategoryChanged(CategoryChangedEvent event) {
+        lock.writeLock().lock();
+        try {
+            if (event.type() == ChangeType.DELETED) {
+                categoryNames.remove(event.categoryId());
+            } else {
+                categoryNames.put(event.categoryId(), event.name());
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Whether a change was made before the row's current state, i.e. its commit was applied late
+     */
+    private boolean isOlderThanRow(ProductChangedEvent event, int row) {
+        Object updatedAt = event.changes().get(ProductChangedEvent.UPDATED_AT);
+        return updatedAt != null && toMicros((OffsetDateTime) updatedAt) < updatedAtMicros[row];
+    }
+
+    /**
+     * Replace the row with the database's, or tombstone it if the product is gone
+     */
+    private void reloadRow(Long productId) {
+        boolean[] found = {false};
+        jdbcTemplate.query(SELECT_PRODUCTS + " WHERE id = ?", rs -> {
+            int row = findRow(productId);
+            if (row < 0) {
+                row = insertRow(productId);
+            } else if ((flags[row] & DELETED) != 0) {
+                revive(row);
+            }
+            readRow(row, rs);
+            found[0] = true;
+        }, productId);
+        int row = findRow(productId);
+        if (!found[0] && row >= 0 && (flags[row] & DELETED) == 0) {
+            tombstone(row);
+        }
+    }
+
+    private void applyChange(int row, String field, Object value) {
+        switch (field) {
+            case ProductChangedEvent.SKU -> skus[row] = (String) value;
+            case ProductChangedEvent.NAME -> {
+                names[row] = pool.intern((String) value);
+                updateSearchKeys(row);
+                rebuildPoolIfStale();
+            }
+            case ProductChangedEvent.DESCRIPTION -> {
+                descriptions[row] = (String) value;
+                updateSearchKeys(row);
+            }
+            case ProductChangedEvent.PRICE -> prices[row] = (Double) value;
+            case ProductChangedEvent.CURRENCY -> currencies[row] = pool.intern((String) value);
+            case ProductChangedEvent.IN_STOCK -> setInStock(row, Boolean.TRUE.equals(value));
+            case ProductChangedEvent.IMAGE_URL -> imageUrls[row] = (String) value;
+            case ProductChangedEvent.DISCOUNT_PERCENT -> discounts[row] = value != null ? (Double) value : Double.NaN;
+            case ProductChangedEvent.RATING -> ratings[row] = value != null ? (Double) value : Double.NaN;
+            case ProductChangedEvent.CATEGORY_ID -> categoryIds[row] = value != null ? (Long) value : 0L;
+            case ProductChangedEvent.CREATED_AT -> createdAtMicros[row] = toMicros((OffsetDateTime) value);
+            case ProductChangedEvent.UPDATED_AT -> updatedAtMicros[row] = toMicros((OffsetDateTime) value);
+            default -> log.debug("Read model ignores product field {}", field);
+        }
+    }
+
+    private void readRow(int row, ResultSet rs) throws SQLException {
+        skus[row] = rs.getString("sku");
+        names[row] = pool.intern(rs.getString("name"));
+        descriptions[row] = rs.getString("description");
+        prices[row] = rs.getDouble("price");
+        currencies[row] = pool.intern(rs.getString("currency"));
+        setInStock(row, rs.getBoolean("in_stock"));
+        imageUrls[row] = rs.getString("image_url");
+        discounts[row] = nullableDouble(rs, "discount_percent");
+        ratings[row] = nullableDouble(rs, "rating");
+        categoryIds[row] = rs.getLong("category_id");
+        createdAtMicros[row] = toMicros(rs.getObject("created_at", OffsetDateTime.class));
+        updatedAtMicros[row] = toMicros(rs.getObject("updated_at", OffsetDateTime.class));
+        updateSearchKeys(row);
+    }
+
+    /**
+     * Recompute the derived search columns; name and description are joined by a newline, which a
+     * normalized query never contains, so one contains() cannot match across the two
+     */
+    private void updateSearchKeys(int row) {
+        searchTexts[row] = TurkishTextNormalizer.normalize(names[row]) + '\n'
+                + TurkishTextNormalizer.normalize(descriptions[row]);
+        nameSortKeys[row] = TurkishTextNormalizer.sortKey(names[row]);
+    }
+
+    // ---------- Row storage ----------
+
+    private int findRow(long id) {
+        return Arrays.binarySearch(ids, 0, size, id);
+    }
+
+    /**
+     * Insert an empty row for {@code id} at its sorted position (an append for new identity ids)
+     */
+    private int insertRow(long id) {
+        ensureCapacity(size + 1);
+        int row = size;
+        if (size > 0 && ids[size - 1] > id) {
+            row = -(findRow(id) + 1);
+            shift(row, row + 1, size - row);
+        }
+        size++;
+        ids[row] = id;
+        flags[row] = 0;
+        discounts[row] = Double.NaN;
+        ratings[row] = Double.NaN;
+        return row;
+    }
+
+    private int revive(int row) {
+        flags[row] = 0;
+        tombstones--;
+        return row;
+    }
+
+    private void tombstone(int row) {
+        flags[row] = DELETED;
+        skus[row] = null;
+        names[row] = null;
+        descriptions[row] = null;
+        currencies[row] = null;
+        imageUrls[row] = null;
+        searchTexts[row] = null;
+        nameSortKeys[row] = null;
+        if (++tombstones >= MIN_TOMBSTONES_TO_COMPACT && tombstones * 4 > size) {
+            compact();
+        }
+    }
+
+    /**
+     * Rebuild the string pool from the live rows once replaced names make up half of it
+     */
+    private void rebuildPoolIfStale() {
+        int live = size - tombstones;
+        if (pool.size() < MIN_POOL_SIZE_TO_REBUILD || pool.size() <= 2 * live) {
+            return;
+        }
+        pool.clear();
+        for (int row = 0; row < size; row++) {
+            if ((flags[row] & DELETED) == 0) {
+                names[row] = pool.intern(names[row]);
+                currencies[row] = pool.intern(currencies[row]);
+            }
+        }
+    }
+
+    private void setInStock(int row, boolean inStock) {
+        flags[row] = (byte) (inStock ? flags[row] | IN_STOCK : flags[row] & ~IN_STOCK);
+    }
+
+    /**
+     * Squeeze out tombstoned rows and rebuild the string pool from the surviving rows
+     */
+    private void compact() {
+        pool.clear();
+        int live = 0;
+        for (int row = 0; row < size; row++) {
+            if ((flags[row] & DELETED) != 0) {
+                continue;
+            }
+            if (live != row) {
+                shift(row, live, 1);
+            }
+            names[live] = pool.intern(names[live]);
+            currencies[live] = pool.intern(currencies[live]);
+            live++;
+        }
+        for (int row = live; row < size; row++) {
+            skus[row] = names[row] = descriptions[row] = currencies[row] = imageUrls[row] = searchTexts[row] = null;
+            nameSortKeys[row] = null;
+        }
+        log.debug("Compacted product read model from {} to {} rows", size, live);
+        size = live;
+        tombstones = 0;
+    }
+
+    private void shift(int from, int to, int length) {
+        System.arraycopy(ids, from, ids, to, length);
+        System.arraycopy(flags, from, flags, to, length);
+        System.arraycopy(prices, from, prices, to, length);
+        System.arraycopy(discounts, from, discounts, to, length);
+        System.arraycopy(ratings, from, ratings, to, length);
+        System.arraycopy(categoryIds, from, categoryIds, to, length);
+        System.arraycopy(createdAtMicros, from, createdAtMicros, to, length);
+        System.arraycopy(updatedAtMicros, from, updatedAtMicros, to, length);
+        System.arraycopy(skus, from, skus, to, length);
+        System.arraycopy(names, from, names, to, length);
+        System.arraycopy(descriptions, from, descriptions, to, length);
+        System.arraycopy(currencies, from, currencies, to, length);
+        System.arraycopy(imageUrls, from, imageUrls, to, length);
+        System.arraycopy(searchTexts, from, searchTexts, to, length);
+        System.arraycopy(nameSortKeys, from, nameSortKeys, to, length);
+    }
+
+    private void ensureCapacity(int required) {
+        if (required <= ids.length) {
+            return;
+        }
+        int capacity = Math.max(required, ids.length * 2);
+        ids = Arrays.copyOf(ids, capacity);
+        flags = Arrays.copyOf(flags, capacity);
+        prices = Arrays.copyOf(prices, capacity);
+        discounts = Arrays.copyOf(discounts, capacity);
+        ratings = Arrays.copyOf(ratings, capacity);
+        categoryIds = Arrays.copyOf(categoryIds, capacity);
+        createdAtMicros = Arrays.copyOf(createdAtMicros, capacity);
+        updatedAtMicros = Arrays.copyOf(updatedAtMicros, capacity);
+        skus = Arrays.copyOf(skus, capacity);
+        names = Arrays.copyOf(names, capacity);
+        descriptions = Arrays.copyOf(descriptions, capacity);
+        currencies = Arrays.copyOf(currencies, capacity);
+        imageUrls = Arrays.copyOf(imageUrls, capacity);
+        searchTexts = Arrays.copyOf(searchTexts, capacity);
+        nameSortKeys = Arrays.copyOf(nameSortKeys, capacity);
+    }
+
+    // ---------- Conversions ----------
+
+    private static double nullableDouble(ResultSet rs, String column) throws SQLException {
+        double value = rs.getDouble(column);
+        return rs.wasNull() ? Double.NaN : value;
+    }
+
+    private static long toMicros(OffsetDateTime value) {
+        return value != null ? ChronoUnit.MICROS.between(Instant.EPOCH, value.toInstant()) : 0L;
+    }
+
+    private static OffsetDateTime fromMicros(long micros) {
+        return Instant.EPOCH.plus(micros, ChronoUnit.MICROS).atOffset(ZoneOffset.UTC);
+    }
+}
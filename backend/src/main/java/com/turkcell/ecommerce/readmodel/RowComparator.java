@@ -0,0 +1,89 @@
+package com.turkcell.ecommerce.readmodel;
+
+import java.util.function.IntPredicate;
+
+/**
+ * Ordering of read model rows by index, without boxing.
+ */
+@FunctionalInterface
+interface RowComparator {
+
+    int compare(int a, int b);
+
+    default RowComparator reversed() {
+        return (a, b) -> compare(b, a);
+    }
+
+    /**
+     * This order with the rows {@code isNull} accepts placed first or last, in either direction
+     */
+    default RowComparator withNulls(IntPredicate isNull, boolean nullsLast) {
+        int nullFirst = nullsLast ? 1 : -1;
+        return (a, b) -> {
+            boolean aNull = isNull.test(a);
+            boolean bNull = isNull.test(b);
+            if (aNull || bNull) {
+                return aNull == bNull ? 0 : aNull ? nullFirst : -nullFirst;
+            }
+            return compare(a, b);
+        };
+    }
+
+    default RowComparator thenComparing(RowComparator next) {
+        return (a, b) -> {
+            int result = compare(a, b);
+            return result != 0 ? result : next.compare(a, b);
+        };
+    }
+
+    /**
+     * The first {@code count} of the rows in this order, sorted. Keeps a max-heap of the best
+     * {@code count} seen so far, so it costs O(n log count) time and one array of at most
+     * {@code count} rows; the input is not modified.
+     */
+    default int[] first(int[] rows, int count) {
+        int k = Math.min(count, rows.length);
+        if (k == 0) {
+            return new int[0];
+        }
+        int[] heap = new int[k];
+        System.arraycopy(rows, 0, heap, 0, k);
+        for (int i = k / 2 - 1; i >= 0; i--) {
+            siftDown(heap, i, k);
+        }
+        for (int i = k; i < rows.length; i++) {
+            // The root is the worst row kept
+            if (compare(rows[i], heap[0]) < 0) {
+                heap[0] = rows[i];
+                siftDown(heap, 0, k);
+            }
+        }
+        // Heap sort: move the worst to the end until the heap is empty
+        for (int end = k - 1; end > 0; end--) {
+            int worst = heap[0];
+            heap[0] = heap[end];
+            heap[end] = worst;
+            siftDown(heap, 0, end);
+        }
+        return heap;
+    }
+
+    private void siftDown(int[] heap, int index, int length) {
+        int row = heap[index];
+        while (true) {
+            int child = 2 * index + 1;
+            if (child >= length) {
+                break;
+            }
+            if (child + 1 < length && compare(heap[child + 1], heap[child]) > 0) {
+                child++;
+            }
+            if (compare(heap[child], row) <= 0) {
+                break;
+            }
+            heap[index] = heap[child];
+            index = child;
+        }
+        heap[index] = row;
+    }
+}
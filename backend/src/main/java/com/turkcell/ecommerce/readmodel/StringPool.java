@@ -0,0 +1,64 @@
+package com.turkcell.ecommerce.readmodel;
+
+/**
+ * Canonicalizes repeated strings (product names, currencies) so equal values share one instance.
+ * Open addressing over a plain array keeps the overhead to one reference slot per distinct value.
+ * Not thread-safe; callers synchronize.
+ */
+final class StringPool {
+
+    private static final int INITIAL_CAPACITY = 1024;
+
+    private String[] table = new String[INITIAL_CAPACITY];
+    private int count;
+
+    /**
+     * Return the pooled instance equal to {@code value}, adding it if absent
+     */
+    String intern(String value) {
+        if (value == null) {
+            return null;
+        }
+        int mask = table.length - 1;
+        int slot = spread(value.hashCode()) & mask;
+        String existing;
+        while ((existing = table[slot]) != null) {
+            if (existing.equals(value)) {
+                return existing;
+            }
+            slot = (slot + 1) & mask;
+        }
+        table[slot] = value;
+        if (++count * 4 > table.length * 3) {
+            resize(table.length * 2);
+        }
+        return value;
+    }
+
+    int size() {
+        return count;
+    }
+
+    /**
+     * Drop every pooled value (used when the owning model compacts and re-interns its live rows)
+     */
+    void clear() {
+        table = new String[INITIAL_CAPACITY];
+        count = 0;
+    }
+
+    private void resize(int capacity) {
+        String[] old = table;
+        table = new String[capacity];
+        count = 0;
+        for (String value : old) {
+            if (value != null) {
+                intern(value);
+            }
+        }
+    }
+
+    private static int spread(int hash) {
+        return hash ^ (hash >>> 16);
+    }
+}
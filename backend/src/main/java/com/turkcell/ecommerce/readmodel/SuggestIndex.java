@@ -0,0 +1,315 @@
+package com.turkcell.ecommerce.readmodel;
+
+import com.turkcell.ecommerce.dto.v3.CategoryRefV3;
+import com.turkcell.ecommerce.dto.v3.CategorySuggestionV3;
+import com.turkcell.ecommerce.dto.v3.ProductSuggestionV3;
+import com.turkcell.ecommerce.dto.v3.SuggestResponseV3;
+import com.turkcell.ecommerce.event.CacheFlushEvent;
+import com.turkcell.ecommerce.event.CategoryChangedEvent;
+import com.turkcell.ecommerce.event.ChangeType;
+import com.turkcell.ecommerce.event.ProductChangedEvent;
+import com.turkcell.ecommerce.search.TurkishTextNormalizer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Typeahead index over product and category names, derived from the {@link ProductReadModel}.
+ * <p>
+ * Queries read an immutable snapshot and never touch the database. A snapshot is a prefix index
+ * built from the whole read model plus a small overlay of the products changed since: their current
+ * name, rating and category, or nothing if they were deleted. Lookups leave the overlaid products
+ * out of the index results and match the overlay by scanning it, so a product change costs a read
+ * of that product on the next refresh instead of a rebuild. The index is rebuilt once the overlay
+ * holds more than {@code max-overlay-size} products, and on category changes and cache flushes.
+ * Suggestions trail writes by at most the refresh interval; categories are ranked by their product
+ * counts as of the last rebuild, while the counts shown are current.
+ */
+@Slf4j
+@Component
+public class SuggestIndex {
+
+    private static final Set<String> INDEXED_FIELDS = Set.of(
+            ProductChangedEvent.NAME, ProductChangedEvent.RATING, ProductChangedEvent.CATEGORY_ID);
+
+    private final ProductReadModel readModel;
+    private final int maxOverlaySize;
+    private final AtomicBoolean stale = new AtomicBoolean(true);
+    private final Set<Long> changedProducts = ConcurrentHashMap.newKeySet();
+    private volatile Snapshot snapshot;
+
+    public SuggestIndex(ProductReadModel readModel,
+                        @Value("${ecommerce.suggest.max-overlay-size:1000}") int maxOverlaySize) {
+        this.readModel = readModel;
+        this.maxOverlaySize = maxOverlaySize;
+    }
+
+    /**
+     * Suggestions for a raw prefix; empty until the first build (e.g. while the read model loads)
+     */
+    public Optional<SuggestResponseV3> suggest(String prefix, int limit) {
+        Snapshot current = snapshot;
+        if (current == null) {
+            return Optional.empty();
+        }
+        String normalized = TurkishTextNormalizer.normalize(prefix);
+        if (normalized.isEmpty()) {
+            return Optional.of(new SuggestResponseV3(normalized, List.of(), List.of()));
+        }
+
+        Overlay overlay = current.overlay;
+        int[] categoryMatches = current.categories.lookup(normalized, limit);
+        List<CategorySuggestionV3> categories = new ArrayList<>(categoryMatches.length);
+        for (int i : categoryMatches) {
+            long categoryId = current.categoryIds[i];
+            categories.add(new CategorySuggestionV3(String.valueOf(categoryId), current.categoryNames[i],
+                    current.categoryCounts[i] + overlay.countDeltas.getOrDefault(categoryId, 0L)));
+        }
+
+        // Index matches without the overlaid products, merged with the overlay's matches by score
+        int[] indexMatches = current.products.lookup(normalized, limit, overlay.replaced::get);
+        List<OverlayProduct> overlayMatches = overlay.matching(normalized);
+        List<ProductSuggestionV3> products = new ArrayList<>(Math.min(limit, indexMatches.length + overlayMatches.size()));
+        int i = 0;
+        int o = 0;
+        while (products.size() < limit && (i < indexMatches.length || o < overlayMatches.size())) {
+            if (o == overlayMatches.size() || i < indexMatches.length
+                    && score(current.productRatings[indexMatches[i]]) >= score(overlayMatches.get(o).rating())) {
+                int index = indexMatches[i++];
+                products.add(suggestion(current, current.productIds[index], current.productNames[index],
+                        current.productRatings[index], current.productCategoryIds[index]));
+            } else {
+                OverlayProduct product = overlayMatches.get(o++);
+                products.add(suggestion(current, product.id(), product.name(), product.rating(), product.categoryId()));
+            }
+        }
+        return Optional.of(new SuggestResponseV3(normalized, categories, products));
+    }
+
+    private static ProductSuggestionV3 suggestion(Snapshot snapshot, long id, String name, double rating,
+                                                  long categoryId) {
+        return new ProductSuggestionV3(
+                String.valueOf(id),
+                name,
+                Double.isNaN(rating) ? null : rating,
+                new CategoryRefV3(String.valueOf(categoryId), snapshot.categoryNamesById.get(categoryId)));
+    }
+
+    /**
+     * Ranking score of a product: its rating, unrated ones last
+     */
+    private static double score(double rating) {
+        return Double.isNaN(rating) ? 0 : rating;
+    }
+
+    @TransactionalEventListener
+    public void onProductChanged(ProductChangedEvent event) {
+        if (event.type() != ChangeType.UPDATED
+                || event.changes().keySet().stream().anyMatch(INDEXED_FIELDS::contains)) {
+            changedProducts.add(event.productId());
+        }
+    }
+
+    @TransactionalEventListener
+    public void onCategoryChanged(CategoryChangedEvent event) {
+        stale.set(true);
+    }
+
+    @EventListener(CacheFlushEvent.class)
+    public void onCacheFlush() {
+        stale.set(true);
+    }
+
+    /**
+     * Rebuild the snapshot if categories changed or the overlay grew too large, otherwise overlay the
+     * products changed since the last refresh
+     */
+    @Scheduled(fixedDelayString = "${ecommerce.suggest.refresh-interval-ms:500}")
+    public void refresh() {
+        Snapshot current = snapshot;
+        if (!stale.getAndSet(false)) {
+            if (current == null || changedProducts.isEmpty()) {
+                return;
+            }
+            List<Long> changed = new ArrayList<>(changedProducts);
+            changedProducts.removeAll(changed);
+            Map<Long, OverlayProduct> changes = readProducts(changed);
+            Overlay overlay = changes == null ? null : current.overlay.with(changes, current);
+            if (overlay != null && overlay.products.size() <= maxOverlaySize) {
+                snapshot = current.withOverlay(overlay);
+                return;
+            }
+        }
+        // The build reads every change made so far, including those of the products noted until now
+        changedProducts.clear();
+        long start = System.nanoTime();
+        Snapshot rebuilt = build();
+        if (rebuilt == null) {
+            // Read model not loaded yet
+            stale.set(true);
+            return;
+        }
+        snapshot = rebuilt;
+        log.debug("Rebuilt suggest index over {} products in {} ms",
+                rebuilt.productIds.length, (System.nanoTime() - start) / 1_000_000);
+    }
+
+    /**
+     * Current state of the given products, null for deleted ones; null if the read model is not loaded
+     */
+    private Map<Long, OverlayProduct> readProducts(Collection<Long> productIds) {
+        Map<Long, OverlayProduct> products = new HashMap<>();
+        productIds.forEach(id -> products.put(id, null));
+        boolean loaded = readModel.visitProducts(productIds, new ProductReadModel.CatalogVisitor() {
+            @Override
+            public void category(long id, String name) {
+            }
+
+            @Override
+            public void product(long id, String name, double rating, long categoryId) {
+                products.put(id, new OverlayProduct(id, name, TurkishTextNormalizer.normalize(name), rating, categoryId));
+            }
+        });
+        return loaded ? products : null;
+    }
+
+    private Snapshot build() {
+        Map<Long, String> categoryNamesById = new HashMap<>();
+        List<long[]> products = new ArrayList<>();
+        List<String> productNames = new ArrayList<>();
+        List<Double> productRatings = new ArrayList<>();
+        boolean loaded = readModel.visit(new ProductReadModel.CatalogVisitor() {
+            @Override
+            public void category(long id, String name) {
+                categoryNamesById.put(id, name);
+            }
+
+            @Override
+            public void product(long id, String name, double rating, long categoryId) {
+                products.add(new long[]{id, categoryId});
+                productNames.add(name);
+                productRatings.add(rating);
+            }
+        });
+        if (!loaded) {
+            return null;
+        }
+
+        int productCount = products.size();
+        long[] productIds = new long[productCount];
+        long[] productCategoryIds = new long[productCount];
+        double[] ratings = new double[productCount];
+        double[] productScores = new double[productCount];
+        Map<Long, Long> countsByCategory = new HashMap<>();
+        for (int i = 0; i < productCount; i++) {
+            productIds[i] = products.get(i)[0];
+            productCategoryIds[i] = products.get(i)[1];
+            ratings[i] = productRatings.get(i);
+            productScores[i] = Double.isNaN(ratings[i]) ? 0 : ratings[i];
+            countsByCategory.merge(productCategoryIds[i], 1L, Long::sum);
+        }
+
+        int categoryCount = categoryNamesById.size();
+        long[] categoryIds = new long[categoryCount];
+        String[] categoryNames = new String[categoryCount];
+        long[] categoryCounts = new long[categoryCount];
+        double[] categoryScores = new double[categoryCount];
+        int c = 0;
+        for (Map.Entry<Long, String> category : categoryNamesById.entrySet()) {
+            categoryIds[c] = category.getKey();
+            categoryNames[c] = category.getValue();
+            categoryCounts[c] = countsByCategory.getOrDefault(category.getKey(), 0L);
+            categoryScores[c] = categoryCounts[c];
+            c++;
+        }
+
+        String[] names = productNames.toArray(String[]::new);
+        return new Snapshot(
+                new PrefixIndex(names, productScores, SuggestResponseV3.MAX_LIMIT),
+                productIds, names, ratings, productCategoryIds,
+                new PrefixIndex(categoryNames, categoryScores, SuggestResponseV3.MAX_LIMIT),
+                categoryIds, categoryNames, categoryCounts, categoryNamesById, Overlay.EMPTY);
+    }
+
+    /**
+     * @param productIds ascending, like the read model's rows
+     */
+    private record Snapshot(PrefixIndex products, long[] productIds, String[] productNames, double[] productRatings,
+                            long[] productCategoryIds, PrefixIndex categories, long[] categoryIds,
+                            String[] categoryNames, long[] categoryCounts, Map<Long, String> categoryNamesById,
+                            Overlay overlay) {
+
+        Snapshot withOverlay(Overlay overlay) {
+            return new Snapshot(products, productIds, productNames, productRatings, productCategoryIds, categories,
+                    categoryIds, categoryNames, categoryCounts, categoryNamesById, overlay);
+        }
+    }
+
+    /**
+     * Current state of products changed since the snapshot's index was built
+     *
+     * @param products    by id; null for deleted products
+     * @param replaced    index positions of the overlaid products, left out of index lookups
+     * @param countDeltas change of each category's product count since the build
+     */
+    private record Overlay(Map<Long, OverlayProduct> products, BitSet replaced, Map<Long, Long> countDeltas) {
+
+        static final Overlay EMPTY = new Overlay(Map.of(), new BitSet(), Map.of());
+
+        /**
+         * This overlay with the given products' current state (null for deleted ones) on top
+         */
+        Overlay with(Map<Long, OverlayProduct> changes, Snapshot snapshot) {
+            Map<Long, OverlayProduct> merged = new HashMap<>(products);
+            merged.putAll(changes);
+            BitSet replaced = new BitSet();
+            Map<Long, Long> countDeltas = new HashMap<>();
+            merged.forEach((id, product) -> {
+                int index = Arrays.binarySearch(snapshot.productIds, id);
+                if (index >= 0) {
+                    replaced.set(index);
+                    countDeltas.merge(snapshot.productCategoryIds[index], -1L, Long::sum);
+                }
+                if (product != null) {
+                    countDeltas.merge(product.categoryId(), 1L, Long::sum);
+                }
+            });
+            return new Overlay(merged, replaced, countDeltas);
+        }
+
+        /**
+         * Overlaid products with a word starting with the normalized prefix, best score first
+         */
+        List<OverlayProduct> matching(String prefix) {
+            if (products.isEmpty()) {
+                return List.of();
+            }
+            String wordStart = " " + prefix;
+            return products.values().stream()
+                    .filter(product -> product != null && (product.normalizedName().startsWith(prefix)
+                            || product.normalizedName().contains(wordStart)))
+                    .sorted(Comparator.comparingDouble((OverlayProduct product) -> score(product.rating())).reversed()
+                            .thenComparingLong(OverlayProduct::id))
+                    .toList();
+        }
+    }
+
+    private record OverlayProduct(long id, String name, String normalizedName, double rating, long categoryId) {
+    }
+}
@@ -0,0 +1,153 @@
+package com.turkcell.ecommerce.readmodel;
+
+import com.turkcell.ecommerce.event.CacheFlushEvent;
+import com.turkcell.ecommerce.event.ChangeType;
+import com.turkcell.ecommerce.event.ProductChangedEvent;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+
+/**
+ * Per-category leaderboard of the best rated in-stock products.
+ * <p>
+ * Each category keeps its rated, in-stock products in a skip list ordered by rating (highest first),
+ * then id, so the top K is the first K entries and reading it never touches the database. The lists
+ * are loaded once the application is ready and then updated from the change events that touch
+ * rating, category or stock; other writes cost nothing. Readers do not lock: while a product is
+ * being repositioned it can be briefly absent from its list.
+ */
+@Slf4j
+@Component
+public class TopRatedIndex {
+
+    private static final String SELECT_PRODUCTS = "SELECT id, category_id, rating, in_stock FROM products";
+
+    private static final Comparator<Entry> RANKING = Comparator.comparingDouble(Entry::rating).reversed()
+            .thenComparingLong(Entry::productId);
+
+    private record Entry(double rating, long productId) {
+    }
+
+    /**
+     * Ranking-relevant state of a product; listed when it has a rating and is in stock
+     */
+    private record Member(Long categoryId, Double rating, boolean inStock) {
+
+        boolean listed() {
+            return categoryId != null && rating != null && inStock;
+        }
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+    private final Map<Long, NavigableSet<Entry>> boards = new ConcurrentHashMap<>();
+    private volatile boolean ready;
+
+    // Writers only (guarded by this)
+    private final Map<Long, Member> members = new HashMap<>();
+
+    public TopRatedIndex(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Load the leaderboards once startup (including any snapshot restore) is done, and again on a
+     * cache flush
+     */
+    @EventListener({ApplicationReadyEvent.class, CacheFlushEvent.class})
+    public synchronized void load() {
+        // Start over: events applied before the load are superseded by it
+        boards.clear();
+        members.clear();
+        jdbcTemplate.query(SELECT_PRODUCTS, rs -> {
+            long productId = rs.getLong("id");
+            Member member = new Member(rs.getLong("category_id"), rs.getObject("rating", Double.class),
+                    rs.getBoolean("in_stock"));
+            members.put(productId, member);
+            list(productId, member);
+        });
+        ready = true;
+        log.info("Top rated index loaded {} products in {} categories", members.size(), boards.size());
+    }
+
+    /**
+     * Ids of the {@code limit} best rated in-stock products of a category, best first; empty while
+     * the index is not loaded
+     */
+    public Optional<List<Long>> top(Long categoryId, int limit) {
+        if (!ready) {
+            return Optional.empty();
+        }
+        NavigableSet<Entry> board = boards.get(categoryId);
+        if (board == null) {
+            return Optional.of(List.of());
+        }
+        List<Long> ids = new ArrayList<>(limit);
+        for (Entry entry : board) {
+            if (ids.size() == limit) {
+                break;
+            }
+            ids.add(entry.productId());
+        }
+        return Optional.of(ids);
+    }
+
+    @TransactionalEventListener
+    public synchronized void onProductChanged(ProductChangedEvent event) {
+        Long productId = event.productId();
+        if (event.type() == ChangeType.DELETED) {
+            unlist(productId);
+            members.remove(productId);
+            return;
+        }
+        Map<String, Object> changes = event.changes();
+        if (!changes.containsKey(ProductChangedEvent.RATING) && !changes.containsKey(ProductChangedEvent.CATEGORY_ID)
+                && !changes.containsKey(ProductChangedEvent.IN_STOCK)) {
+            return;
+        }
+        Member previous = members.getOrDefault(productId, new Member(null, null, false));
+        Member updated = new Member(
+                changes.containsKey(ProductChangedEvent.CATEGORY_ID)
+                        ? (Long) changes.get(ProductChangedEvent.CATEGORY_ID) : previous.categoryId(),
+                changes.containsKey(ProductChangedEvent.RATING)
+                        ? (Double) changes.get(ProductChangedEvent.RATING) : previous.rating(),
+                changes.containsKey(ProductChangedEvent.IN_STOCK)
+                        ? Boolean.TRUE.equals(changes.get(ProductChangedEvent.IN_STOCK)) : previous.inStock());
+        if (updated.equals(previous)) {
+            return;
+        }
+        unlist(productId);
+        members.put(productId, updated);
+        list(productId, updated);
+    }
+
+    private void list(long productId, Member member) {
+        if (member.listed()) {
+            boards.computeIfAbsent(member.categoryId(), id -> new ConcurrentSkipListSet<>(RANKING))
+                    .add(new Entry(member.rating(), productId));
+        }
+    }
+
+    private void unlist(Long productId) {
+        Member member = members.get(productId);
+        if (member == null || !member.listed()) {
+            return;
+        }
+        NavigableSet<Entry> board = boards.get(member.categoryId());
+        if (board != null) {
+            board.remove(new Entry(member.rating(), productId));
+        }
+    }
+}
@@ -2,6 +2,8 @@ package com.turkcell.ecommerce.repository;
 
 import com.turkcell.ecommerce.entity.CategoryEntity;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
 import java.util.Optional;
@@ -26,4 +28,13 @@ public interface CategoryRepository extends JpaRepository<CategoryEntity, Long>
      * Check if category exists by name excluding specific id (for update)
      */
     boolean existsByNameAndIdNot(String name, Long id);
+
+    /**
+     * Delete a category without loading it or its products
+     *
+     * @return number of deleted rows (0 or 1)
+     */
+    @Modifying
+    @Query("DELETE FROM CategoryEntity c WHERE c.id = :id")
+    int deleteCategoryById(Long id);
 }
@@ -0,0 +1,58 @@
+package com.turkcell.ecommerce.repository;
+
+import com.turkcell.ecommerce.entity.ProductEntity;
+import com.turkcell.ecommerce.search.ProductFilter;
+import org.springframework.data.domain.Pageable;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Product listing queries and lookups by id for display, served by the category shards when
+ * sharding is enabled
+ */
+public interface ProductListingRepository {
+
+    /** Fields listings can be sorted by, and their columns */
+    Map<String, String> SORT_COLUMNS = Map.ofEntries(
+            Map.entry("id", "id"),
+            Map.entry("sku", "sku"),
+            Map.entry("nameSortKey", "name_sort_key"),
+            Map.entry("description", "description"),
+            Map.entry("price", "price"),
+            Map.entry("effectivePrice", "effective_price"),
+            Map.entry("normalizedPrice", "normalized_price"),
+            Map.entry("currency", "currency"),
+            Map.entry("inStock", "in_stock"),
+            Map.entry("imageUrl", "image_url"),
+            Map.entry("discountPercent", "discount_percent"),
+            Map.entry("rating", "rating"),
+            Map.entry("createdAt", "created_at"),
+            Map.entry("updatedAt", "updated_at"));
+
+    /**
+     * One page of products matching the filter, without a count; pair with {@link #countMatching}
+     * (see {@code PagedQueryExecutor})
+     *
+     * @throws com.turkcell.ecommerce.exception.InvalidPageRequestException if the page is sorted by a
+     *         field not in {@link #SORT_COLUMNS}
+     */
+    List<ProductEntity> findContentMatching(ProductFilter filter, Pageable pageable);
+
+    /**
+     * Number of products matching the filter
+     */
+    long countMatching(ProductFilter filter);
+
+    /**
+     * A product with its category, to be read only (not to be modified and saved)
+     */
+    Optional<ProductEntity> findForReadById(Long id);
+
+    /**
+     * Products with their categories, in no particular order, to be read only
+     */
+    List<ProductEntity> findAllForReadByIdIn(Collection<Long> ids);
+}
@@ -0,0 +1,119 @@
+package com.turkcell.ecommerce.repository;
+
+import com.turkcell.ecommerce.datasource.ReadYourWritesTracker;
+import com.turkcell.ecommerce.entity.ProductEntity;
+import com.turkcell.ecommerce.exception.InvalidPageRequestException;
+import com.turkcell.ecommerce.search.ProductFilter;
+import com.turkcell.ecommerce.web.ClientContext;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.TypedQuery;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Routes listings and lookups to {@link ShardedProductQueries} once the shards are ready, otherwise
+ * to the primary through the JPA queries of {@link ProductRepository}. Clients that read-your-writes
+ * stickiness keeps on the primary ({@link ReadYourWritesTracker}) read from the primary too.
+ */
+public class ProductListingRepositoryImpl implements ProductListingRepository {
+
+    // Looked up on use: the repository is being built when this is
+    private final ObjectProvider<ProductRepository> productRepository;
+    private final ObjectProvider<ShardedProductQueries> shardedQueries;
+    private final ObjectProvider<ReadYourWritesTracker> readYourWritesTracker;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    public ProductListingRepositoryImpl(ObjectProvider<ProductRepository> productRepository,
+                                        ObjectProvider<ShardedProductQueries> shardedQueries,
+                                        ObjectProvider<ReadYourWritesTracker> readYourWritesTracker) {
+        this.productRepository = productRepository;
+        this.shardedQueries = shardedQueries;
+        this.readYourWritesTracker = readYourWritesTracker;
+    }
+
+    @Override
+    public List<ProductEntity> findContentMatching(ProductFilter filter, Pageable pageable) {
+        for (Sort.Order order : pageable.getSort()) {
+            if (!SORT_COLUMNS.containsKey(order.getProperty())) {
+                throw new InvalidPageRequestException("Cannot sort products by " + order.getProperty());
+            }
+        }
+        ShardedProductQueries sharded = shards();
+        if (sharded != null) {
+            return sharded.findContent(filter, pageable);
+        }
+        // Built here rather than as an @Query method: Spring Data drops an order's NULLS FIRST/LAST
+        StringBuilder jpql = new StringBuilder("SELECT p FROM ProductEntity p WHERE ")
+                .append(ProductRepository.LISTING_FILTER);
+        String separator = " ORDER BY ";
+        for (Sort.Order order : pageable.getSort()) {
+            jpql.append(separator).append("p.").append(order.getProperty())
+                    .append(order.isAscending() ? " ASC" : " DESC")
+                    .append(switch (order.getNullHandling()) {
+                        case NULLS_FIRST -> " NULLS FIRST";
+                        case NULLS_LAST -> " NULLS LAST";
+                        case NATIVE -> "";
+                    });
+            separator = ", ";
+        }
+        TypedQuery<ProductEntity> query = entityManager.createQuery(jpql.toString(), ProductEntity.class)
+                .setParameter("query", filter.query())
+                .setParameter("categoryId", filter.categoryId())
+                .setParameter("minEffectivePrice", filter.minEffectivePrice())
+                .setParameter("maxEffectivePrice", filter.maxEffectivePrice())
+                .setParameter("minNormalizedPrice", filter.minNormalizedPrice())
+                .setParameter("maxNormalizedPrice", filter.maxNormalizedPrice())
+                // Results are kept in the query cache (see SecondLevelCacheEvictor)
+                .setHint(HibernateHints.HINT_CACHEABLE, true);
+        if (pageable.isPaged()) {
+            query.setFirstResult(Math.toIntExact(pageable.getOffset())).setMaxResults(pageable.getPageSize());
+        }
+        return query.getResultList();
+    }
+
+    @Override
+    public long countMatching(ProductFilter filter) {
+        ShardedProductQueries sharded = shards();
+        if (sharded != null) {
+            return sharded.count(filter);
+        }
+        return productRepository.getObject().countByFilter(filter.query(), filter.categoryId(),
+                filter.minEffectivePrice(), filter.maxEffectivePrice(), filter.minNormalizedPrice(),
+                filter.maxNormalizedPrice());
+    }
+
+    @Override
+    public Optional<ProductEntity> findForReadById(Long id) {
+        ShardedProductQueries sharded = shards();
+        return sharded != null ? sharded.findById(id) : productRepository.getObject().findById(id);
+    }
+
+    @Override
+    public List<ProductEntity> findAllForReadByIdIn(Collection<Long> ids) {
+        ShardedProductQueries sharded = shards();
+        return sharded != null
+                ? sharded.findAllByIdIn(ids)
+                : productRepository.getObject().findAllWithCategoryByIdIn(ids);
+    }
+
+    /**
+     * The shards, if they serve this client's reads
+     */
+    private ShardedProductQueries shards() {
+        ShardedProductQueries sharded = shardedQueries.getIfAvailable();
+        if (sharded == null || !sharded.isReady()) {
+            return null;
+        }
+        ReadYourWritesTracker tracker = readYourWritesTracker.getIfAvailable();
+        return tracker != null && tracker.isSticky(ClientContext.current()) ? null : sharded;
+    }
+}
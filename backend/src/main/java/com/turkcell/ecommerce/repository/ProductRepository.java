@@ -1,20 +1,40 @@
 package com.turkcell.ecommerce.repository;
 
 import com.turkcell.ecommerce.entity.ProductEntity;
+import com.turkcell.ecommerce.search.ProductFilter;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
 @Repository
-public interface ProductRepository extends JpaRepository<ProductEntity, Long> {
+public interface ProductRepository extends JpaRepository<ProductEntity, Long>, ProductWriteRepository,
+        ProductListingRepository {
 
-    @Query("SELECT p FROM ProductEntity p WHERE " +
-            "(:query IS NULL OR LOWER(p.name) LIKE LOWER(CONCAT('%', :query, '%')) OR " +
-            "LOWER(p.description) LIKE LOWER(CONCAT('%', :query, '%')))")
-    Page<ProductEntity> findByQuery(@Param("query") String query, Pageable pageable);
+    /**
+     * Products whose name or description contains the query. The query must already be in search form
+     * ({@code TurkishTextNormalizer.normalizeQuery}); it is matched against the normalized columns, so
+     * no function is evaluated per row.
+     */
+    String QUERY_FILTER = "(:query IS NULL OR p.nameSearch LIKE CONCAT('%', :query, '%') OR " +
+            "p.descriptionSearch LIKE CONCAT('%', :query, '%'))";
+
+    /**
+     * Listing filter ({@link ProductFilter}, see {@link ProductListingRepository}): {@link #QUERY_FILTER},
+     * optionally restricted to one category and to effective and normalized price ranges (bounds inclusive)
+     */
+    String LISTING_FILTER = "(:categoryId IS NULL OR p.category.id = :categoryId) AND " +
+            "(:minEffectivePrice IS NULL OR p.effectivePrice >= :minEffectivePrice) AND " +
+            "(:maxEffectivePrice IS NULL OR p.effectivePrice <= :maxEffectivePrice) AND " +
+            "(:minNormalizedPrice IS NULL OR p.normalizedPrice >= :minNormalizedPrice) AND " +
+            "(:maxNormalizedPrice IS NULL OR p.normalizedPrice <= :maxNormalizedPrice) AND " + QUERY_FILTER;
 
     /**
      * Check if any products exist for a category (for delete protection)
@@ -26,14 +46,33 @@ public interface ProductRepository extends JpaRepository<ProductEntity, Long> {
      */
     Page<ProductEntity> findByCategoryId(Long categoryId, Pageable pageable);
 
+    @Query("SELECT COUNT(p) FROM ProductEntity p WHERE " + LISTING_FILTER)
+    long countByFilter(@Param("query") String query,
+                       @Param("categoryId") Long categoryId,
+                       @Param("minEffectivePrice") Double minEffectivePrice,
+                       @Param("maxEffectivePrice") Double maxEffectivePrice,
+                       @Param("minNormalizedPrice") Double minNormalizedPrice,
+                       @Param("maxNormalizedPrice") Double maxNormalizedPrice);
+
+    /**
+     * Find products by ids with their categories in a single query
+     */
+    @Query("SELECT p FROM ProductEntity p JOIN FETCH p.category WHERE p.id IN :ids")
+    List<ProductEntity> findAllWithCategoryByIdIn(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Category of a product, locking its row until the transaction ends; read before a delete or a
+     * category change for the change event
+     */
+    @Query(value = "SELECT category_id FROM products WHERE id = :id FOR UPDATE", nativeQuery = true)
+    Optional<Long> findCategoryIdForUpdate(@Param("id") Long id);
+
     /**
-     * Find products by query and category ID
+     * Delete a product in one statement
+     *
+     * @return number of deleted rows (0 if the product does not exist)
      */
-    @Query("SELECT p FROM ProductEntity p WHERE " +
-            "(:categoryId IS NULL OR p.category.id = :categoryId) AND " +
-            "(:query IS NULL OR LOWER(p.name) LIKE LOWER(CONCAT('%', :query, '%')) OR " +
-            "LOWER(p.description) LIKE LOWER(CONCAT('%', :query, '%')))")
-    Page<ProductEntity> findByQueryAndCategoryId(@Param("query") String query,
-                                                   @Param("categoryId") Long categoryId,
-                                                   Pageable pageable);
+    @Modifying
+    @Query("DELETE FROM ProductEntity p WHERE p.id = :id")
+    int deleteProductById(@Param("id") Long id);
 }
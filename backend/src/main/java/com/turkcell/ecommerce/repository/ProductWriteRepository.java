@@ -0,0 +1,34 @@
+package com.turkcell.ecommerce.repository;
+
+import com.turkcell.ecommerce.entity.ProductEntity;
+
+import java.time.OffsetDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Product writes that bypass the load-modify-save cycle
+ */
+public interface ProductWriteRepository {
+
+    /**
+     * Apply changes to a product and read back the updated row with its category in one statement.
+     * {@code updatedAt} is always set to now.
+     *
+     * @param changes new values keyed by field name (see {@code ProductChangedEvent})
+     * @return the updated product (detached), or empty if it does not exist
+     */
+    Optional<ProductEntity> updateReturning(Long id, Map<String, Object> changes);
+
+    /**
+     * Move up to {@code limit} products of the source category to the target category in one
+     * statement, setting {@code updatedAt}. Neither category is loaded.
+     *
+     * @param productIds restrict the move to these products, or null to move any product of the source
+     * @return ids of the moved products
+     */
+    List<Long> moveToCategory(Long sourceCategoryId, Long targetCategoryId, Collection<Long> productIds,
+                              int limit, OffsetDateTime updatedAt);
+}
@@ -0,0 +1,153 @@
+package com.turkcell.ecommerce.repository;
+
+import com.turkcell.ecommerce.entity.CategoryEntity;
+import com.turkcell.ecommerce.entity.ProductEntity;
+import com.turkcell.ecommerce.event.ProductChangedEvent;
+import com.turkcell.ecommerce.fx.FxRates;
+import com.turkcell.ecommerce.search.TurkishTextNormalizer;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Implements the patch as a single H2 data change delta table query: the UPDATE runs inside
+ * {@code FINAL TABLE (...)}, which yields the updated row, joined to its category.
+ */
+public class ProductWriteRepositoryImpl implements ProductWriteRepository {
+
+    private static final Map<String, String> COLUMNS = Map.of(
+            ProductChangedEvent.SKU, "sku",
+            ProductChangedEvent.NAME, "name",
+            ProductChangedEvent.DESCRIPTION, "description",
+            ProductChangedEvent.PRICE, "price",
+            ProductChangedEvent.CURRENCY, "currency",
+            ProductChangedEvent.IN_STOCK, "in_stock",
+            ProductChangedEvent.IMAGE_URL, "image_url",
+            ProductChangedEvent.DISCOUNT_PERCENT, "discount_percent",
+            ProductChangedEvent.RATING, "rating",
+            ProductChangedEvent.CATEGORY_ID, "category_id");
+
+    private static final RowMapper<ProductEntity> PRODUCT_MAPPER = ProductWriteRepositoryImpl::mapProduct;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final FxRates fxRates;
+
+    public ProductWriteRepositoryImpl(JdbcTemplate jdbcTemplate, FxRates fxRates) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.fxRates = fxRates;
+    }
+
+    @Override
+    public Optional<ProductEntity> updateReturning(Long id, Map<String, Object> changes) {
+        StringBuilder sql = new StringBuilder("SELECT p.id, p.sku, p.name, p.description, p.price, p.currency, ")
+                .append("p.in_stock, p.image_url, p.discount_percent, p.rating, p.category_id, ")
+                .append("p.created_at, p.updated_at, c.name AS category_name FROM FINAL TABLE (UPDATE products SET ");
+        List<Object> args = new ArrayList<>(changes.size() + 2);
+        for (Map.Entry<String, Object> change : changes.entrySet()) {
+            String column = COLUMNS.get(change.getKey());
+            if (column == null) {
+                throw new IllegalArgumentException("Field cannot be updated: " + change.getKey());
+            }
+            sql.append(column).append(" = ?, ");
+            args.add(change.getValue());
+            // Keep the derived search/sort columns in step, as ProductEntity's callbacks do
+            if (ProductChangedEvent.NAME.equals(change.getKey())) {
+                sql.append("name_search = ?, name_sort_key = ?, ");
+                args.add(TurkishTextNormalizer.normalize((String) change.getValue()));
+                args.add(TurkishTextNormalizer.sortKey((String) change.getValue()));
+            } else if (ProductChangedEvent.DESCRIPTION.equals(change.getKey())) {
+                sql.append("description_search = ?, ");
+                args.add(TurkishTextNormalizer.normalize((String) change.getValue()));
+            }
+        }
+        // SET expressions see the old row, so new price/discount values are bound again here
+        boolean priceChanged = changes.containsKey(ProductChangedEvent.PRICE);
+        boolean discountChanged = changes.containsKey(ProductChangedEvent.DISCOUNT_PERCENT);
+        if (priceChanged || discountChanged) {
+            sql.append("effective_price = ").append(ProductEntity.effectivePriceSql(
+                    priceChanged ? "CAST(? AS DOUBLE PRECISION)" : "price",
+                    discountChanged ? "CAST(? AS DOUBLE PRECISION)" : "discount_percent")).append(", ");
+            if (priceChanged) {
+                args.add(changes.get(ProductChangedEvent.PRICE));
+            }
+            if (discountChanged) {
+                args.add(changes.get(ProductChangedEvent.DISCOUNT_PERCENT));
+            }
+        }
+        boolean currencyChanged = changes.containsKey(ProductChangedEvent.CURRENCY);
+        if (priceChanged || currencyChanged) {
+            // The currency expression occurs twice in the normalized price SQL
+            sql.append("normalized_price = ").append(fxRates.normalizedPriceSql(
+                    priceChanged ? "CAST(? AS DOUBLE PRECISION)" : "price",
+                    currencyChanged ? "CAST(? AS VARCHAR)" : "currency")).append(", ");
+            if (priceChanged) {
+                args.add(changes.get(ProductChangedEvent.PRICE));
+            }
+            if (currencyChanged) {
+                args.add(changes.get(ProductChangedEvent.CURRENCY));
+                args.add(changes.get(ProductChangedEvent.CURRENCY));
+            }
+        }
+        sql.append("updated_at = ? WHERE id = ?) p JOIN categories c ON c.id = p.category_id");
+        args.add(OffsetDateTime.now());
+        args.add(id);
+
+        List<ProductEntity> updated = jdbcTemplate.query(sql.toString(), PRODUCT_MAPPER, args.toArray());
+        return updated.stream().findFirst();
+    }
+
+    @Override
+    public List<Long> moveToCategory(Long sourceCategoryId, Long targetCategoryId, Collection<Long> productIds,
+                                     int limit, OffsetDateTime updatedAt) {
+        StringBuilder sql = new StringBuilder("SELECT id FROM FINAL TABLE (UPDATE products ")
+                .append("SET category_id = ?, updated_at = ? WHERE category_id = ?");
+        List<Object> args = new ArrayList<>();
+        args.add(targetCategoryId);
+        args.add(updatedAt);
+        args.add(sourceCategoryId);
+        if (productIds != null) {
+            if (productIds.isEmpty()) {
+                return List.of();
+            }
+            sql.append(" AND id IN (").append(String.join(", ", Collections.nCopies(productIds.size(), "?"))).append(")");
+            args.addAll(productIds);
+        }
+        sql.append(" FETCH FIRST ? ROWS ONLY)");
+        args.add(limit);
+
+        return jdbcTemplate.queryForList(sql.toString(), Long.class, args.toArray());
+    }
+
+    /**
+     * Product with its category (id and name only) from a row of the product columns plus {@code category_name}
+     */
+    static ProductEntity mapProduct(ResultSet rs, int rowNum) throws SQLException {
+        CategoryEntity category = new CategoryEntity(rs.getString("category_name"));
+        category.setId(rs.getLong("category_id"));
+
+        ProductEntity product = new ProductEntity();
+        product.setId(rs.getLong("id"));
+        product.setSku(rs.getString("sku"));
+        product.setName(rs.getString("name"));
+        product.setDescription(rs.getString("description"));
+        product.setPrice(rs.getDouble("price"));
+        product.setCurrency(rs.getString("currency"));
+        product.setInStock(rs.getBoolean("in_stock"));
+        product.setImageUrl(rs.getString("image_url"));
+        product.setDiscountPercent(rs.getObject("discount_percent", Double.class));
+        product.setRating(rs.getObject("rating", Double.class));
+        product.setCategory(category);
+        product.setCreatedAt(rs.getObject("created_at", OffsetDateTime.class));
+        product.setUpdatedAt(rs.getObject("updated_at", OffsetDateTime.class));
+        return product;
+    }
+}
@@ -0,0 +1,285 @@
+package com.turkcell.ecommerce.repository;
+
+import com.turkcell.ecommerce.datasource.ProductShards;
+import com.turkcell.ecommerce.entity.ProductEntity;
+import com.turkcell.ecommerce.exception.InvalidPageRequestException;
+import com.turkcell.ecommerce.search.ProductFilter;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.PriorityQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Function;
+
+/**
+ * Product reads over the category shards ({@link ProductShards}).
+ * <p>
+ * A listing restricted to a category, and its count, run on that category's shard alone. Without a
+ * category a listing is scattered to every shard in parallel (one virtual thread each): each shard
+ * returns its first {@code offset + size} rows in the listing order, and the sorted shard results
+ * are k-way merged to cut out the requested page. Since every shard returns up to the page's end,
+ * such pages may not end beyond {@code max-scatter-window} rows. Totals are the sum of the shard
+ * counts. Ties in the sort order are broken by id, so pages are stable across shards.
+ * <p>
+ * Lookups by id, which do not name the category, ask all shards at once; only the owning shard has
+ * the row.
+ */
+@Component
+@ConditionalOnProperty(prefix = "ecommerce.datasource.shards", name = "enabled", havingValue = "true")
+public class ShardedProductQueries {
+
+    private static final String SELECT_PRODUCTS = "SELECT p.id, p.sku, p.name, p.description, p.price, p.currency, " +
+            "p.in_stock, p.image_url, p.discount_percent, p.rating, p.category_id, p.created_at, p.updated_at, " +
+            "c.name AS category_name";
+    private static final String FROM = " FROM products p JOIN categories c ON c.id = p.category_id";
+
+    private final ProductShards shards;
+    private final List<JdbcTemplate> jdbcTemplates;
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private final int maxScatterWindow;
+
+    public ShardedProductQueries(ProductShards shards,
+                                 @Value("${ecommerce.datasource.shards.max-scatter-window:10000}") int maxScatterWindow) {
+        this.shards = shards;
+        this.maxScatterWindow = maxScatterWindow;
+        this.jdbcTemplates = shards.getShards().stream().map(JdbcTemplate::new).toList();
+    }
+
+    /**
+     * Whether the shards can serve listings (the stand-in may not have filled them yet)
+     */
+    public boolean isReady() {
+        return shards.isReady();
+    }
+
+    /**
+     * One page of products matching the filter, in the pageable's order
+     */
+    public List<ProductEntity> findContent(ProductFilter filter, Pageable pageable) {
+        List<Sort.Order> orders = pageable.getSort().toList();
+        Condition condition = condition(filter);
+        StringBuilder sql = new StringBuilder(SELECT_PRODUCTS);
+        for (int i = 0; i < orders.size(); i++) {
+            sql.append(", p.").append(column(orders.get(i))).append(" AS sort_").append(i);
+        }
+        sql.append(FROM).append(condition.where()).append(" ORDER BY ");
+        for (int i = 0; i < orders.size(); i++) {
+            sql.append("sort_").append(i).append(orders.get(i).isAscending() ? " ASC" : " DESC")
+                    .append(nullOrdering(orders.get(i))).append(", ");
+        }
+        sql.append("p.id ASC");
+
+        if (filter.categoryId() != null) {
+            List<Object> args = new ArrayList<>(condition.args());
+            args.add(pageable.getPageSize());
+            args.add(pageable.getOffset());
+            return jdbcTemplates.get(shards.shardOf(filter.categoryId())).query(sql + " LIMIT ? OFFSET ?",
+                    ProductWriteRepositoryImpl::mapProduct, args.toArray());
+        }
+
+        // Any shard may hold the whole page, so each returns everything up to the page's end
+        long window = pageable.getOffset() + pageable.getPageSize();
+        if (window > maxScatterWindow) {
+            throw new InvalidPageRequestException("Only the first " + maxScatterWindow
+                    + " products can be paged through without a categoryId");
+        }
+        List<Object> args = new ArrayList<>(condition.args());
+        args.add(window);
+        List<List<Row>> shardRows = scatter(template -> template.query(sql + " LIMIT ?", (rs, rowNum) -> {
+            Object[] sortValues = new Object[orders.size()];
+            for (int i = 0; i < sortValues.length; i++) {
+                sortValues[i] = rs.getObject("sort_" + i);
+            }
+            return new Row(ProductWriteRepositoryImpl.mapProduct(rs, rowNum), sortValues);
+        }, args.toArray()));
+        return merge(shardRows, comparator(orders), pageable.getOffset(), pageable.getPageSize());
+    }
+
+    /**
+     * Number of products matching the filter
+     */
+    public long count(ProductFilter filter) {
+        Condition condition = condition(filter);
+        String sql = "SELECT COUNT(*) FROM products p" + condition.where();
+        if (filter.categoryId() != null) {
+            Long count = jdbcTemplates.get(shards.shardOf(filter.categoryId()))
+                    .queryForObject(sql, Long.class, condition.args().toArray());
+            return count != null ? count : 0;
+        }
+        return scatter(template -> template.queryForObject(sql, Long.class, condition.args().toArray())).stream()
+                .mapToLong(count -> count != null ? count : 0)
+                .sum();
+    }
+
+    /**
+     * A product by id, from whichever shard holds it
+     */
+    public Optional<ProductEntity> findById(Long id) {
+        return findAllByIdIn(List.of(id)).stream().findFirst();
+    }
+
+    /**
+     * Products by id, in no particular order; ids no shard holds are left out
+     */
+    public List<ProductEntity> findAllByIdIn(Collection<Long> ids) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        String sql = SELECT_PRODUCTS + FROM + " WHERE p.id IN ("
+                + String.join(", ", Collections.nCopies(ids.size(), "?")) + ")";
+        return scatter(template -> template.query(sql, ProductWriteRepositoryImpl::mapProduct, ids.toArray())).stream()
+                .flatMap(List::stream)
+                .toList();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private <T> List<T> scatter(Function<JdbcTemplate, T> query) {
+        List<CompletableFuture<T>> futures = jdbcTemplates.stream()
+                .map(template -> CompletableFuture.supplyAsync(() -> query.apply(template), executor))
+                .toList();
+        List<T> results = new ArrayList<>(futures.size());
+        try {
+            for (CompletableFuture<T> future : futures) {
+                results.add(future.join());
+            }
+        } catch (CompletionException ex) {
+            futures.forEach(future -> future.cancel(false));
+            if (ex.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw ex;
+        }
+        return results;
+    }
+
+    /**
+     * K-way merge of the sorted shard results, keeping {@code limit} rows after skipping {@code offset}
+     */
+    private static List<ProductEntity> merge(List<List<Row>> shardRows, Comparator<Row> order, long offset, int limit) {
+        // Heads of the shard lists: {shard, position}
+        PriorityQueue<int[]> heads = new PriorityQueue<>(Math.max(1, shardRows.size()),
+                (a, b) -> order.compare(shardRows.get(a[0]).get(a[1]), shardRows.get(b[0]).get(b[1])));
+        for (int shard = 0; shard < shardRows.size(); shard++) {
+            if (!shardRows.get(shard).isEmpty()) {
+                heads.add(new int[]{shard, 0});
+            }
+        }
+        List<ProductEntity> page = new ArrayList<>(limit);
+        long skipped = 0;
+        while (!heads.isEmpty() && page.size() < limit) {
+            int[] head = heads.poll();
+            List<Row> rows = shardRows.get(head[0]);
+            if (skipped < offset) {
+                skipped++;
+            } else {
+                page.add(rows.get(head[1]).product());
+            }
+            if (++head[1] < rows.size()) {
+                heads.add(head);
+            }
+        }
+        return page;
+    }
+
+    private static String nullOrdering(Sort.Order order) {
+        return switch (order.getNullHandling()) {
+            case NULLS_FIRST -> " NULLS FIRST";
+            case NULLS_LAST -> " NULLS LAST";
+            case NATIVE -> "";
+        };
+    }
+
+    /**
+     * The SQL order of the listing: the sort orders (nulls lowest, as in H2, unless the order places
+     * them first or last), then id
+     */
+    private static Comparator<Row> comparator(List<Sort.Order> orders) {
+        Comparator<Row> comparator = (a, b) -> 0;
+        for (int i = 0; i < orders.size(); i++) {
+            int index = i;
+            Sort.Order order = orders.get(i);
+            Comparator<Row> byValue = (a, b) -> compareValues(a.sortValues()[index], b.sortValues()[index]);
+            if (order.isDescending()) {
+                byValue = byValue.reversed();
+            }
+            if (order.getNullHandling() != Sort.NullHandling.NATIVE) {
+                Comparator<Object> nonNull = (a, b) -> compareValues(a, b) * (order.isAscending() ? 1 : -1);
+                Comparator<Object> withNulls = order.getNullHandling() == Sort.NullHandling.NULLS_LAST
+                        ? Comparator.nullsLast(nonNull) : Comparator.nullsFirst(nonNull);
+                byValue = (a, b) -> withNulls.compare(a.sortValues()[index], b.sortValues()[index]);
+            }
+            comparator = comparator.thenComparing(byValue);
+        }
+        return comparator.thenComparing(row -> row.product().getId());
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static int compareValues(Object a, Object b) {
+        if (a == null || b == null) {
+            return a == null ? (b == null ? 0 : -1) : 1;
+        }
+        if (a instanceof byte[] bytes) {
+            return Arrays.compareUnsigned(bytes, (byte[]) b);
+        }
+        return ((Comparable) a).compareTo(b);
+    }
+
+    private static String column(Sort.Order order) {
+        String column = ProductListingRepository.SORT_COLUMNS.get(order.getProperty());
+        if (column == null) {
+            throw new InvalidPageRequestException("Cannot sort products by " + order.getProperty());
+        }
+        return column;
+    }
+
+    private static Condition condition(ProductFilter filter) {
+        List<String> terms = new ArrayList<>();
+        List<Object> args = new ArrayList<>();
+        if (filter.categoryId() != null) {
+            terms.add("p.category_id = ?");
+            args.add(filter.categoryId());
+        }
+        if (filter.query() != null) {
+            terms.add("(p.name_search LIKE ? OR p.description_search LIKE ?)");
+            args.add("%" + filter.query() + "%");
+            args.add("%" + filter.query() + "%");
+        }
+        addBound(terms, args, "p.effective_price >= ?", filter.minEffectivePrice());
+        addBound(terms, args, "p.effective_price <= ?", filter.maxEffectivePrice());
+        addBound(terms, args, "p.normalized_price >= ?", filter.minNormalizedPrice());
+        addBound(terms, args, "p.normalized_price <= ?", filter.maxNormalizedPrice());
+        return new Condition(terms.isEmpty() ? "" : " WHERE " + String.join(" AND ", terms), args);
+    }
+
+    private static void addBound(List<String> terms, List<Object> args, String term, Double bound) {
+        if (bound != null) {
+            terms.add(term);
+            args.add(bound);
+        }
+    }
+
+    private record Condition(String where, List<Object> args) {
+    }
+
+    private record Row(ProductEntity product, Object[] sortValues) {
+    }
+}
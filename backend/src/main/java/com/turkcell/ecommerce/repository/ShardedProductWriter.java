@@ -0,0 +1,478 @@
+package com.turkcell.ecommerce.repository;
+
+import com.turkcell.ecommerce.datasource.ProductShards;
+import com.turkcell.ecommerce.event.CategoryChangedEvent;
+import com.turkcell.ecommerce.event.ChangeOrigin;
+import com.turkcell.ecommerce.event.ChangeType;
+import com.turkcell.ecommerce.event.ProductChangedEvent;
+import jakarta.persistence.EntityManager;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.locks.Lock;
+
+/**
+ * Routes product and category writes to the shard that owns them ({@link ProductShards}).
+ * <p>
+ * The products and categories changed in a transaction are collected from the change events its
+ * writes publish. Just before the transaction commits on the primary, their rows as the transaction
+ * sees them are written to the owning shards: a category and its products to the shard of the
+ * category id. A product that was deleted or moved to another category is removed from the other
+ * shards. The shard writes commit together once all of them succeeded, and a failure fails the write.
+ * If the primary then does not commit, the rows are written again from its committed state, so a
+ * shard does not keep a change the primary rolled back.
+ * <p>
+ * The primary stays the system of record; the shards hold copies. Before the shards are written, the
+ * rows are recorded in {@code product_shard_repairs} in a transaction of their own, and the record is
+ * removed once the shards are known to match the primary. A record left behind (a shard commit or the
+ * restore after a rollback failed, or the process stopped in between) is repaired every
+ * {@code repair-interval-ms}: once older than {@code repair-delay-ms}, so its transaction has ended,
+ * the rows are locked on the primary and copied to the shards again.
+ * <p>
+ * Changes replayed from another instance ({@link ChangeOrigin}) were routed there.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(prefix = "ecommerce.datasource.shards", name = "enabled", havingValue = "true")
+public class ShardedProductWriter {
+
+    private static final String PRODUCTS = "products";
+    private static final String CATEGORIES = "categories";
+
+    private static final String INSERT_REPAIR =
+            "INSERT INTO product_shard_repairs (write_id, table_name, row_id, recorded_at) VALUES (?, ?, ?, ?)";
+    private static final String DELETE_REPAIRS = "DELETE FROM product_shard_repairs WHERE write_id = ?";
+    private static final String SELECT_REPAIRS = "SELECT id, table_name, row_id FROM product_shard_repairs "
+            + "WHERE recorded_at < ? ORDER BY id LIMIT ?";
+
+    private final ProductShards shards;
+    private final JdbcTemplate jdbcTemplate;
+    private final EntityManager entityManager;
+    private final List<JdbcTemplate> shardTemplates;
+    /** Commits on its own, whether or not a transaction is running */
+    private final TransactionTemplate ownTransaction;
+    private final Duration repairDelay;
+    private final int repairBatchSize;
+
+    public ShardedProductWriter(ProductShards shards, JdbcTemplate jdbcTemplate, EntityManager entityManager,
+                                PlatformTransactionManager transactionManager,
+                                @Value("${ecommerce.datasource.shards.repair-delay-ms:60000}") long repairDelayMs,
+                                @Value("${ecommerce.datasource.shards.repair-batch-size:500}") int repairBatchSize) {
+        this.shards = shards;
+        this.jdbcTemplate = jdbcTemplate;
+        this.entityManager = entityManager;
+        this.shardTemplates = shards.getShards().stream().map(JdbcTemplate::new).toList();
+        this.ownTransaction = new TransactionTemplate(transactionManager);
+        this.ownTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.repairDelay = Duration.ofMillis(repairDelayMs);
+        this.repairBatchSize = repairBatchSize;
+    }
+
+    @EventListener
+    public void onProductChanged(ProductChangedEvent event) {
+        if (ChangeOrigin.isRemote()) {
+            return;
+        }
+        boolean relocated = event.type() != ChangeType.UPDATED
+                || event.changes().containsKey(ProductChangedEvent.CATEGORY_ID);
+        PendingWrites pending = pendingWrites();
+        if (pending != null) {
+            pending.productIds.add(event.productId());
+            if (relocated) {
+                pending.relocatedIds.add(event.productId());
+            }
+        } else {
+            writeNow(Set.of(event.productId()), relocated ? Set.of(event.productId()) : Set.of(), Set.of());
+        }
+    }
+
+    @EventListener
+    public void onCategoryChanged(CategoryChangedEvent event) {
+        if (ChangeOrigin.isRemote()) {
+            return;
+        }
+        PendingWrites pending = pendingWrites();
+        if (pending != null) {
+            pending.categoryIds.add(event.categoryId());
+        } else {
+            writeNow(Set.of(), Set.of(), Set.of(event.categoryId()));
+        }
+    }
+
+    /**
+     * Run a set-based product update, which publishes no per-product events, on every shard as well
+     * (e.g. re-normalizing prices). Called within the primary transaction making the same update; the
+     * statement must be safe to repeat, since it is not undone if that transaction rolls back.
+     */
+    public void updateAll(String sql, Object... args) {
+        pendingWrites();
+        if (shards.isReady()) {
+            shardTemplates.forEach(template -> template.update(sql, args));
+        }
+    }
+
+    /**
+     * Copy the rows of repair records older than the repair delay from the primary to the shards again
+     */
+    @Scheduled(fixedDelayString = "${ecommerce.datasource.shards.repair-interval-ms:5000}")
+    public void repair() {
+        Lock lock = shards.getSeedLock().readLock();
+        lock.lock();
+        try {
+            if (!shards.isReady()) {
+                return;
+            }
+            int repaired;
+            do {
+                repaired = ownTransaction.execute(status -> repairBatch(OffsetDateTime.now().minus(repairDelay)));
+            } while (repaired == repairBatchSize);
+        } catch (RuntimeException ex) {
+            log.warn("Repairing product shards failed; retrying in the next run: {}", ex.getMessage());
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private int repairBatch(OffsetDateTime recordedBefore) {
+        List<Long> repairIds = new ArrayList<>();
+        Set<Long> productIds = new HashSet<>();
+        Set<Long> categoryIds = new HashSet<>();
+        jdbcTemplate.query(SELECT_REPAIRS, (ResultSet rs) -> {
+            repairIds.add(rs.getLong("id"));
+            (PRODUCTS.equals(rs.getString("table_name")) ? productIds : categoryIds).add(rs.getLong("row_id"));
+        }, recordedBefore, repairBatchSize);
+        if (repairIds.isEmpty()) {
+            return 0;
+        }
+        // Locked, so no writer changes them on the shards meanwhile; any shard may hold a stale copy
+        write(productIds, productIds, categoryIds, true);
+        jdbcTemplate.update("DELETE FROM product_shard_repairs WHERE id IN (" + placeholders(repairIds.size()) + ")",
+                repairIds.toArray());
+        log.info("Repaired {} products and {} categories on the product shards", productIds.size(), categoryIds.size());
+        return repairIds.size();
+    }
+
+    /**
+     * The current transaction's pending writes, holding off seeding until it completes; null outside
+     * a transaction
+     */
+    private PendingWrites pendingWrites() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return null;
+        }
+        PendingWrites pending = (PendingWrites) TransactionSynchronizationManager.getResource(this);
+        if (pending == null) {
+            pending = new PendingWrites();
+            pending.seedLock.lock();
+            TransactionSynchronizationManager.bindResource(this, pending);
+            TransactionSynchronizationManager.registerSynchronization(pending);
+        }
+        return pending;
+    }
+
+    private void writeNow(Set<Long> productIds, Set<Long> relocatedIds, Set<Long> categoryIds) {
+        Lock lock = shards.getSeedLock().readLock();
+        lock.lock();
+        try {
+            if (shards.isReady()) {
+                String writeId = recordRepairs(productIds, categoryIds);
+                write(productIds, relocatedIds, categoryIds, false);
+                clearRepairs(writeId);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Bring the shards' copies of these rows in line with the primary (as the calling transaction sees it)
+     *
+     * @param relocatedIds products that may be on another shard than their category's (moved or deleted)
+     * @param lock         lock the rows on the primary until the calling transaction ends
+     */
+    private void write(Set<Long> productIds, Set<Long> relocatedIds, Set<Long> categoryIds, boolean lock) {
+        ShardWrite[] writes = new ShardWrite[shards.count()];
+        for (int shard = 0; shard < writes.length; shard++) {
+            writes[shard] = new ShardWrite();
+        }
+
+        Rows categories = select(CATEGORIES, categoryIds, lock);
+        Set<Long> missingCategories = new HashSet<>(categoryIds);
+        for (Object[] row : categories.values()) {
+            long id = ((Number) row[categories.idColumn()]).longValue();
+            missingCategories.remove(id);
+            writes[shards.shardOf(id)].categories.add(row);
+        }
+        missingCategories.forEach(id -> writes[shards.shardOf(id)].deletedCategoryIds.add(id));
+
+        Rows products = select(PRODUCTS, productIds, lock);
+        int categoryColumn = products.columns().indexOf("CATEGORY_ID");
+        Map<Long, Integer> owners = new HashMap<>();
+        for (Object[] row : products.values()) {
+            int owner = shards.shardOf(((Number) row[categoryColumn]).longValue());
+            owners.put(((Number) row[products.idColumn()]).longValue(), owner);
+            writes[owner].products.add(row);
+        }
+        for (Long id : productIds) {
+            Integer owner = owners.get(id);
+            if (owner == null || relocatedIds.contains(id)) {
+                for (int shard = 0; shard < writes.length; shard++) {
+                    if (owner == null || shard != owner) {
+                        writes[shard].deletedProductIds.add(id);
+                    }
+                }
+            }
+        }
+
+        List<Connection> connections = new ArrayList<>();
+        try {
+            for (int shard = 0; shard < writes.length; shard++) {
+                if (writes[shard].isEmpty()) {
+                    continue;
+                }
+                Connection connection = shards.get(shard).getConnection();
+                connections.add(connection);
+                connection.setAutoCommit(false);
+                // Categories before their products, and removed last
+                upsert(connection, CATEGORIES, categories, writes[shard].categories);
+                delete(connection, PRODUCTS, writes[shard].deletedProductIds);
+                upsert(connection, PRODUCTS, products, writes[shard].products);
+                delete(connection, CATEGORIES, writes[shard].deletedCategoryIds);
+            }
+            for (Connection connection : connections) {
+                connection.commit();
+            }
+        } catch (SQLException e) {
+            for (Connection connection : connections) {
+                try {
+                    connection.rollback();
+                } catch (SQLException rollbackFailure) {
+                    e.addSuppressed(rollbackFailure);
+                }
+            }
+            throw new DataAccessResourceFailureException("Writing to the product shards failed", e);
+        } finally {
+            for (Connection connection : connections) {
+                try {
+                    connection.setAutoCommit(true);
+                    connection.close();
+                } catch (SQLException e) {
+                    log.debug("Closing a shard connection failed: {}", e.getMessage());
+                }
+            }
+        }
+    }
+
+    /**
+     * Record the rows as possibly differing on the shards, committed at once
+     *
+     * @return the id to clear the records by
+     */
+    private String recordRepairs(Set<Long> productIds, Set<Long> categoryIds) {
+        String writeId = UUID.randomUUID().toString();
+        OffsetDateTime now = OffsetDateTime.now();
+        List<Object[]> rows = new ArrayList<>(productIds.size() + categoryIds.size());
+        productIds.forEach(id -> rows.add(new Object[]{writeId, PRODUCTS, id, now}));
+        categoryIds.forEach(id -> rows.add(new Object[]{writeId, CATEGORIES, id, now}));
+        ownTransaction.executeWithoutResult(status -> jdbcTemplate.batchUpdate(INSERT_REPAIR, rows));
+        return writeId;
+    }
+
+    /**
+     * Drop the records of a write the shards are known to match; left to the repair if that fails
+     */
+    private void clearRepairs(String writeId) {
+        try {
+            ownTransaction.executeWithoutResult(status -> jdbcTemplate.update(DELETE_REPAIRS, writeId));
+        } catch (RuntimeException ex) {
+            log.debug("Clearing product shard repair records {} failed: {}", writeId, ex.getMessage());
+        }
+    }
+
+    private Rows select(String table, Collection<Long> ids, boolean lock) {
+        if (ids.isEmpty()) {
+            return new Rows(List.of(), List.of());
+        }
+        return jdbcTemplate.query("SELECT * FROM " + table + " WHERE id IN (" + placeholders(ids.size()) + ")"
+                        + (lock ? " FOR UPDATE" : ""),
+                (ResultSet rs) -> {
+                    ResultSetMetaData meta = rs.getMetaData();
+                    List<String> columns = new ArrayList<>(meta.getColumnCount());
+                    for (int i = 1; i <= meta.getColumnCount(); i++) {
+                        columns.add(meta.getColumnName(i).toUpperCase());
+                    }
+                    List<Object[]> values = new ArrayList<>();
+                    while (rs.next()) {
+                        Object[] row = new Object[columns.size()];
+                        for (int i = 0; i < row.length; i++) {
+                            row[i] = rs.getObject(i + 1);
+                        }
+                        values.add(row);
+                    }
+                    return new Rows(columns, values);
+                }, ids.toArray());
+    }
+
+    /**
+     * Update the rows by id, inserting those the shard does not have yet
+     */
+    private static void upsert(Connection connection, String table, Rows rows, List<Object[]> values)
+            throws SQLException {
+        if (values.isEmpty()) {
+            return;
+        }
+        List<String> columns = rows.columns();
+        int idColumn = rows.idColumn();
+        String update = "UPDATE " + table + " SET " + String.join(" = ?, ", columns) + " = ? WHERE id = ?";
+        List<Object[]> missing = new ArrayList<>();
+        try (PreparedStatement statement = connection.prepareStatement(update)) {
+            for (Object[] row : values) {
+                for (int i = 0; i < row.length; i++) {
+                    statement.setObject(i + 1, row[i]);
+                }
+                statement.setObject(row.length + 1, row[idColumn]);
+                statement.addBatch();
+            }
+            int[] updated = statement.executeBatch();
+            for (int i = 0; i < updated.length; i++) {
+                if (updated[i] == 0) {
+                    missing.add(values.get(i));
+                }
+            }
+        }
+        if (missing.isEmpty()) {
+            return;
+        }
+        String insert = "INSERT INTO " + table + " (" + String.join(", ", columns) + ") VALUES ("
+                + placeholders(columns.size()) + ")";
+        try (PreparedStatement statement = connection.prepareStatement(insert)) {
+            for (Object[] row : missing) {
+                for (int i = 0; i < row.length; i++) {
+                    statement.setObject(i + 1, row[i]);
+                }
+                statement.addBatch();
+            }
+            statement.executeBatch();
+        }
+    }
+
+    private static void delete(Connection connection, String table, Set<Long> ids) throws SQLException {
+        if (ids.isEmpty()) {
+            return;
+        }
+        try (PreparedStatement statement = connection.prepareStatement(
+                "DELETE FROM " + table + " WHERE id IN (" + placeholders(ids.size()) + ")")) {
+            int index = 1;
+            for (Long id : ids) {
+                statement.setLong(index++, id);
+            }
+            statement.executeUpdate();
+        }
+    }
+
+    private static String placeholders(int count) {
+        return String.join(", ", Collections.nCopies(count, "?"));
+    }
+
+    /**
+     * Rows of one table, values in column order
+     */
+    private record Rows(List<String> columns, List<Object[]> values) {
+        int idColumn() {
+            return columns.indexOf("ID");
+        }
+    }
+
+    private static final class ShardWrite {
+        final List<Object[]> categories = new ArrayList<>();
+        final List<Object[]> products = new ArrayList<>();
+        final Set<Long> deletedProductIds = new HashSet<>();
+        final Set<Long> deletedCategoryIds = new HashSet<>();
+
+        boolean isEmpty() {
+            return categories.isEmpty() && products.isEmpty() && deletedProductIds.isEmpty()
+                    && deletedCategoryIds.isEmpty();
+        }
+    }
+
+    /**
+     * Keys changed by one transaction; written to the shards before it commits
+     */
+    private final class PendingWrites implements TransactionSynchronization {
+
+        final Set<Long> productIds = new HashSet<>();
+        final Set<Long> relocatedIds = new HashSet<>();
+        final Set<Long> categoryIds = new HashSet<>();
+        final Lock seedLock = shards.getSeedLock().readLock();
+        String writeId;
+        boolean written;
+
+        @Override
+        public void suspend() {
+            TransactionSynchronizationManager.unbindResource(ShardedProductWriter.this);
+        }
+
+        @Override
+        public void resume() {
+            TransactionSynchronizationManager.bindResource(ShardedProductWriter.this, this);
+        }
+
+        @Override
+        public void beforeCommit(boolean readOnly) {
+            if (!shards.isReady() || (productIds.isEmpty() && categoryIds.isEmpty())) {
+                return;
+            }
+            // Writes still held by the persistence context must be in the rows read
+            entityManager.flush();
+            writeId = recordRepairs(productIds, categoryIds);
+            write(productIds, relocatedIds, categoryIds, false);
+            written = true;
+        }
+
+        @Override
+        public void afterCompletion(int status) {
+            TransactionSynchronizationManager.unbindResourceIfPossible(ShardedProductWriter.this);
+            try {
+                if (written && status != STATUS_COMMITTED) {
+                    // Undo what the primary did not keep (the transaction's rows are no longer visible)
+                    write(productIds, productIds, categoryIds, false);
+                }
+                if (written) {
+                    clearRepairs(writeId);
+                }
+            } catch (RuntimeException ex) {
+                log.warn("Restoring product shards after a rollback failed for products {} and categories {}; "
+                        + "left to the repair: {}", productIds, categoryIds, ex.getMessage());
+            } finally {
+                seedLock.unlock();
+            }
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package com.turkcell.ecommerce.search;
+
+/**
+ * Product listing filter, applied alike by the database, the read model and the search index.
+ * Null members do not filter; price bounds are inclusive.
+ *
+ * @param query              in search form ({@link TurkishTextNormalizer#normalizeQuery})
+ * @param minEffectivePrice  lowest price after discount
+ * @param minNormalizedPrice lowest price in the base currency; products without a rate never match a
+ *                           normalized bound
+ */
+public record ProductFilter(String query, Long categoryId,
+                            Double minEffectivePrice, Double maxEffectivePrice,
+                            Double minNormalizedPrice, Double maxNormalizedPrice) {
+
+    /**
+     * Filter from listing request parameters; the raw query is brought into search form
+     */
+    public static ProductFilter of(String rawQuery, Long categoryId,
+                                   Double minEffectivePrice, Double maxEffectivePrice,
+                                   Double minNormalizedPrice, Double maxNormalizedPrice) {
+        return new ProductFilter(TurkishTextNormalizer.normalizeQuery(rawQuery), categoryId,
+                minEffectivePrice, maxEffectivePrice, minNormalizedPrice, maxNormalizedPrice);
+    }
+
+    public static ProductFilter byQuery(String rawQuery) {
+        return of(rawQuery, null, null, null, null, null);
+    }
+
+    /**
+     * Whether at most the category is filtered on
+     */
+    public boolean isCategoryOnly() {
+        return query == null && !hasPriceBounds();
+    }
+
+    public boolean hasPriceBounds() {
+        return minEffectivePrice != null || maxEffectivePrice != null
+                || minNormalizedPrice != null || maxNormalizedPrice != null;
+    }
+
+    /**
+     * Whether a product's prices are within the bounds
+     *
+     * @param normalizedPrice null without a rate
+     */
+    public boolean matchesPrices(double effectivePrice, Double normalizedPrice) {
+        if ((minEffectivePrice != null && effectivePrice < minEffectivePrice)
+                || (maxEffectivePrice != null && effectivePrice > maxEffectivePrice)) {
+            return false;
+        }
+        if (minNormalizedPrice == null && maxNormalizedPrice == null) {
+            return true;
+        }
+        return normalizedPrice != null
+                && (minNormalizedPrice == null || normalizedPrice >= minNormalizedPrice)
+                && (maxNormalizedPrice == null || normalizedPrice <= maxNormalizedPrice);
+    }
+
+    /**
+     * Stable identity of the filter, e.g. for caching its total
+     */
+    public String key() {
+        return categoryId + "|" + minEffectivePrice + "|" + maxEffectivePrice + "|"
+                + minNormalizedPrice + "|" + maxNormalizedPrice + "|" + (query == null ? "" : query);
+    }
+}
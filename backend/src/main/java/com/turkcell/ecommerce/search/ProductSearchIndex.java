@@ -0,0 +1,526 @@
+package com.turkcell.ecommerce.search;
+
+import com.turkcell.ecommerce.entity.ProductEntity;
+import com.turkcell.ecommerce.event.CacheFlushEvent;
+import com.turkcell.ecommerce.event.ChangeType;
+import com.turkcell.ecommerce.event.ProductChangedEvent;
+import com.turkcell.ecommerce.fx.FxRates;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Function;
+
+/**
+ * In-process inverted index over product names and descriptions, ranked with BM25.
+ * <p>
+ * Each term keeps one postings list (document, term frequency) per field; a query is scored term
+ * at a time into a sparse accumulator sized to the postings it reads (not to the catalog), the name
+ * field weighted by {@code name-boost}, and the best hits are selected with a bounded heap. Every
+ * document remembers its position in each of its postings lists, so removing it from a list is a
+ * swap with the last entry rather than a scan. Text goes through {@link TurkishTextNormalizer}, so ranking folds
+ * case and diacritics like the LIKE search does. Matching is any-term (OR) on whole words, unlike
+ * the LIKE search's substring match of the whole query; documents with more and rarer query terms
+ * score higher. Per document only the field lengths and the distinct terms are kept, the terms being
+ * the dictionary's own strings.
+ * <p>
+ * Loaded from the database once the application is ready and then updated per product from the
+ * change events, after their transaction commits.
+ */
+@Slf4j
+@Component
+public class ProductSearchIndex {
+
+    private static final String SELECT_PRODUCTS = "SELECT id, name, description, category_id, price, discount_percent, currency FROM products";
+    private static final int INITIAL_CAPACITY = 1024;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final FxRates fxRates;
+    private final double k1;
+    private final double b;
+    private final double nameBoost;
+    private final int maxResults;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private volatile boolean ready;
+
+    // ---------- Documents (guarded by lock) ----------
+    private final Map<Long, Integer> ordinals = new HashMap<>();
+    private final Deque<Integer> freeOrdinals = new ArrayDeque<>();
+    private int ordinalLimit;
+    private int liveDocs;
+    private long totalNameLength;
+    private long totalDescriptionLength;
+    private long[] productIds = new long[INITIAL_CAPACITY];
+    private long[] categoryIds = new long[INITIAL_CAPACITY];
+    private double[] prices = new double[INITIAL_CAPACITY];
+    private double[] discounts = new double[INITIAL_CAPACITY]; // 0 when absent
+    private String[] currencies = new String[INITIAL_CAPACITY];
+    private int[] nameLengths = new int[INITIAL_CAPACITY];
+    private int[] descriptionLengths = new int[INITIAL_CAPACITY];
+    // Distinct terms of each field (the keys of terms) and the document's position in their postings (same order)
+    private String[][] nameTerms = new String[INITIAL_CAPACITY][];
+    private int[][] namePositions = new int[INITIAL_CAPACITY][];
+    private String[][] descriptionTerms = new String[INITIAL_CAPACITY][];
+    private int[][] descriptionPositions = new int[INITIAL_CAPACITY][];
+    private final Map<String, Term> terms = new HashMap<>();
+
+    public ProductSearchIndex(JdbcTemplate jdbcTemplate, FxRates fxRates,
+                              @Value("${ecommerce.search.bm25.k1:1.2}") double k1,
+                              @Value("${ecommerce.search.bm25.b:0.75}") double b,
+                              @Value("${ecommerce.search.bm25.name-boost:3.0}") double nameBoost,
+                              @Value("${ecommerce.search.bm25.max-results:1000}") int maxResults) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.fxRates = fxRates;
+        this.k1 = k1;
+        this.b = b;
+        this.nameBoost = nameBoost;
+        this.maxResults = maxResults;
+    }
+
+    /**
+     * Build the index once startup (including any snapshot restore) is done, and again on a cache flush
+     */
+    @EventListener({ApplicationReadyEvent.class, CacheFlushEvent.class})
+    public void load() {
+        long start = System.nanoTime();
+        lock.writeLock().lock();
+        try {
+            // Start over: events applied before the load are superseded by it
+            ordinals.clear();
+            freeOrdinals.clear();
+            terms.clear();
+            ordinalLimit = 0;
+            liveDocs = 0;
+            totalNameLength = 0;
+            totalDescriptionLength = 0;
+            jdbcTemplate.query(SELECT_PRODUCTS, rs -> {
+                addRow(rs);
+            });
+            ready = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.info("Product search index loaded {} products, {} terms in {} ms",
+                liveDocs, terms.size(), (System.nanoTime() - start) / 1_000_000);
+    }
+
+    /**
+     * Best {@code limit} (at most {@code max-results}) products for the filter's query, within the
+     * rest of the filter; empty when the index is not loaded, in which case the caller falls back to
+     * unranked search.
+     */
+    public Optional<Hits> search(ProductFilter filter, int limit) {
+        if (!ready) {
+            return Optional.empty();
+        }
+        String query = filter.query() == null ? "" : filter.query();
+        Long categoryId = filter.categoryId();
+        limit = Math.min(limit, maxResults);
+        Set<String> queryTerms = new HashSet<>(tokenize(query));
+        lock.readLock().lock();
+        try {
+            if (queryTerms.isEmpty() || liveDocs == 0) {
+                return Optional.of(new Hits(List.of(), 0));
+            }
+            double avgNameLength = Math.max(1.0, (double) totalNameLength / liveDocs);
+            double avgDescriptionLength = Math.max(1.0, (double) totalDescriptionLength / liveDocs);
+            List<Term> matchedTerms = new ArrayList<>(queryTerms.size());
+            long postingsRead = 0;
+            for (String text : queryTerms) {
+                Term term = terms.get(text);
+                if (term != null) {
+                    matchedTerms.add(term);
+                    postingsRead += term.name.size + term.description.size;
+                }
+            }
+            ScoreAccumulator scores = new ScoreAccumulator((int) Math.min(postingsRead, liveDocs));
+            for (Term term : matchedTerms) {
+                double idf = Math.log(1 + (liveDocs - term.docFrequency + 0.5) / (term.docFrequency + 0.5));
+                accumulate(term.name, nameLengths, idf * nameBoost, avgNameLength, scores);
+                accumulate(term.description, descriptionLengths, idf, avgDescriptionLength, scores);
+            }
+
+            // Min-heap of the best hits so far (accumulator slots); ties go to the lower product id
+            Comparator<Integer> worstFirst = Comparator.<Integer>comparingDouble(slot -> scores.scores[slot])
+                    .thenComparing(slot -> productIds[scores.doc(slot)], Comparator.reverseOrder());
+            PriorityQueue<Integer> best = new PriorityQueue<>(Math.min(limit, scores.size) + 1, worstFirst);
+            int total = 0;
+            for (int i = 0; i < scores.size; i++) {
+                int slot = scores.touched[i];
+                int doc = scores.doc(slot);
+                if (categoryId != null && categoryIds[doc] != categoryId) {
+                    continue;
+                }
+                if (filter.hasPriceBounds() && !filter.matchesPrices(
+                        ProductEntity.effectivePrice(prices[doc], discounts[doc]),
+                        fxRates.normalize(prices[doc], currencies[doc]))) {
+                    continue;
+                }
+                total++;
+                if (limit == 0) {
+                    continue;
+                }
+                if (best.size() < limit) {
+                    best.add(slot);
+                } else if (worstFirst.compare(slot, best.peek()) > 0) {
+                    best.poll();
+                    best.add(slot);
+                }
+            }
+            Long[] ranked = new Long[best.size()];
+            for (int i = ranked.length - 1; i >= 0; i--) {
+                ranked[i] = productIds[scores.doc(best.poll())];
+            }
+            return Optional.of(new Hits(Arrays.asList(ranked), total));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Add the BM25 contribution of one field's postings to the accumulator
+     */
+    private void accumulate(Postings postings, int[] fieldLengths, double weight, double avgLength,
+                            ScoreAccumulator scores) {
+        for (int i = 0; i < postings.size; i++) {
+            int doc = postings.docs[i];
+            int tf = postings.frequencies[i];
+            double norm = k1 * (1 - b + b * fieldLengths[doc] / avgLength);
+            scores.add(doc, (float) (weight * tf * (k1 + 1) / (tf + norm)));
+        }
+    }
+
+    /**
+     * Ranked product ids (best first) and the number of matching products
+     */
+    public record Hits(List<Long> productIds, int totalMatches) {
+    }
+
+    // ---------- Change events ----------
+
+    @TransactionalEventListener
+    public void onProductChanged(ProductChangedEvent event) {
+        lock.writeLock().lock();
+        try {
+            Integer doc = ordinals.get(event.productId());
+            if (event.type() == ChangeType.DELETED) {
+                if (doc != null) {
+                    removeDocument(doc);
+                }
+                return;
+            }
+            if (doc == null) {
+                if (event.type() == ChangeType.UPDATED) {
+                    // Partial update of a product we never saw: take the full row from the database
+                    jdbcTemplate.query(SELECT_PRODUCTS + " WHERE id = ?", rs -> {
+                        addRow(rs);
+                    }, event.productId());
+                    return;
+                }
+                Map<String, Object> changes = event.changes();
+                addDocument(event.productId(), (String) changes.get(ProductChangedEvent.NAME),
+                        (String) changes.get(ProductChangedEvent.DESCRIPTION),
+                        (Long) changes.get(ProductChangedEvent.CATEGORY_ID),
+                        (Double) changes.get(ProductChangedEvent.PRICE),
+                        (Double) changes.get(ProductChangedEvent.DISCOUNT_PERCENT),
+                        (String) changes.get(ProductChangedEvent.CURRENCY));
+                return;
+            }
+            Map<String, Object> changes = event.changes();
+            if (changes.containsKey(ProductChangedEvent.CATEGORY_ID)) {
+                categoryIds[doc] = (Long) changes.get(ProductChangedEvent.CATEGORY_ID);
+            }
+            if (changes.containsKey(ProductChangedEvent.PRICE)) {
+                prices[doc] = (Double) changes.get(ProductChangedEvent.PRICE);
+            }
+            if (changes.containsKey(ProductChangedEvent.CURRENCY)) {
+                currencies[doc] = (String) changes.get(ProductChangedEvent.CURRENCY);
+            }
+            if (changes.containsKey(ProductChangedEvent.DISCOUNT_PERCENT)) {
+                discounts[doc] = orZero((Double) changes.get(ProductChangedEvent.DISCOUNT_PERCENT));
+            }
+            if (changes.containsKey(ProductChangedEvent.NAME) || changes.containsKey(ProductChangedEvent.DESCRIPTION)) {
+                // The unchanged field is re-indexed from its postings, the text itself is not kept
+                FieldTerms name = changes.containsKey(ProductChangedEvent.NAME)
+                        ? FieldTerms.of((String) changes.get(ProductChangedEvent.NAME))
+                        : indexedTerms(nameTerms, namePositions, nameLengths, doc, term -> term.name);
+                FieldTerms description = changes.containsKey(ProductChangedEvent.DESCRIPTION)
+                        ? FieldTerms.of((String) changes.get(ProductChangedEvent.DESCRIPTION))
+                        : indexedTerms(descriptionTerms, descriptionPositions, descriptionLengths, doc,
+                                term -> term.description);
+                unindex(doc);
+                index(doc, name, description);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // ---------- Index maintenance (under the write lock) ----------
+
+    private void addRow(ResultSet rs) throws SQLException {
+        long productId = rs.getLong("id");
+        Integer existing = ordinals.get(productId);
+        if (existing != null) {
+            removeDocument(existing);
+        }
+        addDocument(productId, rs.getString("name"), rs.getString("description"), rs.getLong("category_id"),
+                rs.getDouble("price"), rs.getObject("discount_percent", Double.class), rs.getString("currency"));
+    }
+
+    private void addDocument(long productId, String name, String description, Long categoryId,
+                             Double price, Double discountPercent, String currency) {
+        int doc = freeOrdinals.isEmpty() ? ordinalLimit++ : freeOrdinals.pop();
+        ensureCapacity(ordinalLimit);
+        ordinals.put(productId, doc);
+        productIds[doc] = productId;
+        categoryIds[doc] = categoryId != null ? categoryId : 0L;
+        prices[doc] = orZero(price);
+        discounts[doc] = orZero(discountPercent);
+        currencies[doc] = currency;
+        liveDocs++;
+        index(doc, FieldTerms.of(name), FieldTerms.of(description));
+    }
+
+    private void removeDocument(int doc) {
+        unindex(doc);
+        ordinals.remove(productIds[doc]);
+        nameTerms[doc] = null;
+        namePositions[doc] = null;
+        descriptionTerms[doc] = null;
+        descriptionPositions[doc] = null;
+        freeOrdinals.push(doc);
+        liveDocs--;
+    }
+
+    private void index(int doc, FieldTerms name, FieldTerms description) {
+        nameLengths[doc] = name.length();
+        descriptionLengths[doc] = description.length();
+        totalNameLength += name.length();
+        totalDescriptionLength += description.length();
+        Set<String> union = new HashSet<>(name.frequencies().keySet());
+        union.addAll(description.frequencies().keySet());
+        for (String text : union) {
+            terms.computeIfAbsent(text, Term::new).docFrequency++;
+        }
+
+        nameTerms[doc] = new String[name.frequencies().size()];
+        namePositions[doc] = new int[nameTerms[doc].length];
+        int i = 0;
+        for (Map.Entry<String, Integer> entry : name.frequencies().entrySet()) {
+            Term term = terms.get(entry.getKey());
+            nameTerms[doc][i] = term.text;
+            namePositions[doc][i++] = term.name.add(doc, entry.getValue());
+        }
+        descriptionTerms[doc] = new String[description.frequencies().size()];
+        descriptionPositions[doc] = new int[descriptionTerms[doc].length];
+        i = 0;
+        for (Map.Entry<String, Integer> entry : description.frequencies().entrySet()) {
+            Term term = terms.get(entry.getKey());
+            descriptionTerms[doc][i] = term.text;
+            descriptionPositions[doc][i++] = term.description.add(doc, entry.getValue());
+        }
+    }
+
+    /**
+     * A document's indexed terms of one field with their frequencies, read back from the postings
+     */
+    private FieldTerms indexedTerms(String[][] fieldTerms, int[][] fieldPositions, int[] fieldLengths, int doc,
+                                    Function<Term, Postings> field) {
+        Map<String, Integer> frequencies = new HashMap<>();
+        for (int i = 0; i < fieldTerms[doc].length; i++) {
+            Postings postings = field.apply(terms.get(fieldTerms[doc][i]));
+            frequencies.put(fieldTerms[doc][i], postings.frequencies[fieldPositions[doc][i]]);
+        }
+        return new FieldTerms(frequencies, fieldLengths[doc]);
+    }
+
+    private void unindex(int doc) {
+        totalNameLength -= nameLengths[doc];
+        totalDescriptionLength -= descriptionLengths[doc];
+        for (int i = 0; i < nameTerms[doc].length; i++) {
+            int moved = terms.get(nameTerms[doc][i]).name.remove(namePositions[doc][i]);
+            if (moved >= 0) {
+                movePosition(nameTerms, namePositions, moved, nameTerms[doc][i], namePositions[doc][i]);
+            }
+        }
+        for (int i = 0; i < descriptionTerms[doc].length; i++) {
+            int moved = terms.get(descriptionTerms[doc][i]).description.remove(descriptionPositions[doc][i]);
+            if (moved >= 0) {
+                movePosition(descriptionTerms, descriptionPositions, moved, descriptionTerms[doc][i],
+                        descriptionPositions[doc][i]);
+            }
+        }
+        Set<String> union = new HashSet<>(Arrays.asList(nameTerms[doc]));
+        union.addAll(Arrays.asList(descriptionTerms[doc]));
+        for (String text : union) {
+            Term term = terms.get(text);
+            if (--term.docFrequency == 0) {
+                terms.remove(text);
+            }
+        }
+    }
+
+    /**
+     * Record that a document's entry in a term's postings (of one field) now sits at {@code position};
+     * costs the number of distinct terms of the document, not the length of the postings
+     */
+    private static void movePosition(String[][] fieldTerms, int[][] fieldPositions, int doc, String text,
+                                     int position) {
+        String[] docTerms = fieldTerms[doc];
+        for (int i = 0; i < docTerms.length; i++) {
+            if (docTerms[i].equals(text)) {
+                fieldPositions[doc][i] = position;
+                return;
+            }
+        }
+    }
+
+    private static double orZero(Double value) {
+        return value != null ? value : 0;
+    }
+
+    private static List<String> tokenize(String text) {
+        String normalized = TurkishTextNormalizer.normalize(text);
+        return normalized.isEmpty() ? List.of() : List.of(normalized.split(" "));
+    }
+
+    private void ensureCapacity(int required) {
+        if (required <= productIds.length) {
+            return;
+        }
+        int capacity = Math.max(required, productIds.length * 2);
+        productIds = Arrays.copyOf(productIds, capacity);
+        categoryIds = Arrays.copyOf(categoryIds, capacity);
+        prices = Arrays.copyOf(prices, capacity);
+        discounts = Arrays.copyOf(discounts, capacity);
+        currencies = Arrays.copyOf(currencies, capacity);
+        nameLengths = Arrays.copyOf(nameLengths, capacity);
+        descriptionLengths = Arrays.copyOf(descriptionLengths, capacity);
+        nameTerms = Arrays.copyOf(nameTerms, capacity);
+        namePositions = Arrays.copyOf(namePositions, capacity);
+        descriptionTerms = Arrays.copyOf(descriptionTerms, capacity);
+        descriptionPositions = Arrays.copyOf(descriptionPositions, capacity);
+    }
+
+    private static final class Term {
+        final String text;
+        final Postings name = new Postings();
+        final Postings description = new Postings();
+        int docFrequency;
+
+        Term(String text) {
+            this.text = text;
+        }
+    }
+
+    /**
+     * One field of a document: term frequencies and length in tokens
+     */
+    private record FieldTerms(Map<String, Integer> frequencies, int length) {
+
+        static FieldTerms of(String text) {
+            List<String> tokens = tokenize(text);
+            Map<String, Integer> frequencies = new HashMap<>();
+            for (String token : tokens) {
+                frequencies.merge(token, 1, Integer::sum);
+            }
+            return new FieldTerms(frequencies, tokens.size());
+        }
+    }
+
+    /**
+     * Unordered (document, term frequency) pairs; removal swaps the last pair in
+     */
+    private static final class Postings {
+        int[] docs = new int[2];
+        int[] frequencies = new int[2];
+        int size;
+
+        /**
+         * @return position of the pair
+         */
+        int add(int doc, int frequency) {
+            if (size == docs.length) {
+                docs = Arrays.copyOf(docs, size * 2);
+                frequencies = Arrays.copyOf(frequencies, size * 2);
+            }
+            docs[size] = doc;
+            frequencies[size] = frequency;
+            return size++;
+        }
+
+        /**
+         * Remove the pair at a position
+         *
+         * @return the document moved into that position, or -1 if it was the last one
+         */
+        int remove(int position) {
+            size--;
+            if (position == size) {
+                return -1;
+            }
+            docs[position] = docs[size];
+            frequencies[position] = frequencies[size];
+            return docs[position];
+        }
+    }
+
+    /**
+     * Scores of the documents a query reaches: an open-addressing table (linear probing) with room
+     * for the expected number of documents at a load of at most one half, plus the touched slots in
+     * insertion order
+     */
+    private static final class ScoreAccumulator {
+        final int[] keys; // document + 1; 0 marks a free slot
+        final float[] scores;
+        final int[] touched;
+        final int shift;
+        int size;
+
+        ScoreAccumulator(int expectedDocs) {
+            int capacity = Integer.highestOneBit(Math.max(1, expectedDocs) * 2) * 2;
+            keys = new int[capacity];
+            scores = new float[capacity];
+            touched = new int[expectedDocs];
+            shift = 32 - Integer.numberOfTrailingZeros(capacity);
+        }
+
+        void add(int doc, float score) {
+            int mask = keys.length - 1;
+            // Fibonacci hashing spreads consecutive ordinals
+            int slot = (doc * 0x9E3779B9) >>> shift;
+            while (keys[slot] != 0 && keys[slot] != doc + 1) {
+                slot = (slot + 1) & mask;
+            }
+            if (keys[slot] == 0) {
+                keys[slot] = doc + 1;
+                touched[size++] = slot;
+            }
+            scores[slot] += score;
+        }
+
+        int doc(int slot) {
+            return keys[slot] - 1;
+        }
+    }
+}
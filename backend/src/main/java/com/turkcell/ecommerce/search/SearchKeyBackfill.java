@@ -0,0 +1,98 @@
+package com.turkcell.ecommerce.search;
+
+import com.turkcell.ecommerce.entity.ProductEntity;
+import com.turkcell.ecommerce.fx.FxRates;
+import com.turkcell.ecommerce.service.CatalogSnapshotService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Fills the derived search/sort columns (and the effective and normalized prices) of products written without
+ * {@code ProductEntity}'s callbacks, i.e. the seed data. Runs as a lifecycle phase after the snapshot
+ * restore and before the web server starts, so no request sees a product without its search form.
+ */
+@Slf4j
+@Component
+public class SearchKeyBackfill implements SmartLifecycle {
+
+    private static final String SELECT_MISSING =
+            "SELECT id, name, description FROM products " +
+            "WHERE name_search IS NULL OR description_search IS NULL OR name_sort_key IS NULL";
+    private static final String UPDATE_KEYS =
+            "UPDATE products SET name_search = ?, description_search = ?, name_sort_key = ? WHERE id = ?";
+
+    private static final String UPDATE_EFFECTIVE_PRICES =
+            "UPDATE products SET effective_price = " + ProductEntity.effectivePriceSql("price", "discount_percent") +
+            " WHERE effective_price IS NULL";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final FxRates fxRates;
+    private final int batchSize;
+    private volatile boolean running;
+
+    public SearchKeyBackfill(JdbcTemplate jdbcTemplate, FxRates fxRates,
+                             @Value("${ecommerce.search.backfill-batch-size:500}") int batchSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.fxRates = fxRates;
+        this.batchSize = batchSize;
+    }
+
+    @Override
+    public void start() {
+        running = true;
+        long start = System.nanoTime();
+        List<Object[]> batch = new ArrayList<>(batchSize);
+        int[] total = {0};
+        jdbcTemplate.query(SELECT_MISSING, rs -> {
+            String name = rs.getString("name");
+            String description = rs.getString("description");
+            batch.add(new Object[]{
+                    TurkishTextNormalizer.normalize(name),
+                    TurkishTextNormalizer.normalize(description),
+                    TurkishTextNormalizer.sortKey(name),
+                    rs.getLong("id")});
+            if (batch.size() == batchSize) {
+                total[0] += flush(batch);
+            }
+        });
+        total[0] += flush(batch);
+        int prices = jdbcTemplate.update(UPDATE_EFFECTIVE_PRICES);
+        int normalized = jdbcTemplate.update("UPDATE products SET normalized_price = "
+                + fxRates.normalizedPriceSql("price", "currency") + " WHERE normalized_price IS NULL"
+                + " AND (currency = ? OR currency IN (SELECT currency FROM fx_rates))", fxRates.baseCurrency());
+        if (total[0] > 0 || prices > 0 || normalized > 0) {
+            log.info("Backfilled search keys of {} products, effective prices of {} and normalized prices of {} in {} ms",
+                    total[0], prices, normalized, (System.nanoTime() - start) / 1_000_000);
+        }
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    @Override
+    public int getPhase() {
+        return CatalogSnapshotService.RESTORE_PHASE + 1;
+    }
+
+    private int flush(List<Object[]> batch) {
+        int size = batch.size();
+        if (size > 0) {
+            jdbcTemplate.batchUpdate(UPDATE_KEYS, batch);
+            batch.clear();
+        }
+        return size;
+    }
+}
@@ -0,0 +1,93 @@
+package com.turkcell.ecommerce.search;
+
+import java.text.CollationKey;
+import java.text.Collator;
+import java.text.Normalizer;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+/**
+ * Turkish-aware text folding for search, and Turkish collation keys for sorting.
+ * <p>
+ * The search form folds case the way Turkish users type: I, İ, ı and i all become i, so "İPHONE",
+ * "IPHONE" and "ıphone" all match "iphone". Diacritics are dropped (ç→c, ğ→g, ö→o, ş→s, ü→u) and
+ * runs of anything but letters and digits collapse to one space. Stored columns and queries must
+ * both go through {@link #normalize} for LIKE to match.
+ */
+public final class TurkishTextNormalizer {
+
+    public static final Locale TURKISH = Locale.forLanguageTag("tr-TR");
+    /** Longer keys are truncated, which only matters for names equal in their first ~300 characters */
+    public static final int MAX_SORT_KEY_BYTES = 2048;
+
+    private static final Pattern MARKS = Pattern.compile("\\p{M}+");
+    private static final Pattern SEPARATORS = Pattern.compile("[^\\p{L}\\p{N}]+");
+    // Collator instances are not thread-safe
+    private static final ThreadLocal<Collator> COLLATOR = ThreadLocal.withInitial(() -> Collator.getInstance(TURKISH));
+
+    private TurkishTextNormalizer() {
+    }
+
+    /**
+     * Search form of a text; empty for null
+     */
+    public static String normalize(String text) {
+        if (text == null) {
+            return "";
+        }
+        String ascii = normalizeAscii(text);
+        if (ascii != null) {
+            return ascii;
+        }
+        // ı has no decomposition; İ decomposes to I + combining dot above, which is stripped below
+        String decomposed = Normalizer.normalize(text.replace('ı', 'i'), Normalizer.Form.NFD);
+        String folded = MARKS.matcher(decomposed).replaceAll("").toLowerCase(Locale.ROOT);
+        return SEPARATORS.matcher(folded).replaceAll(" ").trim();
+    }
+
+    /**
+     * Search form of a user query, or null when nothing searchable is left (no filter)
+     */
+    public static String normalizeQuery(String query) {
+        String normalized = normalize(query);
+        return normalized.isEmpty() ? null : normalized;
+    }
+
+    /**
+     * Turkish collation key (tertiary strength) of a text, to be compared as unsigned bytes
+     * (at most {@link #MAX_SORT_KEY_BYTES}); null for null
+     */
+    public static byte[] sortKey(String text) {
+        if (text == null) {
+            return null;
+        }
+        CollationKey key = COLLATOR.get().getCollationKey(text);
+        byte[] bytes = key.toByteArray();
+        return bytes.length > MAX_SORT_KEY_BYTES ? Arrays.copyOf(bytes, MAX_SORT_KEY_BYTES) : bytes;
+    }
+
+    /**
+     * Fast path of {@link #normalize} for pure ASCII text; null if the text has other characters
+     */
+    private static String normalizeAscii(String text) {
+        StringBuilder normalized = new StringBuilder(text.length());
+        boolean separator = false;
+        for (int i = 0; i < text.length(); i++) {
+            char ch = text.charAt(i);
+            if (ch >= 0x80) {
+                return null;
+            }
+            if (Character.isLetterOrDigit(ch)) {
+                if (separator && !normalized.isEmpty()) {
+                    normalized.append(' ');
+                }
+                separator = false;
+                normalized.append(Character.toLowerCase(ch));
+            } else {
+                separator = true;
+            }
+        }
+        return normalized.toString();
+    }
+}
@@ -0,0 +1,386 @@
+package com.turkcell.ecommerce.service;
+
+import com.turkcell.ecommerce.entity.ProductEntity;
+import com.turkcell.ecommerce.fx.FxRates;
+import com.turkcell.ecommerce.search.TurkishTextNormalizer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.context.event.ContextClosedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedOutputStream;
+
+/**
+ * Periodically writes the whole catalog (categories + products) to a compact, checksummed
+ * binary file and bulk-restores it on startup, so an in-memory database survives restarts.
+ * <p>
+ * File layout (big-endian):
+ * <pre>
+ * header   : magic(int) version(int) writtenAt(long epoch millis)
+ * category : id(long) name(str) createdAt(ts) updatedAt(ts)                      x categoryCount
+ * product  : id(long) sku(str) name(str) description(str) price(double) currency(str)
+ *            inStock(byte) imageUrl(str) discountPercent(double) rating(double)
+ *            categoryId(long) createdAt(ts) updatedAt(ts)                         x productCount
+ * trailer  : categoryCount(int) productCount(int) crc32(long)
+ * </pre>
+ * Strings are a UTF-8 length prefix (-1 for null) followed by the bytes, nullable doubles use NaN
+ * and timestamps are epoch seconds + nanos in UTC. The CRC covers every byte before it.
+ * <p>
+ * The restore runs as a lifecycle phase ahead of the web server's, so no request sees a partly
+ * restored catalog. Restored products are written with their derived search, sort and price columns.
+ */
+@Slf4j
+@Service
+@ConditionalOnProperty(prefix = "ecommerce.snapshot", name = "enabled", havingValue = "true")
+public class CatalogSnapshotService implements SmartLifecycle {
+
+    /** Lifecycle phase of the restore: before everything else, the web server included */
+    public static final int RESTORE_PHASE = Integer.MIN_VALUE;
+
+    private static final int MAGIC = 0x43415453; // "CATS"
+    private static final int VERSION = 1;
+    private static final int HEADER_BYTES = Integer.BYTES + Integer.BYTES + Long.BYTES;
+    private static final int TRAILER_BYTES = Integer.BYTES + Integer.BYTES + Long.BYTES;
+
+    private static final String SELECT_CATEGORIES =
+            "SELECT id, name, created_at, updated_at FROM categories ORDER BY id";
+    private static final String SELECT_PRODUCTS =
+            "SELECT id, sku, name, description, price, currency, in_stock, image_url, discount_percent, " +
+            "rating, category_id, created_at, updated_at FROM products ORDER BY id";
+    private static final String INSERT_CATEGORY =
+            "INSERT INTO categories (id, name, created_at, updated_at) VALUES (?, ?, ?, ?)";
+    private static final String INSERT_PRODUCT =
+            "INSERT INTO products (id, sku, name, description, price, currency, in_stock, image_url, " +
+            "discount_percent, rating, category_id, created_at, updated_at, " +
+            "name_search, description_search, name_sort_key, effective_price, normalized_price) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final FxRates fxRates;
+    private final Path snapshotPath;
+    private final int batchSize;
+    private volatile boolean running;
+
+    public CatalogSnapshotService(JdbcTemplate jdbcTemplate,
+                                  TransactionTemplate transactionTemplate,
+                                  FxRates fxRates,
+                                  @Value("${ecommerce.snapshot.path:./data/catalog.snapshot}") Path snapshotPath,
+                                  @Value("${ecommerce.snapshot.batch-size:5000}") int batchSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.fxRates = fxRates;
+        this.snapshotPath = snapshotPath;
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Restore the catalog from the last snapshot before the web server starts
+     */
+    @Override
+    public void start() {
+        running = true;
+        if (!Files.exists(snapshotPath)) {
+            log.info("No catalog snapshot at {}, starting from seed data", snapshotPath);
+            return;
+        }
+        try {
+            restore();
+        } catch (IOException | IllegalStateException e) {
+            log.warn("Ignoring unreadable catalog snapshot {}: {}", snapshotPath, e.getMessage());
+        }
+    }
+
+    // The final snapshot is written on ContextClosedEvent, which precedes lifecycle stop
+    @Override
+    public void stop() {
+        running = false;
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    @Override
+    public int getPhase() {
+        return RESTORE_PHASE;
+    }
+
+    /**
+     * Write a snapshot on a fixed interval
+     */
+    @Scheduled(initialDelayString = "${ecommerce.snapshot.interval-ms:300000}",
+               fixedDelayString = "${ecommerce.snapshot.interval-ms:300000}")
+    public void scheduledSnapshot() {
+        writeSnapshotQuietly();
+    }
+
+    /**
+     * Write a final snapshot while the database is still available (before beans are destroyed)
+     */
+    @EventListener(ContextClosedEvent.class)
+    public void onShutdown() {
+        writeSnapshotQuietly();
+    }
+
+    /**
+     * Write the current catalog to the snapshot file (atomically replaces the previous one)
+     */
+    public synchronized void writeSnapshot() throws IOException {
+        long start = System.nanoTime();
+        Path parent = snapshotPath.toAbsolutePath().getParent();
+        Files.createDirectories(parent);
+        Path tmp = Files.createTempFile(parent, "catalog", ".snapshot.tmp");
+
+        CRC32 crc = new CRC32();
+        int[] counts = new int[2];
+        try (OutputStream file = new BufferedOutputStream(Files.newOutputStream(tmp), 1 << 16);
+             DataOutputStream out = new DataOutputStream(new CheckedOutputStream(file, crc))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeLong(System.currentTimeMillis());
+
+            // Both reads run in one read-only transaction so categories and products are consistent
+            transactionTemplate.executeWithoutResult(status -> {
+                jdbcTemplate.query(SELECT_CATEGORIES, rs -> {
+                    writeCategory(out, rs);
+                    counts[0]++;
+                });
+                jdbcTemplate.query(SELECT_PRODUCTS, rs -> {
+                    writeProduct(out, rs);
+                    counts[1]++;
+                });
+            });
+
+            out.writeInt(counts[0]);
+            out.writeInt(counts[1]);
+            out.flush();
+            new DataOutputStream(file).writeLong(crc.getValue());
+        } catch (RuntimeException e) {
+            Files.deleteIfExists(tmp);
+            throw e;
+        }
+
+        Files.move(tmp, snapshotPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        log.info("Wrote catalog snapshot ({} categories, {} products, {} bytes) in {} ms",
+                counts[0], counts[1], Files.size(snapshotPath), (System.nanoTime() - start) / 1_000_000);
+    }
+
+    /**
+     * Replace the database contents with the snapshot using batched inserts
+     */
+    public synchronized void restore() throws IOException {
+        long start = System.nanoTime();
+        try (FileChannel channel = FileChannel.open(snapshotPath, StandardOpenOption.READ)) {
+            long fileSize = channel.size();
+            if (fileSize < HEADER_BYTES + TRAILER_BYTES || fileSize > Integer.MAX_VALUE) {
+                throw new IllegalStateException("unexpected snapshot size " + fileSize);
+            }
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, fileSize);
+
+            int crcOffset = (int) fileSize - Long.BYTES;
+            CRC32 crc = new CRC32();
+            crc.update(buffer.slice(0, crcOffset));
+            if (crc.getValue() != buffer.getLong(crcOffset)) {
+                throw new IllegalStateException("checksum mismatch");
+            }
+            if (buffer.getInt(0) != MAGIC || buffer.getInt(Integer.BYTES) != VERSION) {
+                throw new IllegalStateException("unsupported snapshot format");
+            }
+            int categoryCount = buffer.getInt(crcOffset - 2 * Integer.BYTES);
+            int productCount = buffer.getInt(crcOffset - Integer.BYTES);
+
+            buffer.position(HEADER_BYTES);
+            transactionTemplate.executeWithoutResult(status -> {
+                jdbcTemplate.update("DELETE FROM products");
+                jdbcTemplate.update("DELETE FROM categories");
+                insertInBatches(INSERT_CATEGORY, categoryCount, ps -> readCategory(buffer, ps));
+                insertInBatches(INSERT_PRODUCT, productCount, ps -> readProduct(buffer, ps, fxRates));
+                restartIdentity("categories");
+                restartIdentity("products");
+            });
+
+            log.info("Restored catalog snapshot ({} categories, {} products) in {} ms",
+                    categoryCount, productCount, (System.nanoTime() - start) / 1_000_000);
+        }
+    }
+
+    private void writeSnapshotQuietly() {
+        try {
+            writeSnapshot();
+        } catch (IOException | RuntimeException e) {
+            log.warn("Catalog snapshot failed: {}", e.getMessage());
+        }
+    }
+
+    private void insertInBatches(String sql, int total, RowBinder binder) {
+        for (int offset = 0; offset < total; offset += batchSize) {
+            int chunk = Math.min(batchSize, total - offset);
+            jdbcTemplate.batchUpdate(sql, new BatchPreparedStatementSetter() {
+                @Override
+                public void setValues(PreparedStatement ps, int i) throws SQLException {
+                    binder.bind(ps);
+                }
+
+                @Override
+                public int getBatchSize() {
+                    return chunk;
+                }
+            });
+        }
+    }
+
+    private void restartIdentity(String table) {
+        Long maxId = jdbcTemplate.queryForObject("SELECT COALESCE(MAX(id), 0) FROM " + table, Long.class);
+        jdbcTemplate.execute("ALTER TABLE " + table + " ALTER COLUMN id RESTART WITH " + (maxId + 1));
+    }
+
+    // ---------- Encoding ----------
+
+    private static void writeCategory(DataOutputStream out, ResultSet rs) throws SQLException {
+        try {
+            out.writeLong(rs.getLong("id"));
+            writeString(out, rs.getString("name"));
+            writeTimestamp(out, rs.getObject("created_at", OffsetDateTime.class));
+            writeTimestamp(out, rs.getObject("updated_at", OffsetDateTime.class));
+        } catch (IOException e) {
+            throw new SQLException("Failed to write category snapshot record", e);
+        }
+    }
+
+    private static void writeProduct(DataOutputStream out, ResultSet rs) throws SQLException {
+        try {
+            out.writeLong(rs.getLong("id"));
+            writeString(out, rs.getString("sku"));
+            writeString(out, rs.getString("name"));
+            writeString(out, rs.getString("description"));
+            out.writeDouble(rs.getDouble("price"));
+            writeString(out, rs.getString("currency"));
+            out.writeByte(rs.getBoolean("in_stock") ? 1 : 0);
+            writeString(out, rs.getString("image_url"));
+            writeNullableDouble(out, rs, "discount_percent");
+            writeNullableDouble(out, rs, "rating");
+            out.writeLong(rs.getLong("category_id"));
+            writeTimestamp(out, rs.getObject("created_at", OffsetDateTime.class));
+            writeTimestamp(out, rs.getObject("updated_at", OffsetDateTime.class));
+        } catch (IOException e) {
+            throw new SQLException("Failed to write product snapshot record", e);
+        }
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        if (value == null) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static void writeNullableDouble(DataOutputStream out, ResultSet rs, String column)
+            throws SQLException, IOException {
+        double value = rs.getDouble(column);
+        out.writeDouble(rs.wasNull() ? Double.NaN : value);
+    }
+
+    private static void writeTimestamp(DataOutputStream out, OffsetDateTime value) throws IOException {
+        Instant instant = value.toInstant();
+        out.writeLong(instant.getEpochSecond());
+        out.writeInt(instant.getNano());
+    }
+
+    // ---------- Decoding ----------
+
+    private static void readCategory(ByteBuffer in, PreparedStatement ps) throws SQLException {
+        ps.setLong(1, in.getLong());
+        ps.setString(2, readString(in));
+        ps.setObject(3, readTimestamp(in));
+        ps.setObject(4, readTimestamp(in));
+    }
+
+    /**
+     * Bind a product record, followed by the columns derived from it
+     */
+    private static void readProduct(ByteBuffer in, PreparedStatement ps, FxRates fxRates) throws SQLException {
+        ps.setLong(1, in.getLong());
+        ps.setString(2, readString(in));
+        String name = readString(in);
+        ps.setString(3, name);
+        String description = readString(in);
+        ps.setString(4, description);
+        double price = in.getDouble();
+        ps.setDouble(5, price);
+        String currency = readString(in);
+        ps.setString(6, currency);
+        ps.setBoolean(7, in.get() == 1);
+        ps.setString(8, readString(in));
+        double discountPercent = in.getDouble();
+        setNullableDouble(ps, 9, discountPercent);
+        setNullableDouble(ps, 10, in.getDouble());
+        ps.setLong(11, in.getLong());
+        ps.setObject(12, readTimestamp(in));
+        ps.setObject(13, readTimestamp(in));
+        ps.setString(14, TurkishTextNormalizer.normalize(name));
+        ps.setString(15, TurkishTextNormalizer.normalize(description));
+        ps.setBytes(16, TurkishTextNormalizer.sortKey(name));
+        ps.setDouble(17, ProductEntity.effectivePrice(price, Double.isNaN(discountPercent) ? null : discountPercent));
+        Double normalizedPrice = fxRates.normalize(price, currency);
+        setNullableDouble(ps, 18, normalizedPrice != null ? normalizedPrice : Double.NaN);
+    }
+
+    private static String readString(ByteBuffer in) {
+        int length = in.getInt();
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        in.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static void setNullableDouble(PreparedStatement ps, int index, double value) throws SQLException {
+        if (Double.isNaN(value)) {
+            ps.setNull(index, Types.DOUBLE);
+        } else {
+            ps.setDouble(index, value);
+        }
+    }
+
+    private static OffsetDateTime readTimestamp(ByteBuffer in) {
+        return Instant.ofEpochSecond(in.getLong(), in.getInt()).atOffset(ZoneOffset.UTC);
+    }
+
+    @FunctionalInterface
+    private interface RowBinder {
+        void bind(PreparedStatement ps) throws SQLException;
+    }
+}
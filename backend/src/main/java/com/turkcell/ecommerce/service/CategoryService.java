@@ -1,18 +1,29 @@
 package com.turkcell.ecommerce.service;
 
+import com.turkcell.ecommerce.dto.CategoryMoveResponse;
 import com.turkcell.ecommerce.dto.CategoryResponse;
 import com.turkcell.ecommerce.dto.CreateCategoryRequest;
+import com.turkcell.ecommerce.dto.MoveProductsRequest;
 import com.turkcell.ecommerce.dto.UpdateCategoryRequest;
 import com.turkcell.ecommerce.entity.CategoryEntity;
+import com.turkcell.ecommerce.event.CategoryChangedEvent;
+import com.turkcell.ecommerce.event.ChangeType;
+import com.turkcell.ecommerce.event.ProductChangedEvent;
 import com.turkcell.ecommerce.exception.CategoryHasProductsException;
 import com.turkcell.ecommerce.exception.DuplicateCategoryNameException;
+import com.turkcell.ecommerce.exception.InvalidCategoryMoveException;
 import com.turkcell.ecommerce.exception.ResourceNotFoundException;
 import com.turkcell.ecommerce.repository.CategoryRepository;
 import com.turkcell.ecommerce.repository.ProductRepository;
-import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.time.OffsetDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.stream.Collectors;
 
@@ -20,11 +31,23 @@ import java.util.stream.Collectors;
  * Service for category business logic
  */
 @Service
-@RequiredArgsConstructor
 public class CategoryService {
 
     private final CategoryRepository categoryRepository;
     private final ProductRepository productRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionTemplate transactionTemplate;
+    private final int moveChunkSize;
+
+    public CategoryService(CategoryRepository categoryRepository, ProductRepository productRepository,
+                           ApplicationEventPublisher eventPublisher, TransactionTemplate transactionTemplate,
+                           @Value("${ecommerce.category-move.chunk-size:1000}") int moveChunkSize) {
+        this.categoryRepository = categoryRepository;
+        this.productRepository = productRepository;
+        this.eventPublisher = eventPublisher;
+        this.transactionTemplate = transactionTemplate;
+        this.moveChunkSize = moveChunkSize;
+    }
 
     /**
      * Get all categories
@@ -61,6 +84,8 @@ public class CategoryService {
         category.setName(request.getName());
 
         CategoryEntity saved = categoryRepository.save(category);
+        eventPublisher.publishEvent(new CategoryChangedEvent(
+                ChangeType.CREATED, saved.getId(), saved.getName(), saved.getUpdatedAt()));
         return toResponse(saved);
     }
 
@@ -78,7 +103,9 @@ public class CategoryService {
         }
 
         category.setName(request.getName());
-        CategoryEntity updated = categoryRepository.save(category);
+        CategoryEntity updated = categoryRepository.saveAndFlush(category);
+        eventPublisher.publishEvent(new CategoryChangedEvent(
+                ChangeType.UPDATED, updated.getId(), updated.getName(), updated.getUpdatedAt()));
         return toResponse(updated);
     }
 
@@ -96,7 +123,111 @@ public class CategoryService {
             throw new CategoryHasProductsException("Cannot delete category with id " + id + " because it has products");
         }
 
-        categoryRepository.deleteById(id);
+        categoryRepository.deleteCategoryById(id);
+        eventPublisher.publishEvent(new CategoryChangedEvent(ChangeType.DELETED, id, null, null));
+    }
+
+    /**
+     * Move products (all of them, or the listed ones) from one category to another.
+     * Runs as chunked bulk updates, each in its own transaction, so a large move never holds
+     * locks on the whole category or loads its product collection.
+     */
+    public CategoryMoveResponse moveProducts(Long sourceId, MoveProductsRequest request) {
+        Long targetId = request.getTargetCategoryId();
+        validateMove(sourceId, targetId);
+
+        long moved;
+        List<Long> productIds = request.getProductIds();
+        if (productIds == null) {
+            moved = moveAll(sourceId, targetId);
+        } else {
+            List<Long> distinctIds = productIds.stream().distinct().toList();
+            moved = 0;
+            for (int from = 0; from < distinctIds.size(); from += moveChunkSize) {
+                List<Long> chunk = distinctIds.subList(from, Math.min(from + moveChunkSize, distinctIds.size()));
+                moved += transactionTemplate.execute(status -> moveChunk(sourceId, targetId, chunk).size());
+            }
+        }
+        return toMoveResponse(sourceId, targetId, moved, false);
+    }
+
+    /**
+     * Move every product of the source category to the target category, then delete the source
+     */
+    public CategoryMoveResponse mergeCategory(Long sourceId, Long targetId) {
+        validateMove(sourceId, targetId);
+        long moved = moveAll(sourceId, targetId);
+
+        // Products created in the source meanwhile are picked up in the same transaction as the delete
+        try {
+            moved += transactionTemplate.execute(status -> {
+                long stragglers = moveAll(sourceId, targetId, true);
+                categoryRepository.deleteCategoryById(sourceId);
+                eventPublisher.publishEvent(new CategoryChangedEvent(ChangeType.DELETED, sourceId, null, null));
+                return stragglers;
+            });
+        } catch (DataIntegrityViolationException ex) {
+            throw new CategoryHasProductsException(
+                    "Cannot delete category with id " + sourceId + " because products were added to it during the merge");
+        }
+        return toMoveResponse(sourceId, targetId, moved, true);
+    }
+
+    private void validateMove(Long sourceId, Long targetId) {
+        if (sourceId.equals(targetId)) {
+            throw new InvalidCategoryMoveException("Source and target category must be different");
+        }
+        if (!categoryRepository.existsById(sourceId)) {
+            throw new ResourceNotFoundException("Category not found with id: " + sourceId);
+        }
+        if (!categoryRepository.existsById(targetId)) {
+            throw new ResourceNotFoundException("Category not found with id: " + targetId);
+        }
+    }
+
+    private long moveAll(Long sourceId, Long targetId) {
+        return moveAll(sourceId, targetId, false);
+    }
+
+    /**
+     * Move chunks until the source is empty, one transaction per chunk unless already inside one
+     */
+    private long moveAll(Long sourceId, Long targetId, boolean inTransaction) {
+        long moved = 0;
+        int count;
+        do {
+            count = inTransaction
+                    ? moveChunk(sourceId, targetId, null).size()
+                    : transactionTemplate.execute(status -> moveChunk(sourceId, targetId, null).size());
+            moved += count;
+        } while (count == moveChunkSize);
+        return moved;
+    }
+
+    /**
+     * Move one chunk and publish a change per product, keeping the read model, outbox and caches in step
+     */
+    private List<Long> moveChunk(Long sourceId, Long targetId, Collection<Long> productIds) {
+        OffsetDateTime now = OffsetDateTime.now();
+        List<Long> moved;
+        try {
+            moved = productRepository.moveToCategory(sourceId, targetId, productIds, moveChunkSize, now);
+        } catch (DataIntegrityViolationException ex) {
+            throw new ResourceNotFoundException("Category not found with id: " + targetId);
+        }
+        for (Long productId : moved) {
+            eventPublisher.publishEvent(ProductChangedEvent.categoryChanged(productId, sourceId, targetId, now));
+        }
+        return moved;
+    }
+
+    private CategoryMoveResponse toMoveResponse(Long sourceId, Long targetId, long moved, boolean sourceDeleted) {
+        return CategoryMoveResponse.builder()
+                .sourceCategoryId(String.valueOf(sourceId))
+                .targetCategoryId(String.valueOf(targetId))
+                .movedProducts(moved)
+                .sourceDeleted(sourceDeleted)
+                .build();
     }
 
     /**
@@ -0,0 +1,68 @@
+package com.turkcell.ecommerce.service;
+
+import com.turkcell.ecommerce.dto.v3.FxRateV3;
+import com.turkcell.ecommerce.dto.v3.UpdateFxRateV3Request;
+import com.turkcell.ecommerce.entity.FxRateEntity;
+import com.turkcell.ecommerce.event.FxRateChangedEvent;
+import com.turkcell.ecommerce.exception.InvalidFxRateException;
+import com.turkcell.ecommerce.fx.FxRates;
+import com.turkcell.ecommerce.repository.FxRateRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.OffsetDateTime;
+import java.util.List;
+
+/**
+ * Service for exchange rates; products are re-normalized in the background after a change
+ * (see {@code PriceRenormalizer})
+ */
+@Service
+@RequiredArgsConstructor
+public class FxRateService {
+
+    private final FxRateRepository fxRateRepository;
+    private final FxRates fxRates;
+    private final ApplicationEventPublisher eventPublisher;
+
+    /**
+     * Stored rates; the base currency's rate is fixed at 1, so a row for it (e.g. left over from a
+     * different base currency setting) is not listed
+     */
+    @Transactional(readOnly = true)
+    public List<FxRateV3> listRates() {
+        return fxRateRepository.findAll(Sort.by("currency")).stream()
+                .filter(rate -> !rate.getCurrency().equals(fxRates.baseCurrency()))
+                .map(this::toFxRateV3)
+                .toList();
+    }
+
+    /**
+     * Create or replace the rate of a currency
+     */
+    @Transactional
+    public FxRateV3 setRate(String currency, UpdateFxRateV3Request request) {
+        if (currency.equals(fxRates.baseCurrency())) {
+            throw new InvalidFxRateException("The rate of the base currency " + currency + " is fixed at 1");
+        }
+        FxRateEntity rate = fxRateRepository.findById(currency)
+                .orElseGet(() -> FxRateEntity.builder().currency(currency).build());
+        rate.setRateToBase(request.getRateToBase());
+        rate.setUpdatedAt(OffsetDateTime.now());
+        FxRateEntity saved = fxRateRepository.save(rate);
+        eventPublisher.publishEvent(new FxRateChangedEvent(currency, saved.getRateToBase()));
+        return toFxRateV3(saved);
+    }
+
+    private FxRateV3 toFxRateV3(FxRateEntity rate) {
+        return FxRateV3.builder()
+                .currency(rate.getCurrency())
+                .baseCurrency(fxRates.baseCurrency())
+                .rateToBase(rate.getRateToBase())
+                .updatedAt(rate.getUpdatedAt())
+                .build();
+    }
+}
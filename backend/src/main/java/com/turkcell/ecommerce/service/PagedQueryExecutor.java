@@ -0,0 +1,178 @@
+package com.turkcell.ecommerce.service;
+
+import com.turkcell.ecommerce.event.CacheFlushEvent;
+import com.turkcell.ecommerce.event.ChangeType;
+import com.turkcell.ecommerce.event.FxRateChangedEvent;
+import com.turkcell.ecommerce.event.ProductChangedEvent;
+import com.turkcell.ecommerce.web.ClientContext;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.support.PageableExecutionUtils;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+/**
+ * Assembles pages of product listings from separate content and COUNT queries.
+ * <p>
+ * The COUNT runs on a virtual thread, in its own read-only transaction and connection, while the
+ * content query runs on the request thread, so a page costs the slower of the two scans rather than
+ * their sum. Since it starts before the page is known, the COUNT always runs in parallel mode; only
+ * the sequential mode skips it when the page itself shows the total (a partial page).
+ * <p>
+ * A listing's transaction already holds a connection while it waits for its COUNT, which needs a
+ * second one from the same pool. At most {@code max-parallel-counts} COUNTs run in parallel, fewer
+ * than the pool's connections, and a listing that finds no free permit counts sequentially on its
+ * own connection. So not every connection can be held by a listing waiting for its COUNT, and a
+ * burst of listings cannot deadlock the pool.
+ * <p>
+ * Totals are cached per filter key for a short TTL. The cache is dropped when a committed change can
+ * alter filter membership (create, delete, a name, description, category or price change, or an
+ * exchange rate change). Each drop starts a new generation, and a total is only served in the
+ * generation its COUNT started in, so a COUNT that overlapped a change never serves its total after it.
+ */
+@Component
+public class PagedQueryExecutor {
+
+    private static final Set<String> FILTERED_FIELDS = Set.of(ProductChangedEvent.NAME, ProductChangedEvent.DESCRIPTION,
+            ProductChangedEvent.CATEGORY_ID, ProductChangedEvent.PRICE, ProductChangedEvent.DISCOUNT_PERCENT,
+            ProductChangedEvent.CURRENCY);
+
+    private final TransactionTemplate readOnlyTransaction;
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private final boolean parallel;
+    private final Semaphore countPermits;
+    private final long cacheTtlNanos;
+    private final int cacheMaxEntries;
+    private final Map<String, CachedCount> counts = new ConcurrentHashMap<>();
+    private final AtomicLong generation = new AtomicLong();
+
+    public PagedQueryExecutor(PlatformTransactionManager transactionManager,
+                              @Value("${ecommerce.listing.parallel-count:true}") boolean parallel,
+                              @Value("${ecommerce.listing.max-parallel-counts:5}") int maxParallelCounts,
+                              @Value("${spring.datasource.hikari.maximum-pool-size:10}") int poolSize,
+                              @Value("${ecommerce.listing.count-cache-ttl-ms:2000}") long cacheTtlMillis,
+                              @Value("${ecommerce.listing.count-cache-max-entries:10000}") int cacheMaxEntries) {
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.parallel = parallel;
+        this.countPermits = new Semaphore(Math.max(0, Math.min(maxParallelCounts, poolSize - 1)));
+        this.cacheTtlNanos = cacheTtlMillis * 1_000_000;
+        this.cacheMaxEntries = cacheMaxEntries;
+    }
+
+    /**
+     * Run a paginated query
+     *
+     * @param filterKey identifies the filter for the count cache (e.g. {@code ProductFilter.key()}); the
+     *                  page is not part of it
+     * @param content   the page's rows (runs on the calling thread)
+     * @param count     total rows matching the filter (may run on another thread, in its own transaction)
+     */
+    public <T> Page<T> execute(String filterKey, Pageable pageable, Supplier<List<T>> content, LongSupplier count) {
+        long countGeneration = generation.get();
+        CachedCount cached = counts.get(filterKey);
+        if (cached != null && cached.generation == countGeneration
+                && System.nanoTime() - cached.cachedAt < cacheTtlNanos) {
+            return PageableExecutionUtils.getPage(content.get(), pageable, () -> cached.total);
+        }
+
+        if (!parallel || !countPermits.tryAcquire()) {
+            return PageableExecutionUtils.getPage(content.get(), pageable,
+                    () -> cache(filterKey, count.getAsLong(), countGeneration));
+        }
+
+        CompletableFuture<Long> total;
+        try {
+            total = CompletableFuture.supplyAsync(ClientContext.propagate(() -> {
+                try {
+                    return readOnlyTransaction.execute(status -> count.getAsLong());
+                } finally {
+                    countPermits.release();
+                }
+            }), executor);
+        } catch (RejectedExecutionException ex) {
+            countPermits.release();
+            throw ex;
+        }
+        // Not cancelled if the page query fails: the COUNT holds its permit until it has finished
+        total.thenAccept(value -> cache(filterKey, value, countGeneration));
+        return PageableExecutionUtils.getPage(content.get(), pageable, () -> join(total));
+    }
+
+    @TransactionalEventListener
+    public void onProductChanged(ProductChangedEvent event) {
+        if (event.type() != ChangeType.UPDATED
+                || event.changes().keySet().stream().anyMatch(FILTERED_FIELDS::contains)) {
+            invalidate();
+        }
+    }
+
+    @TransactionalEventListener
+    public void onRateChanged(FxRateChangedEvent event) {
+        invalidate();
+    }
+
+    @EventListener(CacheFlushEvent.class)
+    public void onCacheFlush() {
+        invalidate();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private void invalidate() {
+        generation.incrementAndGet();
+        counts.clear();
+    }
+
+    /**
+     * Cache a total counted in the given generation; a total from an earlier generation may predate a
+     * change, so it is not kept
+     */
+    private long cache(String filterKey, long total, long countGeneration) {
+        if (countGeneration != generation.get()) {
+            return total;
+        }
+        if (counts.size() >= cacheMaxEntries) {
+            counts.clear();
+        }
+        // Entries are checked against the generation on read, so a drop racing this put is harmless
+        counts.put(filterKey, new CachedCount(total, System.nanoTime(), countGeneration));
+        return total;
+    }
+
+    private static long join(CompletableFuture<Long> total) {
+        try {
+            return total.join();
+        } catch (CompletionException ex) {
+            if (ex.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw ex;
+        }
+    }
+
+    private record CachedCount(long total, long cachedAt, long generation) {
+    }
+}
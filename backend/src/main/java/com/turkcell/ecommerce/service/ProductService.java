@@ -3,9 +3,14 @@ package com.turkcell.ecommerce.service;
 import com.turkcell.ecommerce.dto.*;
 import com.turkcell.ecommerce.dto.v2.*;
 import com.turkcell.ecommerce.entity.ProductEntity;
+import com.turkcell.ecommerce.event.ProductChangedEvent;
+import com.turkcell.ecommerce.mapper.ProductMapper;
 import com.turkcell.ecommerce.repository.ProductRepository;
+import com.turkcell.ecommerce.search.ProductFilter;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
@@ -14,113 +19,122 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.server.ResponseStatusException;
 
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
 @Service
 @RequiredArgsConstructor
 public class ProductService {
 
     private final ProductRepository productRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final PagedQueryExecutor pagedQueryExecutor;
+    private final ProductTotals productTotals;
+    private final StockUpdateBuffer stockUpdateBuffer;
 
     @Transactional(readOnly = true)
-    public ProductPageResponse listProducts(Integer page, Integer size, String sort, String q) {
+    public ProductPageResponse listProducts(Integer page, Integer size, String sort, String q, boolean approximateTotal) {
         Pageable pageable = createPageable(page, size, sort);
-        Page<ProductEntity> productPage = productRepository.findByQuery(q, pageable);
+        ProductFilter filter = ProductFilter.byQuery(q);
+        Optional<ProductTotals.Total> approximate = approximateTotal ? productTotals.approximate(filter) : Optional.empty();
+        Page<ProductEntity> productPage = findPage(filter, pageable, approximate);
 
         return ProductPageResponse.builder()
                 .items(productPage.getContent().stream()
-                        .map(this::toDto)
+                        .map(ProductMapper::toProduct)
                         .toList())
                 .page(productPage.getNumber())
                 .size(productPage.getSize())
                 .totalElements(productPage.getTotalElements())
                 .totalPages(productPage.getTotalPages())
+                .exact(approximate.map(ProductTotals.Total::exact).orElse(true))
                 .build();
     }
 
         // V2 list
         @Transactional(readOnly = true)
-        public ProductPageResponseV2 listProductsV2(Integer page, Integer size, String sort, String q) {
+        public ProductPageResponseV2 listProductsV2(Integer page, Integer size, String sort, ProductFilter filter,
+                                                    boolean approximateTotal) {
         Pageable pageable = createPageable(page, size, sort);
-        Page<ProductEntity> productPage = productRepository.findByQuery(q, pageable);
+        Optional<ProductTotals.Total> approximate = approximateTotal ? productTotals.approximate(filter) : Optional.empty();
+        Page<ProductEntity> productPage = findPage(filter, pageable, approximate);
 
         return ProductPageResponseV2.builder()
             .items(productPage.getContent().stream()
-                .map(this::toDtoV2)
+                .map(ProductMapper::toProductV2)
                 .toList())
             .page(productPage.getNumber())
             .size(productPage.getSize())
             .totalElements(productPage.getTotalElements())
             .totalPages(productPage.getTotalPages())
+            .exact(approximate.map(ProductTotals.Total::exact).orElse(true))
             .build();
         }
 
+    private Page<ProductEntity> findPage(ProductFilter filter, Pageable pageable,
+                                         Optional<ProductTotals.Total> approximate) {
+        if (approximate.isPresent()) {
+            return new PageImpl<>(productRepository.findContentMatching(filter, pageable),
+                    pageable, approximate.get().value());
+        }
+        return pagedQueryExecutor.execute(filter.key(), pageable,
+                () -> productRepository.findContentMatching(filter, pageable),
+                () -> productRepository.countMatching(filter));
+    }
+
     @Transactional
     public ProductResponse createProduct(CreateProductRequest request) {
-        ProductEntity entity = ProductEntity.builder()
-                .sku(request.getSku())
-                .name(request.getName())
-                .description(request.getDescription())
-                .price(request.getPrice())
-                .currency(request.getCurrency())
-                .inStock(request.getInStock())
-                .build();
+        ProductEntity entity = ProductMapper.toEntity(request);
 
         ProductEntity saved = productRepository.save(entity);
+        eventPublisher.publishEvent(ProductChangedEvent.created(saved));
         return ProductResponse.builder()
-                .product(toDto(saved))
+                .product(ProductMapper.toProduct(saved))
                 .build();
     }
 
         // V2 create
         @Transactional
         public ProductResponseV2 createProductV2(CreateProductV2Request request) {
-        ProductEntity entity = ProductEntity.builder()
-            .sku(request.getSku())
-            .name(request.getName())
-            .description(request.getDescription())
-            .price(request.getPrice())
-            .currency(request.getCurrency())
-            .inStock(request.getInStock())
-            .imageUrl(request.getImageUrl())
-            .discountPercent(request.getDiscountPercent())
-            .rating(request.getRating())
-            .build();
+        ProductEntity entity = ProductMapper.toEntity(request);
 
         ProductEntity saved = productRepository.save(entity);
+        eventPublisher.publishEvent(ProductChangedEvent.created(saved));
         return ProductResponseV2.builder()
-            .product(toDtoV2(saved))
+            .product(ProductMapper.toProductV2(saved))
             .build();
         }
 
     @Transactional(readOnly = true)
     public ProductResponse getProductById(String id) {
-        ProductEntity entity = findProductById(id);
+        ProductEntity entity = findProductForRead(id);
         return ProductResponse.builder()
-                .product(toDto(entity))
+                .product(ProductMapper.toProduct(entity))
                 .build();
     }
 
     // V2 get by id
     @Transactional(readOnly = true)
     public ProductResponseV2 getProductByIdV2(String id) {
-        ProductEntity entity = findProductById(id);
+        ProductEntity entity = findProductForRead(id);
         return ProductResponseV2.builder()
-                .product(toDtoV2(entity))
+                .product(ProductMapper.toProductV2(entity))
                 .build();
     }
 
     @Transactional
     public ProductResponse replaceProduct(String id, UpdateProductRequest request) {
         ProductEntity entity = findProductById(id);
-        entity.setSku(request.getSku());
-        entity.setName(request.getName());
-        entity.setDescription(request.getDescription());
-        entity.setPrice(request.getPrice());
-        entity.setCurrency(request.getCurrency());
-        entity.setInStock(request.getInStock());
+        ProductMapper.applyReplace(entity, request);
+        stockUpdateBuffer.discard(entity.getId());
 
-        ProductEntity updated = productRepository.save(entity);
+        ProductEntity updated = productRepository.saveAndFlush(entity);
+        eventPublisher.publishEvent(ProductChangedEvent.updated(updated, List.of(
+                ProductChangedEvent.SKU, ProductChangedEvent.NAME, ProductChangedEvent.DESCRIPTION,
+                ProductChangedEvent.PRICE, ProductChangedEvent.CURRENCY, ProductChangedEvent.IN_STOCK)));
         return ProductResponse.builder()
-                .product(toDto(updated))
+                .product(ProductMapper.toProduct(updated))
                 .build();
     }
 
@@ -128,147 +142,96 @@ public class ProductService {
     @Transactional
     public ProductResponseV2 replaceProductV2(String id, UpdateProductV2Request request) {
         ProductEntity entity = findProductById(id);
-        entity.setSku(request.getSku());
-        entity.setName(request.getName());
-        entity.setDescription(request.getDescription());
-        entity.setPrice(request.getPrice());
-        entity.setCurrency(request.getCurrency());
-        entity.setInStock(request.getInStock());
-        entity.setImageUrl(request.getImageUrl());
-        entity.setDiscountPercent(request.getDiscountPercent());
-        entity.setRating(request.getRating());
-
-        ProductEntity updated = productRepository.save(entity);
+        ProductMapper.applyReplace(entity, request);
+        stockUpdateBuffer.discard(entity.getId());
+
+        ProductEntity updated = productRepository.saveAndFlush(entity);
+        eventPublisher.publishEvent(ProductChangedEvent.updated(updated, List.of(
+                ProductChangedEvent.SKU, ProductChangedEvent.NAME, ProductChangedEvent.DESCRIPTION,
+                ProductChangedEvent.PRICE, ProductChangedEvent.CURRENCY, ProductChangedEvent.IN_STOCK,
+                ProductChangedEvent.IMAGE_URL, ProductChangedEvent.DISCOUNT_PERCENT, ProductChangedEvent.RATING)));
         return ProductResponseV2.builder()
-                .product(toDtoV2(updated))
+                .product(ProductMapper.toProductV2(updated))
                 .build();
     }
 
     @Transactional
     public ProductResponse patchProduct(String id, PatchProductRequest request) {
-        ProductEntity entity = findProductById(id);
-
-        if (request.getSku() != null) {
-            entity.setSku(request.getSku());
-        }
-        if (request.getName() != null) {
-            entity.setName(request.getName());
-        }
-        if (request.getDescription() != null) {
-            entity.setDescription(request.getDescription());
-        }
-        if (request.getPrice() != null) {
-            entity.setPrice(request.getPrice());
-        }
-        if (request.getCurrency() != null) {
-            entity.setCurrency(request.getCurrency());
-        }
-        if (request.getInStock() != null) {
-            entity.setInStock(request.getInStock());
-        }
-
-        ProductEntity updated = productRepository.save(entity);
+        ProductEntity updated = patch(id, ProductMapper.patchChanges(request));
         return ProductResponse.builder()
-                .product(toDto(updated))
+                .product(ProductMapper.toProduct(updated))
                 .build();
     }
 
     // V2 patch
     @Transactional
     public ProductResponseV2 patchProductV2(String id, PatchProductV2Request request) {
-        ProductEntity entity = findProductById(id);
-
-        if (request.getSku() != null) {
-            entity.setSku(request.getSku());
-        }
-        if (request.getName() != null) {
-            entity.setName(request.getName());
-        }
-        if (request.getDescription() != null) {
-            entity.setDescription(request.getDescription());
-        }
-        if (request.getPrice() != null) {
-            entity.setPrice(request.getPrice());
-        }
-        if (request.getCurrency() != null) {
-            entity.setCurrency(request.getCurrency());
-        }
-        if (request.getInStock() != null) {
-            entity.setInStock(request.getInStock());
-        }
-        if (request.getImageUrl() != null) {
-            entity.setImageUrl(request.getImageUrl());
-        }
-        if (request.getDiscountPercent() != null) {
-            entity.setDiscountPercent(request.getDiscountPercent());
-        }
-        if (request.getRating() != null) {
-            entity.setRating(request.getRating());
-        }
-
-        ProductEntity updated = productRepository.save(entity);
+        ProductEntity updated = patch(id, ProductMapper.patchChanges(request));
         return ProductResponseV2.builder()
-                .product(toDtoV2(updated))
+                .product(ProductMapper.toProductV2(updated))
                 .build();
     }
 
     @Transactional
     public void deleteProduct(String id) {
-        ProductEntity entity = findProductById(id);
-        productRepository.delete(entity);
+        Long productId = parseProductId(id);
+        Long categoryId = productRepository.findCategoryIdForUpdate(productId).orElse(null);
+        if (productRepository.deleteProductById(productId) == 0) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Product not found");
+        }
+        eventPublisher.publishEvent(ProductChangedEvent.deleted(productId, categoryId));
     }
 
-    private ProductEntity findProductById(String id) {
-        Long productId;
-        try {
-            productId = Long.parseLong(id);
-        } catch (NumberFormatException e) {
-            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Product not found");
+    /**
+     * Apply patch changes in a single UPDATE that returns the updated row
+     */
+    private ProductEntity patch(String id, Map<String, Object> changes) {
+        if (changes.isEmpty()) {
+            return findProductById(id);
+        }
+        Long productId = parseProductId(id);
+        if (changes.containsKey(ProductChangedEvent.IN_STOCK)) {
+            stockUpdateBuffer.discard(productId);
         }
+        Long previousCategoryId = changes.containsKey(ProductChangedEvent.CATEGORY_ID)
+                ? productRepository.findCategoryIdForUpdate(productId).orElse(null) : null;
+        ProductEntity updated = productRepository.updateReturning(productId, changes)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Product not found"));
+        eventPublisher.publishEvent(ProductChangedEvent.updated(updated, changes.keySet(), previousCategoryId));
+        return updated;
+    }
 
-        return productRepository.findById(productId)
+    // Served by the category shards when sharding is enabled
+    private ProductEntity findProductForRead(String id) {
+        return productRepository.findForReadById(parseProductId(id))
                 .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Product not found"));
     }
 
-    private Product toDto(ProductEntity entity) {
-        return Product.builder()
-                .id("prd_" + entity.getId())
-                .sku(entity.getSku())
-                .name(entity.getName())
-                .description(entity.getDescription())
-                .price(entity.getPrice())
-                .currency(entity.getCurrency())
-                .inStock(entity.getInStock())
-                .createdAt(entity.getCreatedAt())
-                .updatedAt(entity.getUpdatedAt())
-                .build();
+    private ProductEntity findProductById(String id) {
+        return productRepository.findById(parseProductId(id))
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Product not found"));
     }
 
-    private ProductV2 toDtoV2(ProductEntity entity) {
-        return ProductV2.builder()
-                .id("prd_" + entity.getId())
-                .sku(entity.getSku())
-                .name(entity.getName())
-                .description(entity.getDescription())
-                .price(entity.getPrice())
-                .currency(entity.getCurrency())
-                .inStock(entity.getInStock())
-                .imageUrl(entity.getImageUrl())
-                .discountPercent(entity.getDiscountPercent())
-                .rating(entity.getRating())
-                .createdAt(entity.getCreatedAt())
-                .updatedAt(entity.getUpdatedAt())
-                .build();
+    private Long parseProductId(String id) {
+        try {
+            return Long.parseLong(id);
+        } catch (NumberFormatException e) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Product not found");
+        }
     }
 
     private Pageable createPageable(Integer page, Integer size, String sort) {
         if (sort != null && !sort.isBlank()) {
             String[] sortParts = sort.split(",");
-            String field = sortParts[0];
+            // Names sort by their Turkish collation key rather than code point order
+            String field = "name".equals(sortParts[0]) ? "nameSortKey" : sortParts[0];
             Sort.Direction direction = sortParts.length > 1 && "desc".equalsIgnoreCase(sortParts[1])
                     ? Sort.Direction.DESC
                     : Sort.Direction.ASC;
-            return PageRequest.of(page, size, Sort.by(direction, field));
+            Sort.Order order = new Sort.Order(direction, field);
+            // Products without an exchange rate come last in either direction
+            return PageRequest.of(page, size,
+                    Sort.by("normalizedPrice".equals(field) ? order.nullsLast() : order));
         }
         return PageRequest.of(page, size);
     }
@@ -3,17 +3,36 @@ package com.turkcell.ecommerce.service;
 import com.turkcell.ecommerce.dto.v3.*;
 import com.turkcell.ecommerce.entity.CategoryEntity;
 import com.turkcell.ecommerce.entity.ProductEntity;
+import com.turkcell.ecommerce.event.ProductChangedEvent;
 import com.turkcell.ecommerce.exception.ResourceNotFoundException;
+import com.turkcell.ecommerce.exception.ServiceOverloadedException;
+import com.turkcell.ecommerce.mapper.ProductMapper;
+import com.turkcell.ecommerce.readmodel.ProductReadModel;
+import com.turkcell.ecommerce.readmodel.SuggestIndex;
+import com.turkcell.ecommerce.readmodel.TopRatedIndex;
 import com.turkcell.ecommerce.repository.CategoryRepository;
 import com.turkcell.ecommerce.repository.ProductRepository;
+import com.turkcell.ecommerce.search.ProductFilter;
+import com.turkcell.ecommerce.search.ProductSearchIndex;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
 /**
  * Service for Product V3 business logic (with category support)
  */
@@ -21,46 +40,165 @@ import org.springframework.transaction.annotation.Transactional;
 @RequiredArgsConstructor
 public class ProductServiceV3 {
 
+    /** Sort value that ranks {@code q} matches by BM25 relevance instead of a field */
+    public static final String RELEVANCE_SORT = "relevance";
+
     private final ProductRepository productRepository;
     private final CategoryRepository categoryRepository;
+    private final StockUpdateBuffer stockUpdateBuffer;
+    private final ProductReadModel productReadModel;
+    private final SuggestIndex suggestIndex;
+    private final TopRatedIndex topRatedIndex;
+    private final ProductSearchIndex productSearchIndex;
+    private final ApplicationEventPublisher eventPublisher;
+    private final PagedQueryExecutor pagedQueryExecutor;
+    private final ProductTotals productTotals;
 
     /**
      * Get all products with pagination and optional filtering
+     * (served from the in-memory read model when it is loaded and supports the sort).
+     * With {@code approximateTotal}, database-served pages take their total from {@link ProductTotals};
+     * read-model and relevance pages count exactly in memory either way.
      */
     @Transactional(readOnly = true)
-    public ProductPageResponseV3 getAllProducts(Integer page, Integer size, String sort, String query, Long categoryId) {
-        Pageable pageable = createPageable(page, size, sort);
-
-        Page<ProductEntity> productPage;
-        if (query != null || categoryId != null) {
-            productPage = productRepository.findByQueryAndCategoryId(query, categoryId, pageable);
-        } else {
-            productPage = productRepository.findAll(pageable);
+    public ProductPageResponseV3 getAllProducts(Integer page, Integer size, String sort, ProductFilter filter,
+                                                boolean approximateTotal) {
+        boolean byRelevance = sort != null && sort.split(",")[0].equals(RELEVANCE_SORT);
+        if (byRelevance && filter.query() != null) {
+            Optional<ProductPageResponseV3> ranked = searchByRelevance(page, size, filter);
+            if (ranked.isPresent()) {
+                return ranked.get();
+            }
         }
+        // Without a query (or before the search index is loaded) relevance means the default order
+        Pageable pageable = createPageable(page, size, byRelevance ? null : sort);
+
+        Optional<Page<ProductV3>> readModelPage = productReadModel.findPage(filter, pageable)
+                .map(found -> found.map(this::applyStagedStock));
+        Optional<ProductTotals.Total> approximate = readModelPage.isEmpty() && approximateTotal
+                ? productTotals.approximate(filter)
+                : Optional.empty();
+        Page<ProductV3> productPage = readModelPage
+                .orElseGet(() -> findPage(filter, pageable, approximate).map(this::toProductV3));
 
         return ProductPageResponseV3.builder()
-                .items(productPage.getContent().stream()
-                        .map(this::toProductV3)
-                        .toList())
+                .items(productPage.getContent())
                 .page(productPage.getNumber())
                 .size(productPage.getSize())
                 .totalElements(productPage.getTotalElements())
                 .totalPages(productPage.getTotalPages())
+                .exact(approximate.map(ProductTotals.Total::exact).orElse(true))
                 .build();
     }
 
+    /**
+     * One page of BM25-ranked results; empty if the search index is not loaded yet
+     */
+    private Optional<ProductPageResponseV3> searchByRelevance(int page, int size, ProductFilter filter) {
+        int window = (int) Math.min((long) (page + 1) * size, Integer.MAX_VALUE);
+        return productSearchIndex.search(filter, window).map(hits -> {
+            List<Long> ranked = hits.productIds();
+            int from = (int) Math.min((long) page * size, ranked.size());
+            List<ProductV3> items = getProductsByIds(ranked.subList(from, ranked.size())).getItems();
+            return ProductPageResponseV3.builder()
+                    .items(items)
+                    .page(page)
+                    .size(size)
+                    .totalElements((long) hits.totalMatches())
+                    .totalPages((hits.totalMatches() + size - 1) / size)
+                    .exact(true)
+                    .build();
+        });
+    }
+
+    private Page<ProductEntity> findPage(ProductFilter filter, Pageable pageable,
+                                         Optional<ProductTotals.Total> approximate) {
+        if (approximate.isPresent()) {
+            return new PageImpl<>(productRepository.findContentMatching(filter, pageable),
+                    pageable, approximate.get().value());
+        }
+        return pagedQueryExecutor.execute(filter.key(), pageable,
+                () -> productRepository.findContentMatching(filter, pageable),
+                () -> productRepository.countMatching(filter));
+    }
+
     /**
      * Get product by ID
      */
     @Transactional(readOnly = true)
     public ProductResponseV3 getProductById(Long id) {
-        ProductEntity product = productRepository.findById(id)
+        ProductEntity product = productRepository.findForReadById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Product not found with id: " + id));
         return ProductResponseV3.builder()
                 .product(toProductV3(product))
                 .build();
     }
 
+    /**
+     * Get many products by ID, in request order (duplicates collapsed), reporting the missing ones.
+     * Products held by the read model are served from it; the rest are fetched in one query
+     * (per shard when sharding is enabled).
+     */
+    @Transactional(readOnly = true)
+    public ProductBatchResponseV3 getProductsByIds(List<Long> ids) {
+        Set<Long> requested = new LinkedHashSet<>(ids);
+        Map<Long, ProductV3> found = productReadModel.findByIds(requested)
+                .map(cached -> {
+                    cached.values().forEach(this::applyStagedStock);
+                    return cached;
+                })
+                .orElseGet(HashMap::new);
+
+        List<Long> uncached = requested.stream()
+                .filter(id -> !found.containsKey(id))
+                .toList();
+        if (!uncached.isEmpty()) {
+            for (ProductEntity entity : productRepository.findAllForReadByIdIn(uncached)) {
+                found.put(entity.getId(), toProductV3(entity));
+            }
+        }
+
+        List<ProductV3> items = new ArrayList<>(requested.size());
+        List<Long> missingIds = new ArrayList<>();
+        for (Long id : requested) {
+            ProductV3 product = found.get(id);
+            if (product != null) {
+                items.add(product);
+            } else {
+                missingIds.add(id);
+            }
+        }
+        return ProductBatchResponseV3.builder()
+                .items(items)
+                .missingIds(missingIds)
+                .build();
+    }
+
+    /**
+     * Typeahead suggestions, served from the in-memory index only (never the database)
+     */
+    public SuggestResponseV3 suggest(String prefix, int limit) {
+        return suggestIndex.suggest(prefix, limit)
+                .orElseThrow(() -> new ServiceOverloadedException("Suggestion index is not ready yet", 1));
+    }
+
+    /**
+     * Best rated in-stock products of a category; the ranking comes from the in-memory leaderboard,
+     * the products themselves as in {@link #getProductsByIds}
+     */
+    @Transactional(readOnly = true)
+    public TopRatedResponseV3 getTopRated(Long categoryId, int limit) {
+        if (!categoryRepository.existsById(categoryId)) {
+            throw new ResourceNotFoundException("Category not found with id: " + categoryId);
+        }
+        List<Long> ids = topRatedIndex.top(categoryId, limit)
+                .orElseThrow(() -> new ServiceOverloadedException("Top rated index is not ready yet", 1));
+        return TopRatedResponseV3.builder()
+                .categoryId(String.valueOf(categoryId))
+                .items(ids.isEmpty() ? List.of() : getProductsByIds(ids).getItems())
+                .build();
+    }
+
     /**
      * Create new product
      */
@@ -70,20 +208,10 @@ public class ProductServiceV3 {
         CategoryEntity category = categoryRepository.findById(request.getCategoryId())
                 .orElseThrow(() -> new ResourceNotFoundException("Category not found with id: " + request.getCategoryId()));
 
-        ProductEntity product = ProductEntity.builder()
-                .sku(request.getSku())
-                .name(request.getName())
-                .description(request.getDescription())
-                .price(request.getPrice())
-                .currency(request.getCurrency())
-                .inStock(request.getInStock())
-                .imageUrl(request.getImageUrl())
-                .discountPercent(request.getDiscountPercent())
-                .rating(request.getRating())
-                .category(category)
-                .build();
+        ProductEntity product = ProductMapper.toEntity(request, category);
 
         ProductEntity saved = productRepository.save(product);
+        eventPublisher.publishEvent(ProductChangedEvent.created(saved));
         return ProductResponseV3.builder()
                 .product(toProductV3(saved))
                 .build();
@@ -101,18 +229,14 @@ public class ProductServiceV3 {
         CategoryEntity category = categoryRepository.findById(request.getCategoryId())
                 .orElseThrow(() -> new ResourceNotFoundException("Category not found with id: " + request.getCategoryId()));
 
-        product.setSku(request.getSku());
-        product.setName(request.getName());
-        product.setDescription(request.getDescription());
-        product.setPrice(request.getPrice());
-        product.setCurrency(request.getCurrency());
-        product.setInStock(request.getInStock());
-        product.setImageUrl(request.getImageUrl());
-        product.setDiscountPercent(request.getDiscountPercent());
-        product.setRating(request.getRating());
-        product.setCategory(category);
-
-        ProductEntity updated = productRepository.save(product);
+        Long previousCategoryId = product.getCategory() != null ? product.getCategory().getId() : null;
+        ProductMapper.applyReplace(product, request, category);
+        stockUpdateBuffer.discard(id);
+
+        // Flush now so updatedAt is current in the response and the change event
+        ProductEntity updated = productRepository.saveAndFlush(product);
+        eventPublisher.publishEvent(ProductChangedEvent.updated(updated, ProductChangedEvent.EDITABLE_FIELDS,
+                previousCategoryId));
         return ProductResponseV3.builder()
                 .product(toProductV3(updated))
                 .build();
@@ -123,81 +247,75 @@ public class ProductServiceV3 {
      */
     @Transactional
     public ProductResponseV3 patchProduct(Long id, PatchProductV3Request request) {
-        ProductEntity product = productRepository.findById(id)
-                .orElseThrow(() -> new ResourceNotFoundException("Product not found with id: " + id));
-
-        if (request.getSku() != null) {
-            product.setSku(request.getSku());
-        }
-        if (request.getName() != null) {
-            product.setName(request.getName());
-        }
-        if (request.getDescription() != null) {
-            product.setDescription(request.getDescription());
-        }
-        if (request.getPrice() != null) {
-            product.setPrice(request.getPrice());
-        }
-        if (request.getCurrency() != null) {
-            product.setCurrency(request.getCurrency());
+        Map<String, Object> changes = ProductMapper.patchChanges(request);
+        if (changes.isEmpty()) {
+            return getProductById(id);
         }
         if (request.getInStock() != null) {
-            product.setInStock(request.getInStock());
-        }
-        if (request.getImageUrl() != null) {
-            product.setImageUrl(request.getImageUrl());
-        }
-        if (request.getDiscountPercent() != null) {
-            product.setDiscountPercent(request.getDiscountPercent());
-        }
-        if (request.getRating() != null) {
-            product.setRating(request.getRating());
-        }
-        if (request.getCategoryId() != null) {
-            CategoryEntity category = categoryRepository.findById(request.getCategoryId())
-                    .orElseThrow(() -> new ResourceNotFoundException("Category not found with id: " + request.getCategoryId()));
-            product.setCategory(category);
+            stockUpdateBuffer.discard(id);
         }
 
-        ProductEntity updated = productRepository.save(product);
+        // One UPDATE that returns the updated row joined to its category; a missing category
+        // surfaces as a foreign key violation and is only then looked up
+        Long previousCategoryId = request.getCategoryId() != null
+                ? productRepository.findCategoryIdForUpdate(id).orElse(null) : null;
+        ProductEntity updated;
+        try {
+            updated = productRepository.updateReturning(id, changes)
+                    .orElseThrow(() -> new ResourceNotFoundException("Product not found with id: " + id));
+        } catch (DataIntegrityViolationException e) {
+            if (request.getCategoryId() != null && !categoryRepository.existsById(request.getCategoryId())) {
+                throw new ResourceNotFoundException("Category not found with id: " + request.getCategoryId());
+            }
+            throw e;
+        }
+        eventPublisher.publishEvent(ProductChangedEvent.updated(updated, changes.keySet(), previousCategoryId));
         return ProductResponseV3.builder()
                 .product(toProductV3(updated))
                 .build();
     }
 
+    /**
+     * Stage a stock status update; it is coalesced with other updates of the same product
+     * and written in the next batched flush
+     */
+    public void updateStock(Long id, Boolean inStock) {
+        // Only the first update of a flush window pays for the existence check
+        if (!stockUpdateBuffer.isStaged(id) && !productRepository.existsById(id)) {
+            throw new ResourceNotFoundException("Product not found with id: " + id);
+        }
+        stockUpdateBuffer.stage(id, inStock);
+    }
+
     /**
      * Delete product
      */
     @Transactional
     public void deleteProduct(Long id) {
-        if (!productRepository.existsById(id)) {
+        stockUpdateBuffer.discard(id);
+        Long categoryId = productRepository.findCategoryIdForUpdate(id).orElse(null);
+        if (productRepository.deleteProductById(id) == 0) {
             throw new ResourceNotFoundException("Product not found with id: " + id);
         }
-        productRepository.deleteById(id);
+        eventPublisher.publishEvent(ProductChangedEvent.deleted(id, categoryId));
     }
 
     /**
-     * Convert entity to ProductV3 DTO
+     * Overlay a staged stock update on a product served from the read model
+     */
+    private ProductV3 applyStagedStock(ProductV3 product) {
+        Boolean stagedInStock = stockUpdateBuffer.stagedValue(Long.valueOf(product.getId()));
+        if (stagedInStock != null) {
+            product.setInStock(stagedInStock);
+        }
+        return product;
+    }
+
+    /**
+     * Convert entity to ProductV3 DTO (a staged stock update takes precedence over the stored value)
      */
     private ProductV3 toProductV3(ProductEntity entity) {
-        return ProductV3.builder()
-                .id(String.valueOf(entity.getId()))
-                .sku(entity.getSku())
-                .name(entity.getName())
-                .description(entity.getDescription())
-                .price(entity.getPrice())
-                .currency(entity.getCurrency())
-                .inStock(entity.getInStock())
-                .imageUrl(entity.getImageUrl())
-                .discountPercent(entity.getDiscountPercent())
-                .rating(entity.getRating())
-                .category(CategoryRefV3.builder()
-                        .id(String.valueOf(entity.getCategory().getId()))
-                        .name(entity.getCategory().getName())
-                        .build())
-                .createdAt(entity.getCreatedAt())
-                .updatedAt(entity.getUpdatedAt())
-                .build();
+        return ProductMapper.toProductV3(entity, stockUpdateBuffer.stagedValue(entity.getId()));
     }
 
     /**
@@ -206,11 +324,15 @@ public class ProductServiceV3 {
     private Pageable createPageable(Integer page, Integer size, String sortParam) {
         if (sortParam != null && !sortParam.isEmpty()) {
             String[] sortParts = sortParam.split(",");
-            String field = sortParts[0];
+            // Names sort by their Turkish collation key rather than code point order
+            String field = "name".equals(sortParts[0]) ? "nameSortKey" : sortParts[0];
             Sort.Direction direction = sortParts.length > 1 && sortParts[1].equalsIgnoreCase("desc")
                     ? Sort.Direction.DESC
                     : Sort.Direction.ASC;
-            return PageRequest.of(page, size, Sort.by(direction, field));
+            Sort.Order order = new Sort.Order(direction, field);
+            // Products without an exchange rate come last in either direction
+            return PageRequest.of(page, size,
+                    Sort.by("normalizedPrice".equals(field) ? order.nullsLast() : order));
         }
         return PageRequest.of(page, size);
     }
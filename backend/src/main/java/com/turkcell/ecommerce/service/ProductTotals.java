@@ -0,0 +1,217 @@
+package com.turkcell.ecommerce.service;
+
+import com.turkcell.ecommerce.event.CacheFlushEvent;
+import com.turkcell.ecommerce.event.ChangeType;
+import com.turkcell.ecommerce.event.ProductChangedEvent;
+import com.turkcell.ecommerce.search.ProductFilter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Product totals for listings that ask for an approximate count.
+ * <p>
+ * Unfiltered and category-only totals come from per-category counters, loaded once the application
+ * is ready and then kept current from the change events, so they are exact without a COUNT. Only the
+ * counters are kept, not each product's category: deletes and moves take the category a product
+ * left from the event, and the few events that do not know it (changes replayed from another
+ * instance) make the next approximate total recount by category. A change whose commit a load
+ * already saw is applied again, so one committing during a load can be off by one until the next. Text
+ * queries and price bounds are counted up to {@code cap} matches; beyond that the total is estimated
+ * from the match rate in a bounded sample of the category's rows and reported as inexact.
+ */
+@Slf4j
+@Component
+public class ProductTotals {
+
+    /**
+     * A listing total; inexact totals are estimates above the cap
+     */
+    public record Total(long value, boolean exact) {
+    }
+
+    private static final String COUNT_BY_CATEGORY = "SELECT category_id, COUNT(*) FROM products GROUP BY category_id";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final int cap;
+    private final int sampleSize;
+    private volatile boolean ready;
+
+    // ---------- Counters (guarded by this) ----------
+    private final Map<Long, Long> countByCategory = new HashMap<>();
+    private long productCount;
+    private boolean stale;
+
+    public ProductTotals(JdbcTemplate jdbcTemplate,
+                         @Value("${ecommerce.listing.approximate-count.cap:10000}") int cap,
+                         @Value("${ecommerce.listing.approximate-count.sample-size:2000}") int sampleSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.cap = cap;
+        this.sampleSize = sampleSize;
+    }
+
+    /**
+     * Load the counters once startup (including any snapshot restore) is done, and again on a cache flush
+     */
+    @EventListener({ApplicationReadyEvent.class, CacheFlushEvent.class})
+    public synchronized void load() {
+        // Start over: events applied before the load are superseded by it
+        countByCategory.clear();
+        productCount = 0;
+        jdbcTemplate.query(COUNT_BY_CATEGORY, rs -> {
+            countByCategory.put(rs.getLong(1), rs.getLong(2));
+            productCount += rs.getLong(2);
+        });
+        stale = false;
+        ready = true;
+        log.info("Product totals loaded for {} products in {} categories", productCount, countByCategory.size());
+    }
+
+    /**
+     * Approximate total for a listing filter (query already in search form); empty while the
+     * counters are not loaded, in which case the caller counts exactly.
+     */
+    public Optional<Total> approximate(ProductFilter filter) {
+        if (!ready) {
+            return Optional.empty();
+        }
+        long population = population(filter.categoryId());
+        if (filter.isCategoryOnly()) {
+            return Optional.of(new Total(population, true));
+        }
+
+        Condition condition = condition(filter);
+        long bounded = boundedCount(condition, filter.categoryId());
+        if (bounded <= cap) {
+            return Optional.of(new Total(bounded, true));
+        }
+        long estimate = Math.min(estimate(condition, filter.categoryId(), population), population);
+        return Optional.of(new Total(Math.max(cap + 1L, estimate), false));
+    }
+
+    @TransactionalEventListener
+    public synchronized void onProductChanged(ProductChangedEvent event) {
+        if (event.type() == ChangeType.CREATED) {
+            if (event.changes().get(ProductChangedEvent.CATEGORY_ID) instanceof Long categoryId) {
+                countByCategory.merge(categoryId, 1L, Long::sum);
+            }
+            productCount++;
+        } else if (event.type() == ChangeType.DELETED) {
+            if (event.previousCategoryId() == null) {
+                stale = true;
+                return;
+            }
+            countByCategory.merge(event.previousCategoryId(), -1L, Long::sum);
+            productCount--;
+        } else if (event.changes().get(ProductChangedEvent.CATEGORY_ID) instanceof Long categoryId) {
+            if (event.previousCategoryId() == null) {
+                stale = true;
+                return;
+            }
+            countByCategory.merge(event.previousCategoryId(), -1L, Long::sum);
+            countByCategory.merge(categoryId, 1L, Long::sum);
+        }
+    }
+
+    private synchronized long population(Long categoryId) {
+        if (stale) {
+            load();
+        }
+        return categoryId == null ? productCount : countByCategory.getOrDefault(categoryId, 0L);
+    }
+
+    /**
+     * The non-category part of the filter as an SQL condition
+     */
+    private static Condition condition(ProductFilter filter) {
+        List<String> terms = new ArrayList<>();
+        List<Object> args = new ArrayList<>();
+        if (filter.query() != null) {
+            terms.add("(name_search LIKE ? OR description_search LIKE ?)");
+            args.add("%" + filter.query() + "%");
+            args.add("%" + filter.query() + "%");
+        }
+        addBound(terms, args, "effective_price >= ?", filter.minEffectivePrice());
+        addBound(terms, args, "effective_price <= ?", filter.maxEffectivePrice());
+        addBound(terms, args, "normalized_price >= ?", filter.minNormalizedPrice());
+        addBound(terms, args, "normalized_price <= ?", filter.maxNormalizedPrice());
+        return new Condition(String.join(" AND ", terms), args);
+    }
+
+    private static void addBound(List<String> terms, List<Object> args, String term, Double bound) {
+        if (bound != null) {
+            terms.add(term);
+            args.add(bound);
+        }
+    }
+
+    /**
+     * Matching rows, counted until one past the cap
+     */
+    private long boundedCount(Condition condition, Long categoryId) {
+        List<Object> args = new ArrayList<>(condition.args());
+        StringBuilder sql = new StringBuilder("SELECT COUNT(*) FROM (SELECT 1 FROM products WHERE ").append(condition.sql());
+        if (categoryId != null) {
+            sql.append(" AND category_id = ?");
+            args.add(categoryId);
+        }
+        sql.append(" FETCH FIRST ? ROWS ONLY)");
+        args.add(cap + 1);
+        return jdbcTemplate.queryForObject(sql.toString(), Long.class, args.toArray());
+    }
+
+    /**
+     * Population scaled by the match rate among up to {@code sampleSize} rows of the category (or
+     * catalog), read in id order from a random starting id (wrapping around to the lowest ids)
+     */
+    private long estimate(Condition condition, Long categoryId, long population) {
+        Map<String, Object> range = jdbcTemplate.queryForMap("SELECT MIN(id) AS low, MAX(id) AS high FROM products");
+        if (range.get("low") == null) {
+            return 0;
+        }
+        long low = ((Number) range.get("low")).longValue();
+        long high = ((Number) range.get("high")).longValue();
+        long start = ThreadLocalRandom.current().nextLong(low, high + 1);
+
+        long[] sample = sample(condition, categoryId, "id >= ?", start, sampleSize);
+        if (sample[0] < sampleSize) {
+            long[] wrapped = sample(condition, categoryId, "id < ?", start, (int) (sampleSize - sample[0]));
+            sample[0] += wrapped[0];
+            sample[1] += wrapped[1];
+        }
+        return sample[0] == 0 ? 0 : Math.round((double) sample[1] / sample[0] * population);
+    }
+
+    /**
+     * {sampled rows, matching rows} among the first {@code limit} rows of the category within the id range
+     */
+    private long[] sample(Condition condition, Long categoryId, String idRange, long start, int limit) {
+        List<Object> args = new ArrayList<>(condition.args());
+        args.add(start);
+        StringBuilder sql = new StringBuilder("SELECT COUNT(*), COUNT(CASE WHEN ").append(condition.sql())
+                .append(" THEN 1 END) FROM (SELECT name_search, description_search, effective_price, normalized_price FROM products WHERE ")
+                .append(idRange);
+        if (categoryId != null) {
+            sql.append(" AND category_id = ?");
+            args.add(categoryId);
+        }
+        sql.append(" ORDER BY id FETCH FIRST ? ROWS ONLY)");
+        args.add(limit);
+        return jdbcTemplate.queryForObject(sql.toString(), (rs, row) -> new long[]{rs.getLong(1), rs.getLong(2)},
+                args.toArray());
+    }
+
+    private record Condition(String sql, List<Object> args) {
+    }
+}
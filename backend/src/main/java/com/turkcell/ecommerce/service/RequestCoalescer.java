@@ -0,0 +1,136 @@
+package com.turkcell.ecommerce.service;
+
+import com.turkcell.ecommerce.datasource.ReadYourWritesTracker;
+import com.turkcell.ecommerce.event.CacheFlushEvent;
+import com.turkcell.ecommerce.event.CategoryChangedEvent;
+import com.turkcell.ecommerce.event.ProductChangedEvent;
+import com.turkcell.ecommerce.web.ClientContext;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Single-flight coalescing of identical concurrent reads: the first caller for a key computes
+ * the result and callers arriving while it runs share it (or its exception) instead of querying
+ * again. Nothing is cached once the computation finishes.
+ * <p>
+ * Keys include a write epoch that advances after every committed product or category change, so a
+ * read that starts after a write never joins a computation that started before it. Clients that
+ * must read their own writes from the primary (read replica stickiness) are not coalesced.
+ */
+@Component
+public class RequestCoalescer {
+
+    private final Map<String, CompletableFuture<Object>> inFlight = new ConcurrentHashMap<>();
+    private final AtomicLong epoch = new AtomicLong();
+    private final ObjectProvider<ReadYourWritesTracker> readYourWritesTracker;
+    private final MeterRegistry meterRegistry;
+    private final Map<String, Meters> meters = new ConcurrentHashMap<>();
+
+    public RequestCoalescer(ObjectProvider<ReadYourWritesTracker> readYourWritesTracker, MeterRegistry meterRegistry) {
+        this.readYourWritesTracker = readYourWritesTracker;
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * Run {@code computation} for the key, or wait for the identical computation already running
+     *
+     * @param name operation name, used as the metrics tag
+     * @param key  normalized arguments of the operation
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T execute(String name, String key, Supplier<T> computation) {
+        Meters operationMeters = meters.computeIfAbsent(name, Meters::new);
+        operationMeters.calls.increment();
+
+        ReadYourWritesTracker tracker = readYourWritesTracker.getIfAvailable();
+        if (tracker != null && tracker.isSticky(ClientContext.current())) {
+            operationMeters.executions.increment();
+            return computation.get();
+        }
+
+        String flightKey = name + '|' + epoch.get() + '|' + key;
+        CompletableFuture<Object> flight = new CompletableFuture<>();
+        CompletableFuture<Object> existing = inFlight.putIfAbsent(flightKey, flight);
+        if (existing != null) {
+            try {
+                return (T) existing.join();
+            } catch (CompletionException e) {
+                if (e.getCause() instanceof RuntimeException cause) {
+                    throw cause;
+                }
+                throw e;
+            }
+        }
+
+        operationMeters.executions.increment();
+        try {
+            T result = computation.get();
+            flight.complete(result);
+            return result;
+        } catch (RuntimeException e) {
+            flight.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(flightKey, flight);
+        }
+    }
+
+    /**
+     * Stop new reads from joining computations that started before a change the caller has made visible
+     */
+    public void advanceEpoch() {
+        epoch.incrementAndGet();
+    }
+
+    @TransactionalEventListener
+    public void onProductChanged(ProductChangedEvent event) {
+        advanceEpoch();
+    }
+
+    @TransactionalEventListener
+    public void onCategoryChanged(CategoryChangedEvent event) {
+        advanceEpoch();
+    }
+
+    @EventListener(CacheFlushEvent.class)
+    public void onCacheFlush() {
+        advanceEpoch();
+    }
+
+    private final class Meters {
+        private final Counter calls;
+        private final Counter executions;
+
+        private Meters(String name) {
+            this.calls = Counter.builder("coalescer.calls")
+                    .description("Reads requested through the coalescer")
+                    .tag("operation", name)
+                    .register(meterRegistry);
+            this.executions = Counter.builder("coalescer.executions")
+                    .description("Reads actually executed (the rest shared an in-flight result)")
+                    .tag("operation", name)
+                    .register(meterRegistry);
+            Gauge.builder("coalescer.collapse-ratio", this, Meters::collapseRatio)
+                    .description("Share of reads served by joining an in-flight computation")
+                    .tag("operation", name)
+                    .register(meterRegistry);
+        }
+
+        private double collapseRatio() {
+            double total = calls.count();
+            return total == 0 ? 0 : 1 - executions.count() / total;
+        }
+    }
+}
@@ -0,0 +1,143 @@
+package com.turkcell.ecommerce.service;
+
+import com.turkcell.ecommerce.event.ProductChangedEvent;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.ContextClosedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Staging area for high-frequency stock toggles.
+ * <p>
+ * Updates are coalesced per product (last write wins) in a concurrent map, whose per-bin locking
+ * keeps writers for different products from contending, and flushed on a short interval as one
+ * batched UPDATE. Database writes are therefore proportional to distinct products, not events.
+ */
+@Slf4j
+@Service
+public class StockUpdateBuffer {
+
+    private static final String UPDATE_STOCK = "UPDATE products SET in_stock = ?, updated_at = ? WHERE id = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final Map<Long, StagedStock> staged = new ConcurrentHashMap<>();
+    private final ReentrantLock flushLock = new ReentrantLock();
+    private final AtomicLong stagedEvents = new AtomicLong();
+
+    public StockUpdateBuffer(JdbcTemplate jdbcTemplate, TransactionTemplate transactionTemplate,
+                             ApplicationEventPublisher eventPublisher) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.eventPublisher = eventPublisher;
+    }
+
+    /**
+     * Stage the latest stock status of a product
+     */
+    public void stage(Long productId, boolean inStock) {
+        staged.put(productId, new StagedStock(inStock, OffsetDateTime.now()));
+        stagedEvents.incrementAndGet();
+    }
+
+    /**
+     * Staged (not yet flushed) stock status, or null if nothing is pending for the product
+     */
+    public Boolean stagedValue(Long productId) {
+        StagedStock value = staged.get(productId);
+        return value != null ? value.inStock() : null;
+    }
+
+    public boolean isStaged(Long productId) {
+        return staged.containsKey(productId);
+    }
+
+    /**
+     * Drop a pending update because a regular write is replacing the product's stock status.
+     * Waits for an in-progress flush so the stale staged value cannot land after that write. Called
+     * inside the writing transaction, the value is staged again if that transaction rolls back
+     * (unless a newer one was staged meanwhile).
+     */
+    public void discard(Long productId) {
+        StagedStock discarded;
+        flushLock.lock();
+        try {
+            discarded = staged.remove(productId);
+        } finally {
+            flushLock.unlock();
+        }
+        if (discarded != null && TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    if (status != STATUS_COMMITTED) {
+                        staged.putIfAbsent(productId, discarded);
+                    }
+                }
+            });
+        }
+    }
+
+    /**
+     * Write the latest staged state of every product in one batch
+     */
+    @Scheduled(fixedDelayString = "${ecommerce.stock-updates.flush-interval-ms:200}")
+    public void flush() {
+        if (staged.isEmpty()) {
+            return;
+        }
+        flushLock.lock();
+        try {
+            List<Map.Entry<Long, StagedStock>> pending = new ArrayList<>(staged.entrySet().size());
+            for (Map.Entry<Long, StagedStock> entry : staged.entrySet()) {
+                pending.add(Map.entry(entry.getKey(), entry.getValue()));
+            }
+            List<Object[]> batch = pending.stream()
+                    .map(entry -> new Object[]{entry.getValue().inStock(), entry.getValue().stagedAt(), entry.getKey()})
+                    .toList();
+
+            transactionTemplate.executeWithoutResult(status -> {
+                int[] updated = jdbcTemplate.batchUpdate(UPDATE_STOCK, batch);
+                for (int i = 0; i < updated.length; i++) {
+                    if (updated[i] != 0) {
+                        StagedStock value = pending.get(i).getValue();
+                        eventPublisher.publishEvent(ProductChangedEvent.stockChanged(
+                                pending.get(i).getKey(), value.inStock(), value.stagedAt()));
+                    }
+                }
+            });
+
+            // Keep entries that were re-staged while flushing; they go out with the next batch
+            pending.forEach(entry -> staged.remove(entry.getKey(), entry.getValue()));
+            log.debug("Flushed {} stock updates ({} events staged so far)", pending.size(), stagedEvents.get());
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    /**
+     * Flush what is still pending before the application shuts down
+     */
+    @EventListener(ContextClosedEvent.class)
+    public void onShutdown() {
+        flush();
+    }
+
+    private record StagedStock(boolean inStock, OffsetDateTime stagedAt) {
+    }
+}
@@ -0,0 +1,122 @@
+package com.turkcell.ecommerce.web;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Concurrency limit that follows observed latency (gradient algorithm).
+ * <p>
+ * A slowly moving long-term RTT serves as the no-queueing baseline. After every window of samples
+ * the limit is scaled by {@code tolerance * longRtt / shortRtt} (clamped to [0.5, 1]) plus a
+ * sqrt(limit) allowance for queueing, and smoothed. While latency stays near the baseline the
+ * allowance grows the limit; once the database or pool saturates and latency rises, the gradient
+ * shrinks it, and requests beyond the limit are rejected instead of queued.
+ */
+public class AdaptiveConcurrencyLimiter {
+
+    private static final int WINDOW_SAMPLES = 20;
+    private static final long WINDOW_NANOS = TimeUnit.MILLISECONDS.toNanos(250);
+    private static final double LONG_RTT_DECAY = 1.0 / 600;
+
+    private final String name;
+    private final int minLimit;
+    private final int maxLimit;
+    private final double tolerance;
+    private final double smoothing;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicLong rejected = new AtomicLong();
+    private volatile double limit;
+
+    // Window state, guarded by this
+    private double longRtt;
+    private long windowRttSum;
+    private int windowCount;
+    private int windowMaxInFlight;
+    private long windowStart = System.nanoTime();
+
+    public AdaptiveConcurrencyLimiter(String name, int initialLimit, int minLimit, int maxLimit,
+                                      double tolerance, double smoothing) {
+        this.name = name;
+        this.limit = initialLimit;
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.tolerance = tolerance;
+        this.smoothing = smoothing;
+    }
+
+    /**
+     * Admit a request if the limit allows
+     *
+     * @return start timestamp to pass to {@link #release(long)}, or -1 if rejected
+     */
+    public long tryAcquire() {
+        int current = inFlight.incrementAndGet();
+        if (current > (int) limit) {
+            inFlight.decrementAndGet();
+            rejected.incrementAndGet();
+            return -1;
+        }
+        return System.nanoTime();
+    }
+
+    /**
+     * Finish an admitted request and record its latency
+     */
+    public void release(long startNanos) {
+        int current = inFlight.getAndDecrement();
+        long now = System.nanoTime();
+        onSample(now - startNanos, current, now);
+    }
+
+    private synchronized void onSample(long rtt, int inFlightAtCompletion, long now) {
+        windowRttSum += rtt;
+        windowCount++;
+        windowMaxInFlight = Math.max(windowMaxInFlight, inFlightAtCompletion);
+        if (windowCount < WINDOW_SAMPLES && now - windowStart < WINDOW_NANOS) {
+            return;
+        }
+
+        double shortRtt = (double) windowRttSum / windowCount;
+        int maxInFlight = windowMaxInFlight;
+        windowRttSum = 0;
+        windowCount = 0;
+        windowMaxInFlight = 0;
+        windowStart = now;
+
+        if (longRtt == 0) {
+            longRtt = shortRtt;
+        } else {
+            longRtt += (shortRtt - longRtt) * LONG_RTT_DECAY;
+        }
+        // Let the baseline recover quickly after a period of high latency ends
+        if (longRtt / shortRtt > 2) {
+            longRtt *= 0.95;
+        }
+        // Traffic is not using the limit; latency says nothing about whether it is too high
+        if (maxInFlight < limit / 2) {
+            return;
+        }
+
+        double gradient = Math.max(0.5, Math.min(1.0, tolerance * longRtt / shortRtt));
+        double newLimit = limit * gradient + Math.sqrt(limit);
+        newLimit = limit * (1 - smoothing) + newLimit * smoothing;
+        limit = Math.max(minLimit, Math.min(maxLimit, newLimit));
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int getLimit() {
+        return (int) limit;
+    }
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    public long getRejected() {
+        return rejected.get();
+    }
+}
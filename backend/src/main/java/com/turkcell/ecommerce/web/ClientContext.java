@@ -0,0 +1,66 @@
+package com.turkcell.ecommerce.web;
+
+import jakarta.servlet.http.HttpServletRequest;
+
+import java.util.function.Supplier;
+
+/**
+ * Holds the identity of the client that issued the current request.
+ * A client is identified by its API key when present, otherwise by its remote address.
+ */
+public final class ClientContext {
+
+    public static final String API_KEY_HEADER = "X-API-Key";
+
+    private static final ThreadLocal<String> CURRENT = new ThreadLocal<>();
+
+    private ClientContext() {
+    }
+
+    /**
+     * Resolve the client key of a request
+     */
+    public static String resolve(HttpServletRequest request) {
+        String apiKey = request.getHeader(API_KEY_HEADER);
+        if (apiKey != null && !apiKey.isBlank()) {
+            return "key:" + apiKey.trim();
+        }
+        return "ip:" + request.getRemoteAddr();
+    }
+
+    /**
+     * Client key bound to the current thread, or null outside a request
+     */
+    public static String current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * Wrap a task so it runs with the calling thread's client key, for work handed to other threads
+     * (the read/write routing needs the key to keep read-your-writes clients on the primary)
+     */
+    public static <T> Supplier<T> propagate(Supplier<T> task) {
+        String clientKey = current();
+        return () -> {
+            String previous = current();
+            CURRENT.set(clientKey);
+            try {
+                return task.get();
+            } finally {
+                if (previous != null) {
+                    CURRENT.set(previous);
+                } else {
+                    CURRENT.remove();
+                }
+            }
+        };
+    }
+
+    static void set(String clientKey) {
+        CURRENT.set(clientKey);
+    }
+
+    static void clear() {
+        CURRENT.remove();
+    }
+}
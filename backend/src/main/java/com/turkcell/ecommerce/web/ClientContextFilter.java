@@ -0,0 +1,31 @@
+package com.turkcell.ecommerce.web;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+/**
+ * Binds the calling client's key to the request thread (see {@link ClientContext}).
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class ClientContextFilter extends OncePerRequestFilter {
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        ClientContext.set(ClientContext.resolve(request));
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            ClientContext.clear();
+        }
+    }
+}
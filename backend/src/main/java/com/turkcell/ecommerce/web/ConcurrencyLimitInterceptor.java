@@ -0,0 +1,84 @@
+package com.turkcell.ecommerce.web;
+
+import com.turkcell.ecommerce.exception.ServiceOverloadedException;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+import java.util.List;
+
+/**
+ * Applies adaptive concurrency limits to the product endpoints: one for listings and searches
+ * (the LIKE scans behind getAllProducts), one for point reads and writes, so a burst of searches
+ * cannot starve cheap lookups. Requests over the limit fail fast with 503.
+ */
+@Component
+@ConditionalOnProperty(name = "ecommerce.concurrency-limit.enabled", havingValue = "true", matchIfMissing = true)
+public class ConcurrencyLimitInterceptor implements HandlerInterceptor {
+
+    private static final String START_ATTRIBUTE = ConcurrencyLimitInterceptor.class.getName() + ".start";
+    private static final String LIMITER_ATTRIBUTE = ConcurrencyLimitInterceptor.class.getName() + ".limiter";
+
+    private final AdaptiveConcurrencyLimiter searchLimiter;
+    private final AdaptiveConcurrencyLimiter pointLimiter;
+
+    public ConcurrencyLimitInterceptor(MeterRegistry meterRegistry,
+                                       @Value("${ecommerce.concurrency-limit.search.initial-limit:20}") int searchInitial,
+                                       @Value("${ecommerce.concurrency-limit.search.min-limit:4}") int searchMin,
+                                       @Value("${ecommerce.concurrency-limit.search.max-limit:100}") int searchMax,
+                                       @Value("${ecommerce.concurrency-limit.point.initial-limit:50}") int pointInitial,
+                                       @Value("${ecommerce.concurrency-limit.point.min-limit:8}") int pointMin,
+                                       @Value("${ecommerce.concurrency-limit.point.max-limit:400}") int pointMax,
+                                       @Value("${ecommerce.concurrency-limit.tolerance:1.5}") double tolerance,
+                                       @Value("${ecommerce.concurrency-limit.smoothing:0.2}") double smoothing) {
+        this.searchLimiter = new AdaptiveConcurrencyLimiter("search", searchInitial, searchMin, searchMax,
+                tolerance, smoothing);
+        this.pointLimiter = new AdaptiveConcurrencyLimiter("point", pointInitial, pointMin, pointMax,
+                tolerance, smoothing);
+
+        for (AdaptiveConcurrencyLimiter limiter : List.of(searchLimiter, pointLimiter)) {
+            Gauge.builder("concurrency.limit", limiter, AdaptiveConcurrencyLimiter::getLimit)
+                    .description("Current adaptive concurrency limit")
+                    .tag("limiter", limiter.getName())
+                    .register(meterRegistry);
+            Gauge.builder("concurrency.in-flight", limiter, AdaptiveConcurrencyLimiter::getInFlight)
+                    .description("Requests currently admitted")
+                    .tag("limiter", limiter.getName())
+                    .register(meterRegistry);
+            FunctionCounter.builder("concurrency.rejected", limiter, AdaptiveConcurrencyLimiter::getRejected)
+                    .description("Requests shed because the limit was reached")
+                    .tag("limiter", limiter.getName())
+                    .register(meterRegistry);
+        }
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        AdaptiveConcurrencyLimiter limiter = switch (RequestType.classify(request)) {
+            case SEARCH, LIST -> searchLimiter;
+            case POINT_READ, WRITE -> pointLimiter;
+        };
+        long start = limiter.tryAcquire();
+        if (start < 0) {
+            throw new ServiceOverloadedException("Service is at capacity, please retry", 1);
+        }
+        request.setAttribute(START_ATTRIBUTE, start);
+        request.setAttribute(LIMITER_ATTRIBUTE, limiter);
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler,
+                                Exception ex) {
+        if (request.getAttribute(LIMITER_ATTRIBUTE) instanceof AdaptiveConcurrencyLimiter limiter) {
+            request.removeAttribute(LIMITER_ATTRIBUTE);
+            limiter.release((Long) request.getAttribute(START_ATTRIBUTE));
+        }
+    }
+}
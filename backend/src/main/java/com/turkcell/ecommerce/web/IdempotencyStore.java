@@ -0,0 +1,166 @@
+package com.turkcell.ecommerce.web;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.turkcell.ecommerce.exception.IdempotencyKeyInProgressException;
+import com.turkcell.ecommerce.exception.IdempotencyKeyMismatchException;
+import com.turkcell.ecommerce.exception.ServiceOverloadedException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * Replays responses of requests sent with an {@code Idempotency-Key} header.
+ * <p>
+ * The first request for a key (per client and endpoint) runs and its response is kept for the TTL;
+ * duplicates arriving while it runs wait on the same future instead of running again, and later
+ * ones get the stored response. Failed requests are not stored, so a retry after an error runs
+ * again. Reusing a key with a different body is rejected. The store is bounded: when it is full
+ * of unexpired entries, new keyed requests are shed rather than run unprotected.
+ */
+@Component
+public class IdempotencyStore {
+
+    public static final String IDEMPOTENCY_KEY_HEADER = "Idempotency-Key";
+    public static final String REPLAYED_HEADER = "Idempotent-Replayed";
+
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+    private final ObjectMapper objectMapper;
+    private final long ttlNanos;
+    private final long waitTimeoutMs;
+    private final int maxEntries;
+
+    public IdempotencyStore(ObjectMapper objectMapper,
+                            @Value("${ecommerce.idempotency.ttl-ms:86400000}") long ttlMs,
+                            @Value("${ecommerce.idempotency.wait-timeout-ms:10000}") long waitTimeoutMs,
+                            @Value("${ecommerce.idempotency.max-entries:100000}") int maxEntries) {
+        this.objectMapper = objectMapper;
+        this.ttlNanos = TimeUnit.MILLISECONDS.toNanos(ttlMs);
+        this.waitTimeoutMs = waitTimeoutMs;
+        this.maxEntries = maxEntries;
+    }
+
+    /**
+     * Run {@code action} once per idempotency key, or run it directly when no key was sent
+     */
+    public <T> ResponseEntity<T> execute(String endpoint, String idempotencyKey, Object request,
+                                         Supplier<ResponseEntity<T>> action) {
+        if (idempotencyKey == null || idempotencyKey.isBlank()) {
+            return action.get();
+        }
+        String storeKey = ClientContext.current() + '|' + endpoint + '|' + idempotencyKey.trim();
+        byte[] requestHash = hash(request);
+
+        while (true) {
+            Entry existing = entries.get(storeKey);
+            if (existing != null && existing.isExpired(System.nanoTime())) {
+                entries.remove(storeKey, existing);
+                continue;
+            }
+            if (existing != null) {
+                if (!Arrays.equals(existing.requestHash, requestHash)) {
+                    throw new IdempotencyKeyMismatchException(
+                            "Idempotency-Key '" + idempotencyKey + "' was already used with a different request");
+                }
+                return replay(existing, idempotencyKey);
+            }
+
+            if (entries.size() >= maxEntries) {
+                evictExpired();
+                if (entries.size() >= maxEntries) {
+                    throw new ServiceOverloadedException("Too many pending idempotent requests", 1);
+                }
+            }
+            Entry created = new Entry(requestHash);
+            if (entries.putIfAbsent(storeKey, created) == null) {
+                return run(storeKey, created, action);
+            }
+        }
+    }
+
+    /**
+     * Drop completed entries whose TTL has passed
+     */
+    @Scheduled(fixedDelayString = "${ecommerce.idempotency.sweep-interval-ms:60000}")
+    public void evictExpired() {
+        long now = System.nanoTime();
+        entries.entrySet().removeIf(entry -> entry.getValue().isExpired(now));
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    private <T> ResponseEntity<T> run(String storeKey, Entry entry, Supplier<ResponseEntity<T>> action) {
+        ResponseEntity<T> response;
+        try {
+            response = action.get();
+        } catch (RuntimeException e) {
+            entries.remove(storeKey, entry);
+            entry.response.completeExceptionally(e);
+            throw e;
+        }
+        entry.completedAt = System.nanoTime();
+        entry.response.complete(response);
+        return response;
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> ResponseEntity<T> replay(Entry entry, String idempotencyKey) {
+        ResponseEntity<?> response;
+        try {
+            response = entry.response.get(waitTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            throw new IdempotencyKeyInProgressException(
+                    "A request with Idempotency-Key '" + idempotencyKey + "' is still in progress");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException(e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IdempotencyKeyInProgressException(
+                    "A request with Idempotency-Key '" + idempotencyKey + "' is still in progress");
+        }
+        HttpHeaders headers = new HttpHeaders();
+        headers.addAll(response.getHeaders());
+        headers.set(REPLAYED_HEADER, "true");
+        return new ResponseEntity<>((T) response.getBody(), headers, response.getStatusCode());
+    }
+
+    private byte[] hash(Object request) {
+        try {
+            return MessageDigest.getInstance("SHA-256").digest(objectMapper.writeValueAsBytes(request));
+        } catch (JsonProcessingException | NoSuchAlgorithmException e) {
+            throw new IllegalStateException("Cannot hash request for idempotency check", e);
+        }
+    }
+
+    private final class Entry {
+        private final byte[] requestHash;
+        private final CompletableFuture<ResponseEntity<?>> response = new CompletableFuture<>();
+        private volatile long completedAt;
+
+        private Entry(byte[] requestHash) {
+            this.requestHash = requestHash;
+        }
+
+        private boolean isExpired(long now) {
+            return response.isDone() && now - completedAt > ttlNanos;
+        }
+    }
+}
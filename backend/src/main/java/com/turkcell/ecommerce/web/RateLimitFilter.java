@@ -0,0 +1,94 @@
+package com.turkcell.ecommerce.web;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.turkcell.ecommerce.dto.ErrorResponse;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Rejects API requests over the client's rate limit with 429 before they reach a controller or
+ * open a transaction.
+ * <p>
+ * Clients are limited by remote address. Behind a load balancer that is the client's address from
+ * {@code X-Forwarded-For}, which Tomcat's remote IP valve applies to requests from the trusted
+ * proxies ({@code server.forward-headers-strategy}, {@code server.tomcat.remoteip.internal-proxies});
+ * otherwise every client would share the balancer's bucket. The {@code X-API-Key} header is chosen
+ * by the client, so it only gets a bucket of its own when it is one of the configured
+ * {@code api-keys}; otherwise a client could send a new key with every request and always find a
+ * full bucket.
+ */
+@Slf4j
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 1)
+@ConditionalOnProperty(name = "ecommerce.rate-limit.enabled", havingValue = "true", matchIfMissing = true)
+public class RateLimitFilter extends OncePerRequestFilter {
+
+    private final RateLimiter rateLimiter;
+    private final ObjectMapper objectMapper;
+    private final Set<String> apiKeys;
+
+    public RateLimitFilter(RateLimiter rateLimiter, ObjectMapper objectMapper,
+                           @Value("${ecommerce.rate-limit.api-keys:}") List<String> apiKeys) {
+        this.rateLimiter = rateLimiter;
+        this.objectMapper = objectMapper;
+        this.apiKeys = apiKeys.stream()
+                .map(String::trim)
+                .filter(key -> !key.isEmpty())
+                .collect(Collectors.toUnmodifiableSet());
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !request.getRequestURI().startsWith("/api/");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        String clientKey = rateLimitKey(request);
+        RequestType type = RequestType.classify(request);
+        long waitNanos = rateLimiter.tryAcquire(clientKey, type);
+        if (waitNanos == 0) {
+            chain.doFilter(request, response);
+            return;
+        }
+
+        long retryAfterSeconds = Math.max(1, (waitNanos + TimeUnit.SECONDS.toNanos(1) - 1) / TimeUnit.SECONDS.toNanos(1));
+        log.debug("Rate limit exceeded for {} ({} request), retry after {}s", clientKey, type, retryAfterSeconds);
+        ErrorResponse errorResponse = ErrorResponse.builder()
+                .message("Rate limit exceeded")
+                .traceId(UUID.randomUUID().toString())
+                .build();
+        response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, Long.toString(retryAfterSeconds));
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        objectMapper.writeValue(response.getOutputStream(), errorResponse);
+    }
+
+    private String rateLimitKey(HttpServletRequest request) {
+        String apiKey = request.getHeader(ClientContext.API_KEY_HEADER);
+        if (apiKey != null && apiKeys.contains(apiKey.trim())) {
+            return "key:" + apiKey.trim();
+        }
+        return "ip:" + request.getRemoteAddr();
+    }
+}
@@ -0,0 +1,105 @@
+package com.turkcell.ecommerce.web;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Per-client token buckets, one per client key in a concurrent map (whose per-bin locking is only
+ * taken when a client is first seen). A bucket is a single "theoretical arrival time" updated by
+ * compare-and-set (GCRA), so admitting a request takes no lock and no timer. Each request type
+ * draws its own number of tokens from the client's bucket.
+ * <p>
+ * At most {@code max-clients} buckets are kept. When the map is full, idle buckets are swept (at
+ * most once a second); clients that still do not fit share one overflow bucket, so a flood of new
+ * client keys is limited as a whole instead of growing the map.
+ */
+@Component
+public class RateLimiter {
+
+    private static final long FULL_SWEEP_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+    private final Map<String, AtomicLong> buckets = new ConcurrentHashMap<>();
+    private final AtomicLong overflowBucket = new AtomicLong(System.nanoTime());
+    private final AtomicLong lastFullSweep = new AtomicLong(System.nanoTime() - FULL_SWEEP_INTERVAL_NANOS);
+    private final Map<RequestType, Long> costNanos = new EnumMap<>(RequestType.class);
+    private final long nanosPerToken;
+    private final long burstNanos;
+    private final int maxClients;
+
+    public RateLimiter(@Value("${ecommerce.rate-limit.tokens-per-second:50}") double tokensPerSecond,
+                       @Value("${ecommerce.rate-limit.burst:100}") int burst,
+                       @Value("${ecommerce.rate-limit.cost.search:10}") int searchCost,
+                       @Value("${ecommerce.rate-limit.cost.list:2}") int listCost,
+                       @Value("${ecommerce.rate-limit.cost.point-read:1}") int pointReadCost,
+                       @Value("${ecommerce.rate-limit.cost.write:5}") int writeCost,
+                       @Value("${ecommerce.rate-limit.max-clients:100000}") int maxClients) {
+        this.maxClients = maxClients;
+        this.nanosPerToken = (long) (TimeUnit.SECONDS.toNanos(1) / tokensPerSecond);
+        this.burstNanos = burst * nanosPerToken;
+        costNanos.put(RequestType.SEARCH, searchCost * nanosPerToken);
+        costNanos.put(RequestType.LIST, listCost * nanosPerToken);
+        costNanos.put(RequestType.POINT_READ, pointReadCost * nanosPerToken);
+        costNanos.put(RequestType.WRITE, writeCost * nanosPerToken);
+    }
+
+    /**
+     * Take the tokens for a request if the client has them
+     *
+     * @return 0 if admitted, otherwise nanoseconds until the client has enough tokens
+     */
+    public long tryAcquire(String clientKey, RequestType type) {
+        return tryAcquire(clientKey, costNanos.get(type), System.nanoTime());
+    }
+
+    long tryAcquire(String clientKey, long cost, long now) {
+        AtomicLong bucket = buckets.get(clientKey);
+        if (bucket == null) {
+            bucket = newBucket(clientKey, now);
+        }
+        while (true) {
+            long arrival = bucket.get();
+            long next = Math.max(arrival, now) + cost;
+            long excess = next - now - burstNanos;
+            if (excess > 0) {
+                return excess;
+            }
+            if (bucket.compareAndSet(arrival, next)) {
+                return 0;
+            }
+        }
+    }
+
+    private AtomicLong newBucket(String clientKey, long now) {
+        if (buckets.size() >= maxClients) {
+            long lastSweep = lastFullSweep.get();
+            if (now - lastSweep >= FULL_SWEEP_INTERVAL_NANOS && lastFullSweep.compareAndSet(lastSweep, now)) {
+                evictIdle();
+            }
+            if (buckets.size() >= maxClients) {
+                AtomicLong existing = buckets.get(clientKey);
+                return existing != null ? existing : overflowBucket;
+            }
+        }
+        return buckets.computeIfAbsent(clientKey, key -> new AtomicLong(now));
+    }
+
+    public int clientCount() {
+        return buckets.size();
+    }
+
+    /**
+     * Forget clients whose bucket has refilled completely; they start full again when seen next
+     */
+    @Scheduled(fixedDelayString = "${ecommerce.rate-limit.sweep-interval-ms:60000}")
+    public void evictIdle() {
+        long now = System.nanoTime();
+        buckets.values().removeIf(bucket -> bucket.get() - now <= 0);
+    }
+}
@@ -0,0 +1,42 @@
+package com.turkcell.ecommerce.web;
+
+import jakarta.servlet.http.HttpServletRequest;
+
+/**
+ * Coarse cost class of an API request, derived from its method, path and query
+ */
+public enum RequestType {
+
+    /** Collection read with a text query (LIKE scan) */
+    SEARCH,
+    /** Collection read without a text query */
+    LIST,
+    /** Read of a single resource */
+    POINT_READ,
+    /** Create, update or delete */
+    WRITE;
+
+    public static RequestType classify(HttpServletRequest request) {
+        String method = request.getMethod();
+        if (!"GET".equals(method) && !"HEAD".equals(method)) {
+            return WRITE;
+        }
+        if (!isCollection(request.getRequestURI())) {
+            return POINT_READ;
+        }
+        String query = request.getParameter("q");
+        return query != null && !query.isBlank() ? SEARCH : LIST;
+    }
+
+    private static boolean isCollection(String path) {
+        // /api/{version}/{collection}, optionally with a trailing slash
+        int end = path.endsWith("/") ? path.length() - 1 : path.length();
+        int slashes = 0;
+        for (int i = 0; i < end; i++) {
+            if (path.charAt(i) == '/') {
+                slashes++;
+            }
+        }
+        return slashes == 3;
+    }
+}
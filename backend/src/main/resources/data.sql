@@ -1,3 +1,10 @@
+-- normalizedPrice sorts place products without an exchange rate last (NULLS LAST) in both directions;
+-- @Index cannot declare a null ordering, so the normalized price indexes are recreated to match it
+DROP INDEX idx_products_normalized_price;
+CREATE INDEX idx_products_normalized_price ON products (normalized_price NULLS LAST);
+DROP INDEX idx_products_category_normalized_price;
+CREATE INDEX idx_products_category_normalized_price ON products (category_id, normalized_price NULLS LAST);
+
 -- Categories (10 categories)
 INSERT INTO categories (name, created_at, updated_at) VALUES
 ('Smartphones', CURRENT_TIMESTAMP, CURRENT_TIMESTAMP),
@@ -28,3 +35,9 @@ INSERT INTO products (sku, name, description, price, currency, in_stock, image_u
 ('SKU-MONITOR-LG', 'LG UltraWide 34"', '34-inch curved ultrawide monitor with QHD resolution', 499.99, 'USD', true, 'https://cdn.example.com/products/SKU-MONITOR-LG.jpg', 10.0, 4.4, 10, CURRENT_TIMESTAMP, CURRENT_TIMESTAMP),
 ('SKU-WEBCAM-LOGI', 'Logitech C920 HD Pro', '1080p HD webcam for video conferencing', 79.99, 'USD', true, 'https://cdn.example.com/products/SKU-WEBCAM-LOGI.jpg', 18.0, 4.2, 9, CURRENT_TIMESTAMP, CURRENT_TIMESTAMP),
 ('SKU-SWITCH-OLED', 'Nintendo Switch OLED', 'Handheld gaming console with vibrant OLED screen', 349.99, 'USD', false, 'https://cdn.example.com/products/SKU-SWITCH-OLED.jpg', 0.0, 4.8, 4, CURRENT_TIMESTAMP, CURRENT_TIMESTAMP);
+
+-- Exchange rates into the base currency (ecommerce.fx.base-currency, USD, whose rate is always 1 and not stored)
+INSERT INTO fx_rates (currency, rate_to_base, updated_at) VALUES
+('EUR', 1.08, CURRENT_TIMESTAMP),
+('GBP', 1.27, CURRENT_TIMESTAMP),
+('TRY', 0.031, CURRENT_TIMESTAMP);
@@ -0,0 +1,156 @@
+package com.turkcell.ecommerce.cache;
+
+import com.turkcell.ecommerce.dto.MoveProductsRequest;
+import com.turkcell.ecommerce.dto.v3.PatchProductV3Request;
+import com.turkcell.ecommerce.dto.v3.UpdateProductV3Request;
+import com.turkcell.ecommerce.entity.ProductEntity;
+import com.turkcell.ecommerce.repository.ProductRepository;
+import com.turkcell.ecommerce.search.ProductFilter;
+import com.turkcell.ecommerce.service.CategoryService;
+import com.turkcell.ecommerce.service.ProductServiceV3;
+import com.turkcell.ecommerce.service.StockUpdateBuffer;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Reads after each kind of write must see the committed row and fresh listing results, even though
+ * the product and its listings were cached before the write
+ */
+@SpringBootTest(properties = {
+        "ecommerce.read-model.enabled=false",
+        // Stock updates are flushed by the test
+        "ecommerce.stock-updates.flush-interval-ms=3600000",
+        "spring.jpa.show-sql=false"
+})
+class SecondLevelCacheCoherenceTest {
+
+    @Autowired
+    private ProductServiceV3 productService;
+
+    @Autowired
+    private CategoryService categoryService;
+
+    @Autowired
+    private StockUpdateBuffer stockUpdateBuffer;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Test
+    void jpaUpdateIsSeenByTheNextRead() {
+        ProductEntity before = readWarm(1L);
+        List<Long> matches = listWarm("Replaced Phone", null);
+        assertThat(matches).doesNotContain(1L);
+
+        productService.updateProduct(1L, UpdateProductV3Request.builder()
+                .sku(before.getSku())
+                .name("Replaced Phone")
+                .description(before.getDescription())
+                .price(before.getPrice())
+                .currency(before.getCurrency())
+                .inStock(before.getInStock())
+                .imageUrl(before.getImageUrl())
+                .discountPercent(before.getDiscountPercent())
+                .rating(before.getRating())
+                .categoryId(before.getCategory().getId())
+                .build());
+
+        assertThat(read(1L).getName()).isEqualTo("Replaced Phone");
+        assertThat(list("Replaced Phone", null)).contains(1L);
+    }
+
+    @Test
+    void jdbcPatchIsSeenByTheNextRead() {
+        readWarm(2L);
+        assertThat(listWarm("Patched Phone", null)).doesNotContain(2L);
+
+        productService.patchProduct(2L, PatchProductV3Request.builder().name("Patched Phone").build());
+
+        assertThat(read(2L).getName()).isEqualTo("Patched Phone");
+        assertThat(list("Patched Phone", null)).contains(2L);
+    }
+
+    @Test
+    void stockFlushIsSeenByTheNextRead() {
+        boolean inStock = readWarm(6L).getInStock();
+
+        productService.updateStock(6L, !inStock);
+        stockUpdateBuffer.flush();
+
+        assertThat(read(6L).getInStock()).isEqualTo(!inStock);
+    }
+
+    @Test
+    void categoryMoveIsSeenByTheNextRead() {
+        Long source = readWarm(7L).getCategory().getId();
+        Long target = source.equals(10L) ? 9L : 10L;
+        assertThat(listWarm(null, target)).doesNotContain(7L);
+        assertThat(listWarm(null, source)).contains(7L);
+
+        categoryService.moveProducts(source, MoveProductsRequest.builder()
+                .targetCategoryId(target)
+                .productIds(List.of(7L))
+                .build());
+
+        assertThat(read(7L).getCategory().getId()).isEqualTo(target);
+        assertThat(list(null, target)).contains(7L);
+        assertThat(list(null, source)).doesNotContain(7L);
+    }
+
+    @Test
+    void deleteIsSeenByTheNextRead() {
+        readWarm(14L);
+        assertThat(listWarm(null, null)).contains(14L);
+
+        productService.deleteProduct(14L);
+
+        assertThat(productRepository.findById(14L)).isEmpty();
+        assertThat(list(null, null)).doesNotContain(14L);
+    }
+
+    /**
+     * Read a product, then check it is held in the entity cache
+     */
+    private ProductEntity readWarm(Long id) {
+        ProductEntity product = read(id);
+        assertThat(entityManagerFactory.getCache().contains(ProductEntity.class, id)).isTrue();
+        return product;
+    }
+
+    private ProductEntity read(Long id) {
+        return productRepository.findById(id).orElseThrow();
+    }
+
+    /**
+     * Run a listing twice, checking the second run is answered from the query cache
+     */
+    private List<Long> listWarm(String query, Long categoryId) {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        List<Long> ids = list(query, categoryId);
+        long hits = statistics.getQueryCacheHitCount();
+        assertThat(list(query, categoryId)).isEqualTo(ids);
+        assertThat(statistics.getQueryCacheHitCount()).isGreaterThan(hits);
+        return ids;
+    }
+
+    private List<Long> list(String query, Long categoryId) {
+        return productRepository.findContentMatching(ProductFilter.of(query, categoryId, null, null, null, null),
+                        PageRequest.of(0, 100, Sort.by("id")))
+                .stream()
+                .map(ProductEntity::getId)
+                .toList();
+    }
+}
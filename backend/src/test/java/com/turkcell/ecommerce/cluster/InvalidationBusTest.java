@@ -0,0 +1,187 @@
+package com.turkcell.ecommerce.cluster;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.turkcell.ecommerce.event.CategoryChangedEvent;
+import com.turkcell.ecommerce.event.ChangeType;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.IOException;
+import java.net.DatagramSocket;
+import java.net.SocketException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.after;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+
+/**
+ * Two buses talking over UDP on loopback: in-order messages are applied, a lost message or a
+ * restarted sender rebuilds the receiver's caches, and datagrams from strangers are dropped
+ */
+class InvalidationBusTest {
+
+    private static final long WAIT_MS = 5_000;
+
+    private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+    private final RemoteChangeApplier applier = mock(RemoteChangeApplier.class);
+    private final List<AutoCloseable> resources = new ArrayList<>();
+
+    private int senderPort;
+    private int receiverPort;
+    private UdpInvalidationTransport senderTransport;
+    /** Drops the sender's messages while set */
+    private final AtomicBoolean losing = new AtomicBoolean();
+
+    @BeforeEach
+    void startReceiver() throws IOException {
+        senderPort = freePort();
+        receiverPort = freePort();
+        senderTransport = transport(senderPort, receiverPort);
+        bus(transport(receiverPort, senderPort), "receiver", applier).start();
+    }
+
+    @AfterEach
+    void close() throws Exception {
+        for (AutoCloseable resource : resources) {
+            resource.close();
+        }
+    }
+
+    @Test
+    void messagesInOrderAreApplied() {
+        InvalidationBus sender = sender();
+
+        changeCategory(sender, 7L);
+        changeCategory(sender, 8L);
+
+        ArgumentCaptor<InvalidationMessage> applied = ArgumentCaptor.forClass(InvalidationMessage.class);
+        verify(applier, timeout(WAIT_MS).times(2)).apply(applied.capture());
+        assertThat(applied.getAllValues()).extracting(InvalidationMessage::categoryIds)
+                .containsExactly(Set.of(7L), Set.of(8L));
+        verify(applier, never()).flushAll(anyString());
+    }
+
+    @Test
+    void aLostMessageRebuildsTheCaches() {
+        InvalidationBus sender = sender();
+        changeCategory(sender, 7L);
+        verify(applier, timeout(WAIT_MS)).apply(any());
+
+        losing.set(true);
+        changeCategory(sender, 8L);
+        losing.set(false);
+        changeCategory(sender, 9L);
+
+        verify(applier, timeout(WAIT_MS)).flushAll(anyString());
+        verify(applier, after(200).times(1)).apply(any());
+    }
+
+    @Test
+    void aRestartedSenderRebuildsTheCaches() {
+        changeCategory(sender(), 7L);
+        verify(applier, timeout(WAIT_MS)).apply(any());
+
+        // Same node id and port, new incarnation numbering from 1 again
+        changeCategory(sender(), 8L);
+
+        verify(applier, timeout(WAIT_MS)).flushAll(anyString());
+        verify(applier, after(200).times(1)).apply(any());
+    }
+
+    @Test
+    void rebuildsAskedForDuringARebuildAreMerged() throws InterruptedException {
+        CountDownLatch rebuilding = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        doAnswer(invocation -> {
+            rebuilding.countDown();
+            release.await(WAIT_MS, TimeUnit.MILLISECONDS);
+            return null;
+        }).when(applier).flushAll(anyString());
+        InvalidationBus sender = sender();
+        losing.set(true);
+        changeCategory(sender, 7L);
+        losing.set(false);
+        changeCategory(sender, 8L);
+        assertThat(rebuilding.await(WAIT_MS, TimeUnit.MILLISECONDS)).isTrue();
+
+        // Three more gaps while the first rebuild runs
+        for (long id = 9; id < 15; id += 2) {
+            losing.set(true);
+            changeCategory(sender, id);
+            losing.set(false);
+            changeCategory(sender, id + 1);
+        }
+        verify(applier, after(500).times(1)).flushAll(anyString());
+        release.countDown();
+
+        verify(applier, timeout(WAIT_MS).times(2)).flushAll(anyString());
+        verify(applier, after(500).times(2)).flushAll(anyString());
+    }
+
+    @Test
+    void datagramsFromOtherSendersAreDropped() throws IOException {
+        // Knows the receiver, but is not among the receiver's peers
+        InvalidationBus stranger = bus(transport(freePort(), receiverPort), "sender", mock(RemoteChangeApplier.class));
+
+        changeCategory(stranger, 7L);
+
+        verify(applier, after(500).never()).apply(any());
+        verify(applier, never()).flushAll(anyString());
+    }
+
+    private InvalidationBus sender() {
+        InvalidationTransport lossy = new InvalidationTransport() {
+            @Override
+            public void send(byte[] message) throws IOException {
+                if (!losing.get()) {
+                    senderTransport.send(message);
+                }
+            }
+
+            @Override
+            public void listen(Consumer<byte[]> receiver) {
+            }
+        };
+        return bus(lossy, "sender", mock(RemoteChangeApplier.class));
+    }
+
+    private InvalidationBus bus(InvalidationTransport transport, String nodeId, RemoteChangeApplier nodeApplier) {
+        InvalidationBus bus = new InvalidationBus(transport, nodeApplier, objectMapper, nodeId, 500, 60_000);
+        resources.add(bus::close);
+        return bus;
+    }
+
+    private UdpInvalidationTransport transport(int port, int peerPort) throws SocketException {
+        UdpInvalidationTransport transport =
+                new UdpInvalidationTransport("127.0.0.1", port, List.of("127.0.0.1:" + peerPort));
+        resources.add(transport::close);
+        return transport;
+    }
+
+    private static void changeCategory(InvalidationBus bus, long categoryId) {
+        bus.onCategoryChanged(new CategoryChangedEvent(ChangeType.UPDATED, categoryId, "Category", null));
+        bus.flush();
+    }
+
+    private static int freePort() throws SocketException {
+        try (DatagramSocket socket = new DatagramSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+}
@@ -0,0 +1,154 @@
+package com.turkcell.ecommerce.datasource;
+
+import com.turkcell.ecommerce.web.ClientContextFilter;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Which database serves a statement: read-only transactions on ready replicas, everything else and
+ * recent writers' reads on the primary
+ */
+class ReadWriteRoutingDataSourceTest {
+
+    private final ReadYourWritesTracker tracker = new ReadYourWritesTracker(60_000);
+
+    @AfterEach
+    void endTransaction() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clear();
+        }
+    }
+
+    @Test
+    void readOnlyTransactionsRotateOverTheReplicas() {
+        ReadWriteRoutingDataSource routing = routing(true);
+
+        assertThat(List.of(target(routing, true), target(routing, true), target(routing, true)))
+                .containsExactly("replica0", "replica1", "replica0");
+    }
+
+    @Test
+    void writesAndStatementsOutsideTransactionsUseThePrimary() {
+        ReadWriteRoutingDataSource routing = routing(true);
+
+        assertThat(database(routing)).isEqualTo("primary");
+        assertThat(target(routing, false)).isEqualTo("primary");
+    }
+
+    @Test
+    void replicasServeReadsOnlyOnceReady() {
+        ReadWriteRoutingDataSource routing = routing(false);
+        assertThat(target(routing, true)).isEqualTo("primary");
+
+        routing.markReplicasReady();
+
+        assertThat(target(routing, true)).isEqualTo("replica0");
+    }
+
+    @Test
+    void clientsReadFromThePrimaryAfterCommittingAWrite() {
+        ReadWriteRoutingDataSource routing = routing(true);
+
+        asClient("10.0.0.1", () -> commitWrite(routing));
+
+        assertThat(asClient("10.0.0.1", () -> target(routing, true))).isEqualTo("primary");
+        assertThat(asClient("10.0.0.2", () -> target(routing, true))).startsWith("replica");
+    }
+
+    @Test
+    void rolledBackWritesDoNotMakeClientsSticky() {
+        ReadWriteRoutingDataSource routing = routing(true);
+
+        asClient("10.0.0.1", () -> {
+            beginTransaction(false);
+            database(routing);
+            TransactionSynchronizationManager.getSynchronizations()
+                    .forEach(synchronization -> synchronization.afterCompletion(
+                            TransactionSynchronization.STATUS_ROLLED_BACK));
+            TransactionSynchronizationManager.clear();
+            return null;
+        });
+
+        assertThat(asClient("10.0.0.1", () -> target(routing, true))).startsWith("replica");
+    }
+
+    private ReadWriteRoutingDataSource routing(boolean replicasReady) {
+        ReadWriteRoutingDataSource routing = new ReadWriteRoutingDataSource(dataSource("primary"),
+                List.of(dataSource("replica0"), dataSource("replica1")), tracker, replicasReady);
+        routing.afterPropertiesSet();
+        return routing;
+    }
+
+    /**
+     * The database a statement of a new transaction goes to
+     */
+    private static String target(ReadWriteRoutingDataSource routing, boolean readOnly) {
+        beginTransaction(readOnly);
+        try {
+            return database(routing);
+        } finally {
+            TransactionSynchronizationManager.clear();
+        }
+    }
+
+    private static Void commitWrite(ReadWriteRoutingDataSource routing) {
+        beginTransaction(false);
+        database(routing);
+        List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+        TransactionSynchronizationManager.clear();
+        synchronizations.forEach(TransactionSynchronization::afterCommit);
+        return null;
+    }
+
+    /**
+     * Name of the database the routing data source connects to now
+     */
+    private static String database(ReadWriteRoutingDataSource routing) {
+        try (Connection connection = routing.getConnection()) {
+            return connection.getMetaData().getURL().substring("jdbc:h2:mem:routing_".length());
+        } catch (SQLException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static void beginTransaction(boolean readOnly) {
+        TransactionSynchronizationManager.initSynchronization();
+        TransactionSynchronizationManager.setActualTransactionActive(true);
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(readOnly);
+    }
+
+    /**
+     * Run as the client at the given address, the way requests are
+     */
+    private static <T> T asClient(String remoteAddress, Supplier<T> task) {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.setRemoteAddr(remoteAddress);
+        Object[] result = new Object[1];
+        try {
+            new ClientContextFilter().doFilter(request, new MockHttpServletResponse(),
+                    (req, res) -> result[0] = task.get());
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+        @SuppressWarnings("unchecked")
+        T value = (T) result[0];
+        return value;
+    }
+
+    private static DataSource dataSource(String name) {
+        return new DriverManagerDataSource("jdbc:h2:mem:routing_" + name);
+    }
+}
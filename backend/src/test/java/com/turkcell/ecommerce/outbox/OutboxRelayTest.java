@@ -0,0 +1,100 @@
+package com.turkcell.ecommerce.outbox;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.event.ApplicationEvents;
+import org.springframework.test.context.event.RecordApplicationEvents;
+
+import java.time.OffsetDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Outbox events whose ids become visible out of order: waited for while the gap is young, and
+ * delivered late once the relay has moved past them
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:outbox_relay_test",
+        // The test runs the relay
+        "ecommerce.outbox.poll-interval-ms=3600000",
+        "ecommerce.outbox.settle-delay-ms=1000",
+        "ecommerce.read-model.enabled=false",
+        "spring.jpa.show-sql=false"
+})
+@RecordApplicationEvents
+class OutboxRelayTest {
+
+    @Autowired
+    private OutboxRelay relay;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ApplicationEvents events;
+
+    @Test
+    void youngGapsAreWaitedFor() {
+        long mark = highWaterMark();
+        insert(mark + 2, OffsetDateTime.now());
+
+        relay.relay();
+        assertThat(delivered()).isEmpty();
+
+        insert(mark + 1, OffsetDateTime.now());
+        relay.relay();
+        assertThat(delivered()).containsExactly(mark + 1, mark + 2);
+        assertThat(gaps()).isEmpty();
+    }
+
+    @Test
+    void eventsCommittedAfterTheMarkPassedThemAreDelivered() {
+        long mark = highWaterMark();
+        insert(mark + 2, OffsetDateTime.now().minusMinutes(1));
+
+        relay.relay();
+        assertThat(delivered()).containsExactly(mark + 2);
+        assertThat(gaps()).containsExactly(mark + 1);
+
+        // The transaction that took the skipped id commits
+        insert(mark + 1, OffsetDateTime.now().minusMinutes(1));
+        relay.relay();
+        assertThat(delivered()).containsExactly(mark + 2, mark + 1);
+        assertThat(gaps()).isEmpty();
+        assertThat(highWaterMark()).isEqualTo(mark + 2);
+    }
+
+    @Test
+    void gapsPastTheTimeoutAreGivenUp() {
+        long mark = highWaterMark();
+        insert(mark + 2, OffsetDateTime.now().minusMinutes(1));
+        relay.relay();
+        assertThat(gaps()).containsExactly(mark + 1);
+
+        jdbcTemplate.update("UPDATE outbox_relay_gaps SET skipped_at = ?", OffsetDateTime.now().minusHours(1));
+        relay.purgeDelivered();
+
+        assertThat(gaps()).isEmpty();
+    }
+
+    private long highWaterMark() {
+        return jdbcTemplate.queryForObject(
+                "SELECT last_event_id FROM outbox_relay_state WHERE relay_name = 'default'", Long.class);
+    }
+
+    private void insert(long id, OffsetDateTime createdAt) {
+        jdbcTemplate.update("INSERT INTO outbox_events (id, aggregate_type, aggregate_id, event_type, payload, created_at) "
+                + "VALUES (?, 'product', 1, 'UPDATED', '{}', ?)", id, createdAt);
+    }
+
+    private List<Long> delivered() {
+        return events.stream(OutboxMessage.class).map(OutboxMessage::id).toList();
+    }
+
+    private List<Long> gaps() {
+        return jdbcTemplate.queryForList("SELECT event_id FROM outbox_relay_gaps ORDER BY event_id", Long.class);
+    }
+}
@@ -0,0 +1,167 @@
+package com.turkcell.ecommerce.repository;
+
+import com.turkcell.ecommerce.datasource.ProductShards;
+import com.turkcell.ecommerce.entity.ProductEntity;
+import com.turkcell.ecommerce.exception.InvalidPageRequestException;
+import com.turkcell.ecommerce.search.ProductFilter;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import javax.sql.DataSource;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Listings over three shards: pages cut from the k-way merge follow one global order (ties broken by
+ * id) whatever shard the rows are on, and pages ending past the scatter window are rejected
+ */
+class ShardedProductQueriesTest {
+
+    private static final int SHARDS = 3;
+    private static final int CATEGORIES = 6;
+    private static final int PRODUCTS = 30;
+    private static final int WINDOW = 40;
+
+    private final List<Product> products = new ArrayList<>();
+    private ShardedProductQueries queries;
+
+    @BeforeEach
+    void createShards() {
+        List<DataSource> dataSources = new ArrayList<>();
+        for (int shard = 0; shard < SHARDS; shard++) {
+            DataSource dataSource = new DriverManagerDataSource(
+                    "jdbc:h2:mem:shard_" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1", "sa", "");
+            JdbcTemplate template = new JdbcTemplate(dataSource);
+            template.execute("CREATE TABLE categories (id BIGINT PRIMARY KEY, name VARCHAR(100))");
+            template.execute("CREATE TABLE products (id BIGINT PRIMARY KEY, sku VARCHAR(64), name VARCHAR(255), "
+                    + "description VARCHAR(1000), price DOUBLE PRECISION, currency VARCHAR(3), in_stock BOOLEAN, "
+                    + "image_url VARCHAR(255), discount_percent DOUBLE PRECISION, rating DOUBLE PRECISION, "
+                    + "category_id BIGINT, created_at TIMESTAMP WITH TIME ZONE, updated_at TIMESTAMP WITH TIME ZONE, "
+                    + "name_search VARCHAR(255), description_search VARCHAR(1000), name_sort_key VARCHAR(255), "
+                    + "effective_price DOUBLE PRECISION, normalized_price DOUBLE PRECISION)");
+            dataSources.add(dataSource);
+        }
+        ProductShards shards = new ProductShards(dataSources, true);
+        for (long categoryId = 1; categoryId <= CATEGORIES; categoryId++) {
+            new JdbcTemplate(shards.get(shards.shardOf(categoryId)))
+                    .update("INSERT INTO categories (id, name) VALUES (?, ?)", categoryId, "Category " + categoryId);
+        }
+        OffsetDateTime now = OffsetDateTime.now();
+        for (long id = 1; id <= PRODUCTS; id++) {
+            // Four prices only, so most rows tie on price with rows of other shards
+            Product product = new Product(id, id % CATEGORIES + 1, (id % 4) * 10.0,
+                    id % 5 == 0 ? null : (double) (id % 3));
+            products.add(product);
+            new JdbcTemplate(shards.get(shards.shardOf(product.categoryId()))).update(
+                    "INSERT INTO products (id, sku, name, price, currency, in_stock, category_id, created_at, "
+                            + "updated_at, name_search, effective_price, normalized_price) "
+                            + "VALUES (?, ?, ?, ?, 'TRY', TRUE, ?, ?, ?, ?, ?, ?)",
+                    id, "SKU-" + id, "Product " + id, product.price(), product.categoryId(), now, now,
+                    "product " + id, product.price(), product.normalizedPrice());
+        }
+        queries = new ShardedProductQueries(shards, WINDOW);
+    }
+
+    @AfterEach
+    void shutdown() {
+        queries.shutdown();
+    }
+
+    @Test
+    void pagesAcrossShardsFollowTheGlobalOrder() {
+        Sort byPrice = Sort.by(Sort.Direction.DESC, "price");
+
+        List<Long> paged = pageThrough(byPrice, 7);
+
+        assertThat(paged).containsExactlyElementsOf(expected(
+                Comparator.comparing(Product::price).reversed().thenComparing(Product::id)));
+    }
+
+    @Test
+    void tiesOnTheSortKeyAreBrokenByIdWithoutRepeatsOrGaps() {
+        // Every product has the same currency
+        List<Long> paged = pageThrough(Sort.by("currency"), 4);
+
+        assertThat(paged).containsExactlyElementsOf(LongStream.rangeClosed(1, PRODUCTS).boxed().toList());
+    }
+
+    @Test
+    void missingSortValuesAreMergedWhereTheOrderPlacesThem() {
+        Sort byNormalizedPrice = Sort.by(Sort.Order.asc("normalizedPrice").nullsLast());
+
+        List<Long> paged = pageThrough(byNormalizedPrice, 6);
+
+        assertThat(paged).containsExactlyElementsOf(expected(Comparator
+                .comparing(Product::normalizedPrice, Comparator.nullsLast(Comparator.<Double>naturalOrder()))
+                .thenComparing(Product::id)));
+    }
+
+    @Test
+    void pagesPastTheDataButWithinTheWindowAreEmpty() {
+        // Rows 30..39: the window allows them, there are only 30 products
+        assertThat(queries.findContent(ProductFilter.byQuery(null), PageRequest.of(3, 10, Sort.by("price"))))
+                .isEmpty();
+    }
+
+    @Test
+    void pagesEndingBeyondTheWindowAreRejected() {
+        ProductFilter all = ProductFilter.byQuery(null);
+
+        assertThatThrownBy(() -> queries.findContent(all, PageRequest.of(4, 10, Sort.by("price"))))
+                .isInstanceOf(InvalidPageRequestException.class);
+        assertThatThrownBy(() -> queries.findContent(all, PageRequest.of(0, WINDOW + 1, Sort.by("price"))))
+                .isInstanceOf(InvalidPageRequestException.class);
+    }
+
+    @Test
+    void listingsOfOneCategoryAreNotLimitedByTheWindow() {
+        ProductFilter category = ProductFilter.of(null, 1L, null, null, null, null);
+
+        assertThat(queries.findContent(category, PageRequest.of(10, 10, Sort.by("price")))).isEmpty();
+        assertThat(queries.findContent(category, PageRequest.of(0, 10, Sort.by("price"))))
+                .extracting(ProductEntity::getId)
+                .containsExactlyElementsOf(products.stream()
+                        .filter(product -> product.categoryId() == 1)
+                        .sorted(Comparator.comparing(Product::price).thenComparing(Product::id))
+                        .map(Product::id)
+                        .toList());
+    }
+
+    @Test
+    void countsAddUpOverTheShards() {
+        assertThat(queries.count(ProductFilter.byQuery(null))).isEqualTo(PRODUCTS);
+        assertThat(queries.count(ProductFilter.of(null, 2L, null, null, null, null)))
+                .isEqualTo(products.stream().filter(product -> product.categoryId() == 2).count());
+    }
+
+    private List<Long> pageThrough(Sort sort, int size) {
+        List<Long> ids = new ArrayList<>();
+        for (int page = 0; (long) (page + 1) * size <= WINDOW; page++) {
+            List<ProductEntity> content = queries.findContent(ProductFilter.byQuery(null), PageRequest.of(page, size, sort));
+            content.forEach(product -> ids.add(product.getId()));
+            if (content.size() < size) {
+                break;
+            }
+        }
+        return ids;
+    }
+
+    private List<Long> expected(Comparator<Product> order) {
+        return products.stream().sorted(order).map(Product::id).toList();
+    }
+
+    private record Product(long id, long categoryId, double price, Double normalizedPrice) {
+    }
+}